@@ -1,6 +1,7 @@
 package com.codeborne.selenide;
 
 import com.codeborne.selenide.conditions.Text;
+import com.codeborne.selenide.impl.ConditionScript;
 import com.codeborne.selenide.impl.Describe;
 import com.codeborne.selenide.impl.Html;
 import com.google.common.base.Predicate;
@@ -8,6 +9,7 @@ import org.openqa.selenium.StaleElementReferenceException;
 import org.openqa.selenium.WebElement;
 
 import static com.codeborne.selenide.Selenide.getFocusedElement;
+import static com.codeborne.selenide.impl.ConditionScript.literal;
 
 /**
  * Conditions to match web elements: checks for visibility, text etc.
@@ -23,6 +25,11 @@ public abstract class Condition implements Predicate<WebElement> {
     public boolean apply(WebElement element) {
       return element.isDisplayed();
     }
+
+    @Override
+    public String javascript() {
+      return "visible(e)";
+    }
   };
 
   /**
@@ -41,6 +48,11 @@ public abstract class Condition implements Predicate<WebElement> {
         return false;
       }
     }
+
+    @Override
+    public String javascript() {
+      return "true";
+    }
   };
 
   /**
@@ -69,6 +81,11 @@ public abstract class Condition implements Predicate<WebElement> {
         return true;
       }
     }
+
+    @Override
+    public String javascript() {
+      return "!visible(e)";
+    }
   };
 
   /**
@@ -137,6 +154,10 @@ public abstract class Condition implements Predicate<WebElement> {
         return element.getAttribute(attributeName) != null;
       }
       @Override
+      public String javascript() {
+        return "attr(e, " + literal(attributeName) + ") !== null";
+      }
+      @Override
       public String toString() {
         return name + " " + attributeName;
       }
@@ -156,6 +177,10 @@ public abstract class Condition implements Predicate<WebElement> {
         return expectedAttributeValue.equals(getAttributeValue(element, attributeName));
       }
       @Override
+      public String javascript() {
+        return "attrValue(e, " + literal(attributeName) + ") === " + literal(expectedAttributeValue);
+      }
+      @Override
       public String toString() {
         return name + " " + attributeName + '=' + expectedAttributeValue;
       }
@@ -182,6 +207,10 @@ public abstract class Condition implements Predicate<WebElement> {
         return Html.text.contains(getAttributeValue(element, "value"), expectedValue);
       }
       @Override
+      public String javascript() {
+        return "contains(attrValue(e, 'value'), " + literal(expectedValue) + ")";
+      }
+      @Override
       public String toString() {
         return name + " '" + expectedValue + "'";
       }
@@ -398,6 +427,10 @@ public abstract class Condition implements Predicate<WebElement> {
         return hasClass(element, cssClass);
       }
       @Override
+      public String javascript() {
+        return "hasClass(e, " + literal(cssClass) + ")";
+      }
+      @Override
       public String toString() {
         return name + " '" + cssClass + '\'';
       }
@@ -413,6 +446,10 @@ public abstract class Condition implements Predicate<WebElement> {
       return focusedElement != null && focusedElement.equals(webElement);
     }
 
+    @Override public String javascript() {
+      return "e === document.activeElement";
+    }
+
     @Override public String actualValue(WebElement webElement) {
       WebElement focusedElement = getFocusedElement();
       return focusedElement == null ? "No focused focusedElement found " :
@@ -430,6 +467,10 @@ public abstract class Condition implements Predicate<WebElement> {
       return element.isEnabled();
     }
 
+    @Override public String javascript() {
+      return "enabled(e)";
+    }
+
     @Override public String actualValue(WebElement element) {
       return element.isEnabled() ? "enabled" : "disabled";
     }
@@ -444,6 +485,10 @@ public abstract class Condition implements Predicate<WebElement> {
       return !element.isEnabled();
     }
 
+    @Override public String javascript() {
+      return "!enabled(e)";
+    }
+
     @Override public String actualValue(WebElement element) {
       return element.isEnabled() ? "enabled" : "disabled";
     }
@@ -458,6 +503,10 @@ public abstract class Condition implements Predicate<WebElement> {
       return element.isSelected();
     }
 
+    @Override public String javascript() {
+      return "selected(e)";
+    }
+
     @Override public String actualValue(WebElement element) {
       return String.valueOf(element.isSelected());
     }
@@ -472,6 +521,10 @@ public abstract class Condition implements Predicate<WebElement> {
       return element.isSelected();
     }
 
+    @Override public String javascript() {
+      return "selected(e)";
+    }
+
     @Override public String actualValue(WebElement element) {
       return String.valueOf(element.isSelected());
     }
@@ -491,6 +544,12 @@ public abstract class Condition implements Predicate<WebElement> {
         return !condition.apply(element);
       }
 
+      @Override
+      public String javascript() {
+        String js = condition.javascript();
+        return js == null ? null : "!(" + js + ")";
+      }
+
       @Override
       public String actualValue(WebElement element) {
         return condition.actualValue(element);
@@ -524,6 +583,11 @@ public abstract class Condition implements Predicate<WebElement> {
         return lastFailedCondition == null ? null : lastFailedCondition.actualValue(element);
       }
 
+      @Override
+      public String javascript() {
+        return ConditionScript.join(" && ", condition);
+      }
+
       @Override
       public String toString() {
         return lastFailedCondition == null ? super.toString() : lastFailedCondition.toString();
@@ -559,6 +623,11 @@ public abstract class Condition implements Predicate<WebElement> {
         return firstFailedCondition == null ? null : firstFailedCondition.actualValue(element);
       }
 
+      @Override
+      public String javascript() {
+        return ConditionScript.join(" || ", condition);
+      }
+
       @Override
       public String toString() {
         return firstFailedCondition == null ? super.toString() : firstFailedCondition.toString();
@@ -598,6 +667,11 @@ public abstract class Condition implements Predicate<WebElement> {
         return delegate.actualValue(element);
       }
 
+      @Override
+      public String javascript() {
+        return delegate.javascript();
+      }
+
       @Override
       public String toString() {
         return prefix + ' ' + delegate.toString();
@@ -625,6 +699,11 @@ public abstract class Condition implements Predicate<WebElement> {
       return delegate.actualValue(element);
     }
 
+    @Override
+    public String javascript() {
+      return delegate.javascript();
+    }
+
     @Override
     public String toString() {
       return delegate.toString() + " (because " + message + ")";
@@ -668,6 +747,21 @@ public abstract class Condition implements Predicate<WebElement> {
     return null;
   }
 
+  /**
+   * Javascript expression checking this condition in browser for element {@code e}.
+   * Used only if {@link Configuration#evaluateConditionsInBrowser} is enabled.
+   * Optional. Conditions without javascript are always checked via webdriver.
+   *
+   * NB! The expression must give exactly the same result as {@link #apply(WebElement)}:
+   * both positive and negative results are trusted.
+   *
+   * @return boolean javascript expression or null if condition cannot be checked in browser
+   * @see ConditionScript
+   */
+  public String javascript() {
+    return null;
+  }
+
   /**
    * Should be used for explaining the reason of condition
    */
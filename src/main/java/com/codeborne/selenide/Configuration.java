@@ -47,6 +47,23 @@ public class Configuration {
   public static long collectionsPollingInterval = Long.parseLong(
           System.getProperty("selenide.collectionsPollingInterval", "200"));
 
+  /**
+   * If set to true, Selenide waits for DOM changes between checks of element/collection conditions
+   * instead of sleeping for {@link #pollingInterval}.
+   * The condition is re-checked as soon as page DOM gets changed (detected by MutationObserver in browser).
+   *
+   * The condition is still re-checked at least once per {@link #pollingInterval}, because some changes
+   * (like "value" property of inputs or CSS transitions) do not produce DOM mutations.
+   *
+   * NB! Makes sense only for browsers supporting asynchronous javascript.
+   * Webdriver script timeout should be longer than {@link #pollingInterval}.
+   *
+   * Can be configured either programmatically or by system property "-Dselenide.waitForDomChanges=true"
+   * Default value: false
+   */
+  public static boolean waitForDomChanges = Boolean.parseBoolean(
+      System.getProperty("selenide.waitForDomChanges", "false"));
+
   /**
    * If holdBrowserOpen is true, browser window stays open after running tests. It may be useful for debugging.
    * Can be configured either programmatically or by system property "-Dselenide.holdBrowserOpen=true".
@@ -74,6 +91,18 @@ public class Configuration {
    */
   public static long openBrowserTimeoutMs = Long.parseLong(System.getProperty("selenide.openBrowserTimeout", "15000"));
 
+  /**
+   * Number of browsers kept in a pool and launched in background before tests need them.
+   * When a test closes the browser, it gets cleaned and returned to the pool instead of being closed.
+   * It's useful when browser is opened for every test (e.g. with {@code BrowserPerTest}).
+   * <p/>
+   * Must be set before the first usage of {@link WebDriverRunner}.
+   * <p/>
+   * Can be configured either programmatically or by system property "-Dselenide.browserPoolSize=4"
+   * Default value: 0 (no pool, browser is opened when needed)
+   */
+  public static int browserPoolSize = Integer.parseInt(System.getProperty("selenide.browserPoolSize", "0"));
+
   /**
    * Timeout (in milliseconds) for closing/killing browser.
    * <p/>
@@ -84,6 +113,17 @@ public class Configuration {
    */
   public static long closeBrowserTimeoutMs = Long.parseLong(System.getProperty("selenide.closeBrowserTimeout", "5000"));
 
+  /**
+   * If set to true, {@code closeWebDriver()} does not wait until browser is closed:
+   * browser and proxy server are closed in background, and test can continue immediately.
+   * <p/>
+   * Anyway, all browsers are closed (in parallel) at JVM exit.
+   * <p/>
+   * Can be configured either programmatically or by system property "-Dselenide.closeBrowserAsync=true"
+   * Default value: false
+   */
+  public static boolean closeBrowserAsync = Boolean.parseBoolean(System.getProperty("selenide.closeBrowserAsync", "false"));
+
   /**
    * Which browser to use.
    * Can be configured either programmatically or by system property "-Dselenide.browser=ie" or "-Dbrowser=ie".
@@ -194,6 +234,45 @@ public class Configuration {
    */
   public static boolean savePageSource = Boolean.parseBoolean(System.getProperty("selenide.savePageSource", "true"));
 
+  /**
+   * If set to true, screenshots and page sources are taken from browser immediately,
+   * but written to files in background threads. Test thread does not wait for disk I/O.
+   * All pending files are written at JVM exit.
+   *
+   * Can be configured either programmatically or by system property "-Dselenide.asyncScreenshots=true"
+   * Default value: false
+   */
+  public static boolean asyncScreenshots = Boolean.parseBoolean(System.getProperty("selenide.asyncScreenshots", "false"));
+
+  /**
+   * If set to true, screenshots and page sources with the same content are stored only once
+   * (in folder "artifacts" inside of reports folder, named by hash of content).
+   * File "artifacts/index.txt" maps screenshot names to stored files.
+   *
+   * Can be configured either programmatically or by system property "-Dselenide.deduplicateScreenshots=true"
+   * Default value: false
+   */
+  public static boolean deduplicateScreenshots = Boolean.parseBoolean(
+      System.getProperty("selenide.deduplicateScreenshots", "false"));
+
+  /**
+   * Folder with baseline images for {@code $.shouldMatchBaseline(name, tolerance)}.
+   * Can be configured either programmatically or by system property "-Dselenide.baselinesFolder=src/test/baselines".
+   *
+   * Default value: "src/test/resources/baselines"
+   */
+  public static String baselinesFolder = System.getProperty("selenide.baselinesFolder", "src/test/resources/baselines");
+
+  /**
+   * Number of latest screenshots kept in memory (see {@code Screenshots.getLastScreenshot()}).
+   * Older screenshots are moved to a temporary file on disk, so that long test runs do not consume memory.
+   *
+   * Can be configured either programmatically or by system property "-Dselenide.screenshotsHistorySize=100"
+   * Default value: 1000
+   */
+  public static int screenshotsHistorySize = Integer.parseInt(
+      System.getProperty("selenide.screenshotsHistorySize", "1000"));
+
   /**
    * Folder to store screenshots to.
    * Can be configured either programmatically or by system property "-Dselenide.reportsFolder=test-result/reports".
@@ -282,6 +361,46 @@ public class Configuration {
    */
   public static boolean versatileSetValue = Boolean.parseBoolean(System.getProperty("selenide.versatileSetValue", "false"));
 
+  /**
+   * If set to true, Selenide checks built-in conditions (visible, hidden, attribute, value, cssClass, enabled,
+   * selected and their combinations) by a single javascript call instead of calling webdriver methods
+   * for every condition. Visibility and attributes are checked by the same javascript which Selenium uses
+   * for isDisplayed and getAttribute, so results are the same as via webdriver.
+   * Text conditions are checked via webdriver, because getText cannot be reproduced in javascript exactly.
+   *
+   * It's especially useful for remote browsers (Selenium Grid) where every webdriver call is a network round-trip.
+   * Custom conditions are always checked via webdriver.
+   *
+   * Collection filters ({@code $$.filter}, {@code $$.exclude}, {@code $$.find}) are evaluated in browser
+   * for the same conditions.
+   *
+   * Can be configured either programmatically or by system property "-Dselenide.evaluateConditionsInBrowser=true"
+   * Default value: false
+   *
+   * @see Condition#javascript()
+   */
+  public static boolean evaluateConditionsInBrowser = Boolean.parseBoolean(
+      System.getProperty("selenide.evaluateConditionsInBrowser", "false"));
+
+  /**
+   * If set to true, Selenide reuses a web element found by previous command of the same SelenideElement
+   * instead of searching it (and all its parents) again.
+   * Cached elements are searched again after opening a page, navigating back/forward, switching frame or window
+   * and after any {@code StaleElementReferenceException}.
+   * Methods {@code $.exists()}, {@code $.isDisplayed()} and {@code $.toWebElement()} don't trust cached element
+   * and check it in browser.
+   *
+   * NB! If page is changed by other means (e.g. by calling WebDriver directly), call
+   * {@code ElementCache.instance.invalidate()}.
+   *
+   * Can be configured either programmatically or by system property "-Dselenide.cacheElements=true"
+   * Default value: false
+   *
+   * @see com.codeborne.selenide.impl.ElementCache
+   */
+  public static boolean cacheElements = Boolean.parseBoolean(
+      System.getProperty("selenide.cacheElements", "false"));
+
   /**
    * Choose how Selenide should retrieve web elements: using default CSS or Sizzle (CSS3)
    */
@@ -338,7 +457,15 @@ public class Configuration {
      * Works for any elements (e.g. form submission).
      * Doesn't work if you are using custom webdriver without selenide proxy server.
      */
-    PROXY
+    PROXY,
+
+    /**
+     * Download files by browser itself into a separate folder of every browser session
+     * (see {@link Configuration#downloadsFolder}). Works for any elements.
+     * Works only for local Chrome and Firefox browsers created by Selenide (including browsers from pool).
+     * Other browsers download files via HTTP GET.
+     */
+    FOLDER
   }
 
   /**
@@ -348,4 +475,46 @@ public class Configuration {
    */
   public static FileDownloadMode fileDownload = FileDownloadMode.valueOf(
           System.getProperty("selenide.fileDownload", HTTPGET.name()));
+
+  /**
+   * If set to true, all browsers use one shared proxy server (with fileDownload=PROXY).
+   * Every browser gets its own port of the shared server, with its own filters and intercepted downloads,
+   * but threads and memory of proxy server are not multiplied by number of browsers.
+   * <p/>
+   * Can be configured either programmatically or by system property "-Dselenide.sharedProxyServer=true"
+   * Default value: false
+   */
+  public static boolean sharedProxyServer = Boolean.parseBoolean(System.getProperty("selenide.sharedProxyServer", "false"));
+
+  /**
+   * Size of static resources cache in proxy server (in megabytes).
+   * If greater than 0, scripts, styles, fonts and images are loaded from server only once
+   * and then served by proxy server to all browsers (with fileDownload=PROXY).
+   * <p/>
+   * Can be configured either programmatically or by system property "-Dselenide.proxyCacheSizeMb=200"
+   * Default value: 0 (cache is disabled)
+   *
+   * @see com.codeborne.selenide.proxy.StaticResourcesCache
+   */
+  public static long proxyCacheSizeMb = Long.parseLong(System.getProperty("selenide.proxyCacheSizeMb", "0"));
+
+  /**
+   * Comma-separated url patterns of requests blocked by proxy server (with fileDownload=PROXY),
+   * e.g. "*.google-analytics.com,*.doubleclick.net,widget.intercom.io".
+   * <p/>
+   * Can be configured either programmatically or by system property "-Dselenide.blockedUrls=*.google-analytics.com"
+   * Default value: "" (nothing is blocked)
+   *
+   * @see com.codeborne.selenide.proxy.RequestRules
+   */
+  public static String blockedUrls = System.getProperty("selenide.blockedUrls", "");
+
+  /**
+   * Folder where browsers download files to (with fileDownload=FOLDER).
+   * Every browser session gets its own subfolder, which is deleted when browser is closed.
+   * <p/>
+   * Can be configured either programmatically or by system property "-Dselenide.downloadsFolder=target/downloads"
+   * Default value: "build/downloads"
+   */
+  public static String downloadsFolder = System.getProperty("selenide.downloadsFolder", "build/downloads");
 }
@@ -7,6 +7,8 @@ import com.codeborne.selenide.logevents.SelenideLogger;
 import org.openqa.selenium.WebDriverException;
 import org.openqa.selenium.WebElement;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.*;
 
 import static com.codeborne.selenide.Condition.not;
@@ -87,20 +89,21 @@ public class ElementsCollection extends AbstractList<SelenideElement> {
         }
       } catch (WebDriverException elementNotFound) {
         lastError = elementNotFound;
+        ElementCache.instance.invalidate();
 
         if (Cleanup.of.isInvalidSelectorError(elementNotFound)) {
           throw Cleanup.of.wrap(elementNotFound);
         }
       }
-      sleep(collectionsPollingInterval);
+      sleep(collectionsPollingInterval, timeoutMs - (System.currentTimeMillis() - startTime));
     }
     while (System.currentTimeMillis() - startTime < timeoutMs);
     
     condition.fail(collection, actualElements, lastError, timeoutMs);
   }
   
-  void sleep(long ms) {
-    Selenide.sleep(ms);
+  void sleep(long ms, long maxWaitMs) {
+    DomChangesWaiter.instance.waitForChanges(ms, maxWaitMs);
   }
 
   /**
@@ -183,6 +186,16 @@ public class ElementsCollection extends AbstractList<SelenideElement> {
     return getTexts(getActualElements());
   }
 
+  /**
+   * Download files linked by "href" attribute of all elements in parallel (via direct HTTP GET requests)
+   * @return downloaded files in the same order as elements
+   * @throws RuntimeException if 50x status code was returned from server
+   * @throws java.io.FileNotFoundException if 40x status code was returned from server
+   */
+  public List<File> download() throws IOException {
+    return new DownloadFileWithHttpRequest().download(getActualElements());
+  }
+
   /**
    * Fail-safe method for retrieving texts of given elements.
    * @param elements Any collection of WebElements
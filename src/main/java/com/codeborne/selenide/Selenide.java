@@ -3,6 +3,7 @@ package com.codeborne.selenide;
 import com.codeborne.selenide.ex.DialogTextMismatch;
 import com.codeborne.selenide.ex.JavaScriptErrorsFound;
 import com.codeborne.selenide.impl.*;
+import com.codeborne.selenide.proxy.SelenideProxyServer;
 import org.openqa.selenium.*;
 import org.openqa.selenium.interactions.Actions;
 import org.openqa.selenium.logging.LogEntry;
@@ -208,6 +209,22 @@ public class Selenide {
     }
   }
 
+  /**
+   * Wait until browser has no requests in flight (like AJAX requests) during {@code quietMs} milliseconds.
+   * Works only if browser is opened with Selenide proxy server ({@code Configuration.fileDownload = PROXY}).
+   *
+   * @param quietMs how long network should be idle
+   * @param timeoutMs maximum time to wait
+   * @throws com.codeborne.selenide.ex.NetworkNotIdle if network has not become idle in {@code timeoutMs} milliseconds
+   */
+  public static void waitForNetworkIdle(long quietMs, long timeoutMs) {
+    SelenideProxyServer proxy = getSelenideProxy();
+    if (proxy == null) {
+      throw new IllegalStateException("Waiting for network idle requires Selenide proxy server (fileDownload=PROXY)");
+    }
+    proxy.waitForNetworkIdle(quietMs, timeoutMs);
+  }
+
   /**
    * Take the screenshot of current page and save to file fileName.html and fileName.png
    * @param fileName Name of file (without extension) to save HTML and PNG to
@@ -750,4 +750,18 @@ public interface SelenideElement extends WebElement, FindsByLinkText, FindsById,
    * @see com.codeborne.selenide.commands.TakeScreenshotAsImage
    */
   BufferedImage screenshotAsImage();
+
+  /**
+   * Check that screenshot of this element matches baseline image "{@code <baselinesFolder>/<name>.png}".
+   * Method waits until element appears, but screenshot is taken and compared only once (without retries).
+   * If screenshot does not match, actual and diff images are saved to reports folder.
+   * If baseline does not exist yet, check fails and actual image is saved to reports folder
+   * (review it and copy to baselines folder).
+   *
+   * @param name name of baseline image (without extension)
+   * @param tolerance maximum share of different pixels (0.01 means 1%)
+   * @see com.codeborne.selenide.Configuration#baselinesFolder
+   * @see com.codeborne.selenide.commands.ShouldMatchBaseline
+   */
+  SelenideElement shouldMatchBaseline(String name, double tolerance);
 }
@@ -1,5 +1,6 @@
 package com.codeborne.selenide;
 
+import com.codeborne.selenide.impl.ElementCache;
 import org.openqa.selenium.*;
 import org.openqa.selenium.WebDriver.TargetLocator;
 import org.openqa.selenium.support.ui.ExpectedCondition;
@@ -24,26 +25,31 @@ public class SelenideTargetLocator implements TargetLocator {
 
   @Override
   public WebDriver frame(int index) {
+    ElementCache.instance.invalidate();
     return Wait().until(frameToBeAvailableAndSwitchToIt(index));
   }
 
   @Override
   public WebDriver frame(String nameOrId) {
+    ElementCache.instance.invalidate();
     return Wait().until(frameToBeAvailableAndSwitchToIt(nameOrId));
   }
 
   @Override
   public WebDriver frame(WebElement frameElement) {
+    ElementCache.instance.invalidate();
     return Wait().until(frameToBeAvailableAndSwitchToIt(frameElement));
   }
 
   @Override
   public WebDriver parentFrame() {
+    ElementCache.instance.invalidate();
     return delegate.parentFrame();
   }
 
   @Override
   public WebDriver defaultContent() {
+    ElementCache.instance.invalidate();
     return delegate.defaultContent();
   }
 
@@ -61,6 +67,7 @@ public class SelenideTargetLocator implements TargetLocator {
    * Switch to the inner frame (last child frame in given sequence)
    */
   public WebDriver innerFrame(String... frames) {
+    ElementCache.instance.invalidate();
     WebDriver driver = getWebDriver();
     delegate.defaultContent();
 
@@ -144,6 +151,7 @@ public class SelenideTargetLocator implements TargetLocator {
    * @param index index of window (0-based)
    */
   public WebDriver window(int index) {
+    ElementCache.instance.invalidate();
     try {
       return Wait().until(windowToBeAvailableAndSwitchToIt(index));
     }
@@ -158,6 +166,7 @@ public class SelenideTargetLocator implements TargetLocator {
    */
   @Override
   public WebDriver window(String nameOrHandleOrTitle) {
+    ElementCache.instance.invalidate();
     try {
       return Wait().until(windowToBeAvailableAndSwitchToIt(nameOrHandleOrTitle));
     }
@@ -1,16 +1,20 @@
 package com.codeborne.selenide;
 
 import com.codeborne.selenide.impl.WebDriverContainer;
+import com.codeborne.selenide.impl.WebDriverPoolContainer;
 import com.codeborne.selenide.impl.WebDriverThreadLocalContainer;
+import com.codeborne.selenide.proxy.SelenideProxyServer;
 import org.openqa.selenium.JavascriptExecutor;
 import org.openqa.selenium.Proxy;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.support.events.WebDriverEventListener;
 
 import static com.codeborne.selenide.Configuration.browser;
+import static com.codeborne.selenide.Configuration.browserPoolSize;
 
 public class WebDriverRunner {
-  public static WebDriverContainer webdriverContainer = new WebDriverThreadLocalContainer();
+  public static WebDriverContainer webdriverContainer = browserPoolSize > 0 ?
+      new WebDriverPoolContainer(browserPoolSize) : new WebDriverThreadLocalContainer();
 
   public static final String CHROME = "chrome";
 
@@ -125,6 +129,16 @@ public class WebDriverRunner {
     return webdriverContainer.getWebDriver();
   }
 
+  /**
+   * Get Selenide proxy server of current thread
+   * (only if Selenide started browser with proxy, see {@link Configuration#fileDownload}).
+   *
+   * @return null if browser is not started yet or started without proxy
+   */
+  public static SelenideProxyServer getSelenideProxy() {
+    return webdriverContainer.getProxyServer();
+  }
+
   /**
    * Sets Selenium Proxy instance
    *
@@ -4,6 +4,7 @@ import com.codeborne.selenide.CollectionCondition;
 import com.codeborne.selenide.ElementsCollection;
 import com.codeborne.selenide.ex.ElementNotFound;
 import com.codeborne.selenide.ex.TextsMismatch;
+import com.codeborne.selenide.impl.ElementsSnapshot;
 import com.codeborne.selenide.impl.Html;
 import com.codeborne.selenide.impl.WebElementsCollection;
 import org.openqa.selenium.WebElement;
@@ -33,16 +34,24 @@ public class ExactTexts extends CollectionCondition {
       return false;
     }
 
+    ElementsSnapshot snapshot = ElementsSnapshot.take(elements);
     for (int i = 0; i < expectedTexts.size(); i++) {
-      WebElement element = elements.get(i);
       String expectedText = expectedTexts.get(i);
-      if (!Html.text.equals(element.getText(), expectedText)) {
+      // Snapshot texts only approximate getText(): a match is trusted, a mismatch is re-checked via webdriver
+      if (snapshot != null && matches(snapshot.text(i), expectedText)) {
+        continue;
+      }
+      if (!matches(elements.get(i).getText(), expectedText)) {
         return false;
       }
     }
     return true;
   }
 
+  protected boolean matches(String actualText, String expectedText) {
+    return Html.text.equals(actualText, expectedText);
+  }
+
   @Override
   public void fail(WebElementsCollection collection, List<WebElement> elements, Exception lastError, long timeoutMs) {
     if (elements == null || elements.isEmpty()) {
@@ -1,7 +1,6 @@
 package com.codeborne.selenide.collections;
 
 import com.codeborne.selenide.impl.Html;
-import org.openqa.selenium.WebElement;
 
 import java.util.List;
 
@@ -15,19 +14,8 @@ public class Texts extends ExactTexts {
   }
 
   @Override
-  public boolean apply(List<WebElement> elements) {
-    if (elements.size() != expectedTexts.size()) {
-      return false;
-    }
-
-    for (int i = 0; i < expectedTexts.size(); i++) {
-      WebElement element = elements.get(i);
-      String expectedText = expectedTexts.get(i);
-      if (!Html.text.contains(element.getText(), expectedText)) {
-        return false;
-      }
-    }
-    return true;
+  protected boolean matches(String actualText, String expectedText) {
+    return Html.text.contains(actualText, expectedText);
   }
 
   @Override
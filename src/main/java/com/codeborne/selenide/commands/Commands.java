@@ -5,141 +5,188 @@ import com.codeborne.selenide.SelenideElement;
 import com.codeborne.selenide.impl.WebElementSource;
 
 import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.unmodifiableMap;
+
 public class Commands {
-  private static Commands collection;
+  private static final Commands collection = createDefaultCommands();
 
-  private final Map<String, Command> commands = new ConcurrentHashMap<>(128);
+  /**
+   * Immutable table of commands. Replaced as a whole when commands are added or reset,
+   * so that reading it does not need any locks.
+   */
+  private volatile DispatchTable table = new DispatchTable(emptyMap());
 
-  public static synchronized Commands getInstance() {
-    if (collection == null) {
-      collection = new Commands();
-      collection.resetDefaults();
-    }
+  public static Commands getInstance() {
     return collection;
   }
 
+  private static Commands createDefaultCommands() {
+    Commands commands = new Commands();
+    commands.resetDefaults();
+    return commands;
+  }
+
   public final synchronized void resetDefaults() {
-    commands.clear();
-    addFindCommands();
-    addClickCommands();
-    addModifyCommands();
-    addInfoCommands();
-    addSelectCommands();
-    addKeyboardCommands();
-    addActionsCommands();
-    addShouldCommands();
-    addShouldNotCommands();
-    addFileCommands();
-    addTechnicalCommands();
-  }
-
-  private void addTechnicalCommands() {
-    add("toString", new ToString());
-    add("toWebElement", new ToWebElement());
-    add("getWrappedElement", new GetWrappedElement());
-    add("screenshot", new TakeScreenshot());
-    add("screenshotAsImage", new TakeScreenshotAsImage());
-    add("getSearchCriteria", new GetSearchCriteria());
-  }
-
-  private void addActionsCommands() {
-    add("dragAndDropTo", new DragAndDropTo());
-    add("hover", new Hover());
-    add("scrollTo", new ScrollTo());
-  }
-
-  private void addInfoCommands() {
-    add("attr", new GetAttribute());
-    add("data", new GetDataAttribute());
-    add("exists", new Exists());
-    add("innerText", new GetInnerText());
-    add("innerHtml", new GetInnerHtml());
-    add("has", new Matches());
-    add("is", new Matches());
-    add("isDisplayed", new IsDisplayed());
-    add("isImage", new IsImage());
-    add("getText", new GetText());
-    add("name", new GetName());
-    add("text", new GetText());
-    add("getValue", new GetValue());
-  }
-
-  private void addClickCommands() {
-    add("click", new Click());
-    add("contextClick", new ContextClick());
-    add("doubleClick", new DoubleClick());
-    add("followLink", new FollowLink());
-  }
-
-  private void addModifyCommands() {
-    add("selectRadio", new SelectRadio());
-    add("setSelected", new SetSelected());
-    add("setValue", new SetValue());
-    add("val", new Val());
-    add("append", new Append());
-  }
-
-  private void addFindCommands() {
-    add("find", new Find());
-    add("$", new Find());
-    add("$x", new FindByXpath());
-    add("findAll", new FindAll());
-    add("$$", new FindAll());
-    add("$$x", new FindAllByXpath());
-    add("closest", new GetClosest());
-    add("parent", new GetParent());
-  }
-
-  private void addKeyboardCommands() {
-    add("pressEnter", new PressEnter());
-    add("pressEscape", new PressEscape());
-    add("pressTab", new PressTab());
-  }
-
-  private void addSelectCommands() {
-    add("getSelectedOption", new GetSelectedOption());
-    add("getSelectedOptions", new GetSelectedOptions());
-    add("getSelectedText", new GetSelectedText());
-    add("getSelectedValue", new GetSelectedValue());
-    add("selectOption", new SelectOptionByTextOrIndex());
-    add("selectOptionContainingText", new SelectOptionContainingText());
-    add("selectOptionByValue", new SelectOptionByValue());
-  }
-
-  private void addFileCommands() {
-    add("download", new DownloadFile());
-    add("uploadFile", new UploadFile());
-    add("uploadFromClasspath", new UploadFileFromClasspath());
-  }
-
-  private void addShouldNotCommands() {
-    add("shouldNot", new ShouldNot());
-    add("shouldNotHave", new ShouldNotHave());
-    add("shouldNotBe", new ShouldNotBe());
-    add("waitWhile", new ShouldNotBe());
-  }
-
-  private void addShouldCommands() {
-    add("should", new Should());
-    add("shouldHave", new ShouldHave());
-    add("shouldBe", new ShouldBe());
-    add("waitUntil", new ShouldBe());
-  }
-
-  public void add(String method, Command command) {
+    Map<String, Command> commands = new HashMap<>(128);
+    addFindCommands(commands);
+    addClickCommands(commands);
+    addModifyCommands(commands);
+    addInfoCommands(commands);
+    addSelectCommands(commands);
+    addKeyboardCommands(commands);
+    addActionsCommands(commands);
+    addShouldCommands(commands);
+    addShouldNotCommands(commands);
+    addFileCommands(commands);
+    addTechnicalCommands(commands);
+    table = new DispatchTable(commands);
+  }
+
+  private void addTechnicalCommands(Map<String, Command> commands) {
+    commands.put("toString", new ToString());
+    commands.put("toWebElement", new ToWebElement());
+    commands.put("getWrappedElement", new GetWrappedElement());
+    commands.put("screenshot", new TakeScreenshot());
+    commands.put("screenshotAsImage", new TakeScreenshotAsImage());
+    commands.put("getSearchCriteria", new GetSearchCriteria());
+  }
+
+  private void addActionsCommands(Map<String, Command> commands) {
+    commands.put("dragAndDropTo", new DragAndDropTo());
+    commands.put("hover", new Hover());
+    commands.put("scrollTo", new ScrollTo());
+  }
+
+  private void addInfoCommands(Map<String, Command> commands) {
+    commands.put("attr", new GetAttribute());
+    commands.put("data", new GetDataAttribute());
+    commands.put("exists", new Exists());
+    commands.put("innerText", new GetInnerText());
+    commands.put("innerHtml", new GetInnerHtml());
+    commands.put("has", new Matches());
+    commands.put("is", new Matches());
+    commands.put("isDisplayed", new IsDisplayed());
+    commands.put("isImage", new IsImage());
+    commands.put("getText", new GetText());
+    commands.put("name", new GetName());
+    commands.put("text", new GetText());
+    commands.put("getValue", new GetValue());
+  }
+
+  private void addClickCommands(Map<String, Command> commands) {
+    commands.put("click", new Click());
+    commands.put("contextClick", new ContextClick());
+    commands.put("doubleClick", new DoubleClick());
+    commands.put("followLink", new FollowLink());
+  }
+
+  private void addModifyCommands(Map<String, Command> commands) {
+    commands.put("selectRadio", new SelectRadio());
+    commands.put("setSelected", new SetSelected());
+    commands.put("setValue", new SetValue());
+    commands.put("val", new Val());
+    commands.put("append", new Append());
+  }
+
+  private void addFindCommands(Map<String, Command> commands) {
+    commands.put("find", new Find());
+    commands.put("$", new Find());
+    commands.put("$x", new FindByXpath());
+    commands.put("findAll", new FindAll());
+    commands.put("$$", new FindAll());
+    commands.put("$$x", new FindAllByXpath());
+    commands.put("closest", new GetClosest());
+    commands.put("parent", new GetParent());
+  }
+
+  private void addKeyboardCommands(Map<String, Command> commands) {
+    commands.put("pressEnter", new PressEnter());
+    commands.put("pressEscape", new PressEscape());
+    commands.put("pressTab", new PressTab());
+  }
+
+  private void addSelectCommands(Map<String, Command> commands) {
+    commands.put("getSelectedOption", new GetSelectedOption());
+    commands.put("getSelectedOptions", new GetSelectedOptions());
+    commands.put("getSelectedText", new GetSelectedText());
+    commands.put("getSelectedValue", new GetSelectedValue());
+    commands.put("selectOption", new SelectOptionByTextOrIndex());
+    commands.put("selectOptionContainingText", new SelectOptionContainingText());
+    commands.put("selectOptionByValue", new SelectOptionByValue());
+  }
+
+  private void addFileCommands(Map<String, Command> commands) {
+    commands.put("download", new DownloadFile());
+    commands.put("uploadFile", new UploadFile());
+    commands.put("uploadFromClasspath", new UploadFileFromClasspath());
+  }
+
+  private void addShouldNotCommands(Map<String, Command> commands) {
+    commands.put("shouldNot", new ShouldNot());
+    commands.put("shouldNotHave", new ShouldNotHave());
+    commands.put("shouldNotBe", new ShouldNotBe());
+    commands.put("waitWhile", new ShouldNotBe());
+  }
+
+  private void addShouldCommands(Map<String, Command> commands) {
+    commands.put("should", new Should());
+    commands.put("shouldHave", new ShouldHave());
+    commands.put("shouldBe", new ShouldBe());
+    commands.put("waitUntil", new ShouldBe());
+    commands.put("shouldMatchBaseline", new ShouldMatchBaseline());
+  }
+
+  public synchronized void add(String method, Command command) {
+    Map<String, Command> commands = new HashMap<>(table.commands);
     commands.put(method, command);
+    table = new DispatchTable(commands);
   }
 
-  @SuppressWarnings("unchecked")
   public <T> T execute(Object proxy, WebElementSource webElementSource, String methodName, Object[] args) 
       throws IOException {
-    Command command = commands.get(methodName);
+    return execute(proxy, webElementSource, methodName, table.commands.get(methodName), args);
+  }
+
+  public <T> T execute(Object proxy, WebElementSource webElementSource, Method method, Object[] args)
+      throws IOException {
+    return execute(proxy, webElementSource, method.getName(), table.get(method), args);
+  }
+
+  @SuppressWarnings("unchecked")
+  private <T> T execute(Object proxy, WebElementSource webElementSource, String methodName, Command command,
+                        Object[] args) throws IOException {
     if (command == null) {
       throw new IllegalArgumentException("Unknown Selenide method: " + methodName);
     }
     return (T) command.execute((SelenideElement) proxy, webElementSource, args);
   }
+
+  private static class DispatchTable {
+    private final Map<String, Command> commands;
+    private final Map<Method, Command> commandsByMethod = new ConcurrentHashMap<>(128);
+
+    private DispatchTable(Map<String, Command> commands) {
+      this.commands = unmodifiableMap(commands);
+    }
+
+    /**
+     * Command is resolved by method name only once per method
+     */
+    private Command get(Method method) {
+      Command command = commandsByMethod.get(method);
+      if (command == null) {
+        command = commands.get(method.getName());
+        if (command != null) {
+          commandsByMethod.put(method, command);
+        }
+      }
+      return command;
+    }
+  }
 }
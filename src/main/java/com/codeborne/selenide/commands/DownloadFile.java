@@ -3,6 +3,7 @@ package com.codeborne.selenide.commands;
 import com.codeborne.selenide.Command;
 import com.codeborne.selenide.Configuration;
 import com.codeborne.selenide.SelenideElement;
+import com.codeborne.selenide.impl.DownloadFileToFolder;
 import com.codeborne.selenide.impl.DownloadFileWithHttpRequest;
 import com.codeborne.selenide.impl.DownloadFileWithProxyServer;
 import com.codeborne.selenide.impl.WebElementSource;
@@ -12,6 +13,7 @@ import java.io.File;
 import java.io.IOException;
 import java.util.logging.Logger;
 
+import static com.codeborne.selenide.Configuration.FileDownloadMode.FOLDER;
 import static com.codeborne.selenide.Configuration.FileDownloadMode.HTTPGET;
 import static com.codeborne.selenide.WebDriverRunner.webdriverContainer;
 
@@ -20,6 +22,7 @@ public class DownloadFile implements Command<File> {
   
   DownloadFileWithHttpRequest downloadFileWithHttpRequest = new DownloadFileWithHttpRequest();
   DownloadFileWithProxyServer downloadFileWithProxyServer = new DownloadFileWithProxyServer();
+  DownloadFileToFolder downloadFileToFolder = new DownloadFileToFolder();
   
   @Override
   public File execute(SelenideElement proxy, WebElementSource linkWithHref, Object[] args) throws IOException {
@@ -28,6 +31,13 @@ public class DownloadFile implements Command<File> {
       LOG.config("selenide.fileDownload = " + System.getProperty("selenide.fileDownload") + " download file via http get");
       return downloadFileWithHttpRequest.download(link);
     }
+    else if (Configuration.fileDownload == FOLDER) {
+      if (webdriverContainer.getDownloadsFolder() == null) {
+        LOG.config("Browser does not download files to folder - download file via http get");
+        return downloadFileWithHttpRequest.download(link);
+      }
+      return downloadFileToFolder.download(linkWithHref, link, webdriverContainer.getDownloadsFolder());
+    }
     else if (webdriverContainer.getProxyServer() == null) {
       LOG.config("Proxy server is not started - download file via http get");
       return downloadFileWithHttpRequest.download(link);
@@ -5,6 +5,7 @@ import com.codeborne.selenide.SelenideElement;
 import com.codeborne.selenide.ex.ElementNotFound;
 import com.codeborne.selenide.impl.Cleanup;
 import com.codeborne.selenide.impl.WebElementSource;
+import org.openqa.selenium.StaleElementReferenceException;
 import org.openqa.selenium.WebDriverException;
 import org.openqa.selenium.WebElement;
 
@@ -13,7 +14,13 @@ public class IsDisplayed implements Command<Boolean> {
   public Boolean execute(SelenideElement proxy, WebElementSource locator, Object[] args) {
     try {
       WebElement element = locator.getWebElement();
-      return element != null && element.isDisplayed();
+      try {
+        return element != null && element.isDisplayed();
+      }
+      catch (StaleElementReferenceException cachedElementHasBeenReplaced) {
+        element = locator.getFreshWebElement();
+        return element != null && element.isDisplayed();
+      }
     } catch (WebDriverException | ElementNotFound elementNotFound) {
       if (Cleanup.of.isInvalidSelectorError(elementNotFound)) {
         throw Cleanup.of.wrap(elementNotFound);
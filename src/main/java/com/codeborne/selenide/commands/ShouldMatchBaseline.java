@@ -0,0 +1,25 @@
+package com.codeborne.selenide.commands;
+
+import com.codeborne.selenide.Command;
+import com.codeborne.selenide.Screenshots;
+import com.codeborne.selenide.SelenideElement;
+import com.codeborne.selenide.ex.ImageMismatch;
+import com.codeborne.selenide.impl.Baselines;
+import com.codeborne.selenide.impl.WebElementSource;
+
+import java.awt.image.BufferedImage;
+
+public class ShouldMatchBaseline implements Command<SelenideElement> {
+  @Override
+  public SelenideElement execute(SelenideElement proxy, WebElementSource locator, Object[] args) {
+    String name = (String) args[0];
+    double tolerance = (Double) args[1];
+
+    BufferedImage actual = Screenshots.takeScreenShotAsImage(locator.getWebElement());
+    if (actual == null) {
+      throw new ImageMismatch("Failed to take screenshot of {" + locator.getSearchCriteria() + "}");
+    }
+    Baselines.instance.check(locator.getSearchCriteria(), name, actual, tolerance);
+    return proxy;
+  }
+}
@@ -8,6 +8,6 @@ import org.openqa.selenium.WebElement;
 public class ToWebElement implements Command<WebElement> {
   @Override
   public WebElement execute(SelenideElement proxy, WebElementSource locator, Object[] args) {
-    return locator.getWebElement();
+    return locator.getFreshWebElement();
   }
 }
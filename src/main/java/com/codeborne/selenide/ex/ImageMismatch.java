@@ -0,0 +1,12 @@
+package com.codeborne.selenide.ex;
+
+public class ImageMismatch extends UIAssertionError {
+  public ImageMismatch(String message) {
+    super(message);
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + ' ' + getMessage() + uiDetails();
+  }
+}
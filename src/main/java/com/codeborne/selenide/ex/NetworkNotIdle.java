@@ -0,0 +1,11 @@
+package com.codeborne.selenide.ex;
+
+import java.util.List;
+
+public class NetworkNotIdle extends UIAssertionError {
+  public NetworkNotIdle(long quietMs, List<String> requestsInFlight, long timeoutMs) {
+    super("Network has not been idle for " + quietMs + " ms" +
+        "\nRequests in flight: " + requestsInFlight);
+    super.timeoutMs = timeoutMs;
+  }
+}
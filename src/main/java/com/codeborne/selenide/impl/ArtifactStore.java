@@ -0,0 +1,94 @@
+package com.codeborne.selenide.impl;
+
+import com.google.common.hash.Hashing;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+import static com.codeborne.selenide.Configuration.asyncScreenshots;
+import static com.codeborne.selenide.Configuration.reportsFolder;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.logging.Level.SEVERE;
+
+/**
+ * Stores screenshots and page sources by their content: every unique file is written only once
+ * (to folder "artifacts" inside of reports folder, with name equal to hash of content).
+ *
+ * File "artifacts/index.txt" maps names of screenshots to stored files, one line per screenshot:
+ * {@code <screenshot name> TAB <stored file name>}
+ *
+ * @see com.codeborne.selenide.Configuration#deduplicateScreenshots
+ */
+public class ArtifactStore {
+  private static final Logger log = Logger.getLogger(ArtifactStore.class.getName());
+
+  public static ArtifactStore instance = new ArtifactStore();
+
+  static final String FOLDER = "artifacts";
+  static final String INDEX = "index.txt";
+
+  private final Set<String> storedFiles = ConcurrentHashMap.newKeySet();
+
+  /**
+   * Store content (unless the same content has already been stored) and add it to the index
+   *
+   * @param name name of screenshot (relative to reports folder, with extension)
+   * @return file containing given content
+   */
+  public File store(String name, byte[] content) {
+    File folder = new File(reportsFolder, FOLDER);
+    File file = new File(folder, hash(content) + extension(name));
+
+    if (storedFiles.add(file.getAbsolutePath()) && !file.exists()) {
+      if (asyncScreenshots) {
+        AsyncFileWriter.instance.write(content, file);
+      }
+      else {
+        write(content, file);
+      }
+    }
+    addToIndex(folder, name, file);
+    return file;
+  }
+
+  static String hash(byte[] content) {
+    return Hashing.sha256().hashBytes(content).toString();
+  }
+
+  private static String extension(String name) {
+    int dot = name.lastIndexOf('.');
+    return dot < name.lastIndexOf(File.separatorChar) + 1 ? "" : name.substring(dot);
+  }
+
+  private void write(byte[] content, File file) {
+    ensureFolderExists(file.getParentFile());
+    try (FileOutputStream out = new FileOutputStream(file)) {
+      out.write(content);
+    }
+    catch (IOException e) {
+      log.log(SEVERE, "Failed to write file " + file.getAbsolutePath(), e);
+    }
+  }
+
+  private synchronized void addToIndex(File folder, String name, File file) {
+    ensureFolderExists(folder);
+    try (Writer index = new OutputStreamWriter(new FileOutputStream(new File(folder, INDEX), true), UTF_8)) {
+      index.write(name + '\t' + file.getName() + '\n');
+    }
+    catch (IOException e) {
+      log.log(SEVERE, "Failed to update index of " + folder.getAbsolutePath(), e);
+    }
+  }
+
+  private void ensureFolderExists(File folder) {
+    if (!folder.exists() && !folder.mkdirs() && !folder.exists()) {
+      log.severe("Failed to create " + folder);
+    }
+  }
+}
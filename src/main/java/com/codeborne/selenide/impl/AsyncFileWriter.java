@@ -0,0 +1,114 @@
+package com.codeborne.selenide.impl;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeoutException;
+import java.util.logging.Logger;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static java.util.logging.Level.FINE;
+import static java.util.logging.Level.SEVERE;
+
+/**
+ * Writes report files (screenshots, page sources) in background threads.
+ *
+ * The queue is bounded: if disk is slower than tests produce files, the test thread writes the file itself.
+ * All pending files are written at JVM exit.
+ *
+ * @see com.codeborne.selenide.Configuration#asyncScreenshots
+ */
+public class AsyncFileWriter {
+  private static final Logger log = Logger.getLogger(AsyncFileWriter.class.getName());
+
+  public static AsyncFileWriter instance = new AsyncFileWriter(2, 100);
+
+  /**
+   * How long to wait at JVM exit for pending files
+   */
+  static final long FLUSH_TIMEOUT_MS = 30_000;
+
+  private final ThreadPoolExecutor executor;
+  private final Set<Future<File>> pending = ConcurrentHashMap.newKeySet();
+
+  AsyncFileWriter(int threads, int queueSize) {
+    executor = new ThreadPoolExecutor(threads, threads, 10, SECONDS, new ArrayBlockingQueue<>(queueSize),
+        runnable -> {
+          Thread thread = new Thread(runnable, "Selenide report files writer");
+          thread.setDaemon(true);
+          return thread;
+        },
+        new ThreadPoolExecutor.CallerRunsPolicy());
+    executor.allowCoreThreadTimeOut(true);
+    Runtime.getRuntime().addShutdownHook(new Thread(() -> flush(FLUSH_TIMEOUT_MS), "Selenide report files flush"));
+  }
+
+  /**
+   * Start writing content to file
+   *
+   * @return future which completes when file is written
+   */
+  public Future<File> write(byte[] content, File targetFile) {
+    FutureTask<File> task = new FutureTask<File>(() -> writeToFile(content, targetFile)) {
+      @Override
+      protected void done() {
+        pending.remove(this);
+      }
+    };
+    pending.add(task);
+    executor.execute(task);
+    return task;
+  }
+
+  private File writeToFile(byte[] content, File targetFile) throws IOException {
+    try {
+      File folder = targetFile.getAbsoluteFile().getParentFile();
+      if (!folder.exists() && !folder.mkdirs() && !folder.exists()) {
+        throw new IOException("Failed to create " + folder);
+      }
+      try (OutputStream out = new FileOutputStream(targetFile)) {
+        out.write(content);
+      }
+      return targetFile;
+    }
+    catch (IOException e) {
+      log.log(SEVERE, "Failed to write file " + targetFile.getAbsolutePath(), e);
+      throw e;
+    }
+  }
+
+  /**
+   * Wait until all pending files are written, but not longer than {@code timeoutMs}
+   *
+   * @return false if some files have not been written in time
+   */
+  public boolean flush(long timeoutMs) {
+    long start = System.currentTimeMillis();
+    for (Future<File> future : pending) {
+      try {
+        future.get(Math.max(0, timeoutMs - (System.currentTimeMillis() - start)), MILLISECONDS);
+      }
+      catch (TimeoutException e) {
+        log.severe("Failed to write " + pending.size() + " report files in " + timeoutMs + " ms");
+        return false;
+      }
+      catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return false;
+      }
+      catch (ExecutionException e) {
+        log.log(FINE, "Failed to write report file", e);
+      }
+    }
+    return true;
+  }
+}
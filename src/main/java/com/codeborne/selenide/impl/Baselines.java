@@ -0,0 +1,125 @@
+package com.codeborne.selenide.impl;
+
+import com.codeborne.selenide.ex.ImageMismatch;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.ref.SoftReference;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+import static com.codeborne.selenide.Configuration.baselinesFolder;
+import static com.codeborne.selenide.Configuration.reportsFolder;
+
+/**
+ * Compares element screenshots with baseline images stored on local disk.
+ *
+ * @see com.codeborne.selenide.SelenideElement#shouldMatchBaseline(String, double)
+ * @see com.codeborne.selenide.Configuration#baselinesFolder
+ */
+public class Baselines {
+  private static final Logger log = Logger.getLogger(Baselines.class.getName());
+
+  public static Baselines instance = new Baselines();
+
+  /**
+   * Decoded baseline images (baselines are compared many times, but change rarely)
+   */
+  private final Map<String, SoftReference<CachedImage>> cache = new ConcurrentHashMap<>();
+
+  /**
+   * @param tolerance maximum share of different pixels (0.01 means 1%)
+   * @throws ImageMismatch if image does not match baseline, or baseline does not exist
+   * @throws IllegalArgumentException if tolerance is negative
+   */
+  public void check(String searchCriteria, String name, BufferedImage actual, double tolerance) {
+    if (!(tolerance >= 0)) {
+      throw new IllegalArgumentException("Tolerance should not be negative, but was: " + tolerance);
+    }
+
+    File baseline = new File(baselinesFolder, name + ".png");
+    File actualFile = new File(reportsFolder, "baselines/" + name + ".actual.png");
+    if (!baseline.exists()) {
+      write(actual, actualFile);
+      log.warning("Baseline " + baseline.getAbsolutePath() + " does not exist. Current screenshot is saved to " +
+          actualFile.getAbsolutePath());
+      throw new ImageMismatch("Baseline " + name + " for {" + searchCriteria + "} does not exist" +
+          "\nBaseline: " + baseline.getAbsolutePath() +
+          "\nActual: " + actualFile.getAbsolutePath());
+    }
+
+    BufferedImage expected = read(baseline);
+    long maxDifferentPixels = (long) (tolerance * expected.getWidth() * expected.getHeight());
+    ImageDiff diff = ImageDiff.compare(expected, actual, maxDifferentPixels);
+    if (diff.matches()) {
+      return;
+    }
+
+    write(actual, actualFile);
+    String details;
+    if (diff.isSameSize()) {
+      File diffFile = new File(reportsFolder, "baselines/" + name + ".diff.png");
+      write(diff.getDiffImage(), diffFile);
+      details = "\nDifferent pixels: more than " + maxDifferentPixels + " of " + diff.getTotalPixels() +
+          " (tolerance: " + tolerance + ")" +
+          "\nDiff: " + diffFile.getAbsolutePath();
+    }
+    else {
+      details = "\nExpected size: " + expected.getWidth() + "x" + expected.getHeight() +
+          ", actual size: " + actual.getWidth() + "x" + actual.getHeight();
+    }
+    throw new ImageMismatch("Element should match baseline " + name + " {" + searchCriteria + "}" + details +
+        "\nBaseline: " + baseline.getAbsolutePath() +
+        "\nActual: " + actualFile.getAbsolutePath());
+  }
+
+  private BufferedImage read(File file) {
+    String key = file.getAbsolutePath();
+    long lastModified = file.lastModified();
+    SoftReference<CachedImage> reference = cache.get(key);
+    CachedImage cached = reference == null ? null : reference.get();
+    if (cached != null && cached.lastModified == lastModified) {
+      return cached.image;
+    }
+
+    try {
+      BufferedImage decoded = ImageIO.read(file);
+      if (decoded == null) {
+        throw new IOException("Unsupported image format: " + file.getAbsolutePath());
+      }
+      BufferedImage image = ImageDiff.toArgb(decoded);
+      cache.put(key, new SoftReference<>(new CachedImage(image, lastModified)));
+      return image;
+    }
+    catch (IOException e) {
+      throw new UncheckedIOException("Failed to read baseline " + file.getAbsolutePath(), e);
+    }
+  }
+
+  private void write(BufferedImage image, File file) {
+    File folder = file.getAbsoluteFile().getParentFile();
+    if (!folder.exists() && !folder.mkdirs()) {
+      log.severe("Failed to create " + folder);
+    }
+    try {
+      ImageIO.write(image, "png", file);
+    }
+    catch (IOException e) {
+      throw new UncheckedIOException("Failed to write " + file.getAbsolutePath(), e);
+    }
+  }
+
+  private static class CachedImage {
+    private final BufferedImage image;
+    private final long lastModified;
+
+    private CachedImage(BufferedImage image, long lastModified) {
+      this.image = image;
+      this.lastModified = lastModified;
+    }
+  }
+}
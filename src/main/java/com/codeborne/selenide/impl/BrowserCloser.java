@@ -0,0 +1,101 @@
+package com.codeborne.selenide.impl;
+
+import com.codeborne.selenide.proxy.SelenideProxyServer;
+import org.openqa.selenium.WebDriver;
+
+import java.util.Collection;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.logging.Level.FINE;
+import static java.util.logging.Level.SEVERE;
+
+/**
+ * Closes browsers and proxy servers in background threads, so that many browsers can be closed in parallel
+ * and test thread does not need to wait for it.
+ */
+public class BrowserCloser {
+  private static final Logger log = Logger.getLogger(BrowserCloser.class.getName());
+
+  public static BrowserCloser instance = new BrowserCloser();
+
+  private final AtomicInteger threadsCounter = new AtomicInteger();
+
+  private final ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+    Thread thread = new Thread(runnable, "Webdriver closer " + threadsCounter.incrementAndGet());
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  /**
+   * Start closing the browser and/or proxy server (any of them can be null)
+   */
+  public Future<?> close(WebDriver webdriver, SelenideProxyServer proxy) {
+    return executor.submit(() -> {
+      long start = System.currentTimeMillis();
+      if (webdriver != null) {
+        new WebDriverThreadLocalContainer.CloseBrowser(webdriver, proxy).run();
+      }
+      else if (proxy != null) {
+        log.info("Trying to shutdown " + proxy + " ...");
+        proxy.shutdown();
+      }
+
+      long duration = System.currentTimeMillis() - start;
+      if (duration > 200) {
+        log.info("Closed webdriver in " + duration + " ms");
+      }
+      else {
+        log.fine("Closed webdriver in " + duration + " ms");
+      }
+    });
+  }
+
+  /**
+   * Wait until browser is closed, but not longer than {@code timeoutMs}
+   *
+   * @return false if browser has not been closed in time
+   */
+  public boolean await(Future<?> closing, long timeoutMs) {
+    try {
+      closing.get(Math.max(0, timeoutMs), MILLISECONDS);
+      return true;
+    }
+    catch (TimeoutException e) {
+      log.severe("Failed to close webdriver in " + timeoutMs + " milliseconds");
+      return false;
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      log.log(FINE, "Interrupted while closing webdriver", e);
+      return false;
+    }
+    catch (ExecutionException e) {
+      log.log(SEVERE, "Failed to close webdriver", e.getCause());
+      return true;
+    }
+  }
+
+  /**
+   * Wait until all given browsers are closed (they are closed in parallel), but not longer than {@code timeoutMs}
+   */
+  public void awaitAll(Collection<Future<?>> closings, long timeoutMs) {
+    if (closings.isEmpty()) return;
+
+    long start = System.currentTimeMillis();
+    int closed = 0;
+    for (Future<?> closing : closings) {
+      if (await(closing, timeoutMs - (System.currentTimeMillis() - start))) {
+        closed++;
+      }
+    }
+    log.info("Closed " + closed + " of " + closings.size() + " webdrivers in " +
+        (System.currentTimeMillis() - start) + " ms");
+  }
+}
@@ -5,15 +5,11 @@ import com.codeborne.selenide.SelenideElement;
 import com.codeborne.selenide.ex.ElementNotFound;
 import org.openqa.selenium.WebElement;
 
-import java.lang.reflect.Proxy;
-
 import static com.codeborne.selenide.Condition.visible;
 
 public class CollectionElement extends WebElementSource {
   public static SelenideElement wrap(WebElementsCollection collection, int index) {
-    return (SelenideElement) Proxy.newProxyInstance(
-        collection.getClass().getClassLoader(), new Class<?>[]{SelenideElement.class},
-        new SelenideElementProxy(new CollectionElement(collection, index)));
+    return new SelenideElementImpl(new CollectionElement(collection, index));
   }
 
   private final WebElementsCollection collection;
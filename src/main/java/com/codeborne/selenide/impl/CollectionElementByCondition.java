@@ -3,19 +3,18 @@ package com.codeborne.selenide.impl;
 import com.codeborne.selenide.Condition;
 import com.codeborne.selenide.SelenideElement;
 import com.codeborne.selenide.ex.ElementNotFound;
+import org.openqa.selenium.WebDriverException;
 import org.openqa.selenium.WebElement;
 
-import java.lang.reflect.Proxy;
 import java.util.List;
 
 import static com.codeborne.selenide.Condition.visible;
+import static com.codeborne.selenide.Configuration.evaluateConditionsInBrowser;
 
 public class CollectionElementByCondition extends WebElementSource {
 
   public static SelenideElement wrap(WebElementsCollection collection, Condition condition) {
-    return (SelenideElement) Proxy.newProxyInstance(
-        collection.getClass().getClassLoader(), new Class<?>[]{SelenideElement.class},
-        new SelenideElementProxy(new CollectionElementByCondition(collection, condition)));
+    return new SelenideElementImpl(new CollectionElementByCondition(collection, condition));
   }
 
   private final WebElementsCollection collection;
@@ -30,6 +29,14 @@ public class CollectionElementByCondition extends WebElementSource {
   public WebElement getWebElement() {
     List<WebElement> list = collection.getActualElements();
 
+    List<WebElement> foundInBrowser = findInBrowser(list);
+    if (foundInBrowser != null) {
+      if (foundInBrowser.isEmpty()) {
+        throw new ElementNotFound(getSearchCriteria(), condition);
+      }
+      return foundInBrowser.get(0);
+    }
+
     for (WebElement element : list) {
       if (condition.apply(element)) {
         return element;
@@ -39,6 +46,17 @@ public class CollectionElementByCondition extends WebElementSource {
     throw new ElementNotFound(getSearchCriteria(), condition);
   }
 
+  private List<WebElement> findInBrowser(List<WebElement> elements) {
+    if (!evaluateConditionsInBrowser) return null;
+
+    try {
+      return ConditionScript.instance.filter(elements, condition, 1);
+    }
+    catch (WebDriverException e) {
+      return null;
+    }
+  }
+
   @Override
   public String getSearchCriteria() {
     return collection.description() + ".findBy(" + condition + ")";
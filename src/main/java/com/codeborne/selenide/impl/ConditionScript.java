@@ -0,0 +1,152 @@
+package com.codeborne.selenide.impl;
+
+import com.codeborne.selenide.Condition;
+import com.google.gson.Gson;
+import org.apache.commons.io.IOUtils;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.remote.RemoteWebDriver;
+
+import java.io.IOException;
+import java.util.List;
+
+import static com.codeborne.selenide.WebDriverRunner.getWebDriver;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Evaluates a whole tree of conditions in browser with a single "executeScript" call.
+ *
+ * Helper functions available for {@link Condition#javascript()} expressions:
+ * {@code visible(e)}, {@code enabled(e)}, {@code selected(e)}, {@code attr(e, name)}, {@code attrValue(e, name)},
+ * {@code hasClass(e, name)}, {@code contains(text, subtext)}.
+ *
+ * All of them give the same result as webdriver: {@code visible} and {@code attr} are the same javascript "atoms"
+ * which Selenium uses for isDisplayed and getAttribute. That's why both positive and negative results are trusted.
+ * There is no helper for texts, because webdriver's getText cannot be reproduced in javascript exactly.
+ */
+public class ConditionScript {
+  public static ConditionScript instance = new ConditionScript();
+
+  private static final Gson gson = new Gson();
+
+  static final String FUNCTIONS =
+      "var visible = " + atom("isDisplayed.js") + ";\n" +
+      "var attr = " + atom("getAttribute.js") + ";\n" +
+      "function reduceSpaces(s) { return trim(String(s).replace(/[ \\t\\n\\x0B\\f\\r\\u00a0]+/g, ' ')); }\n" +
+      "function trim(s) { return s.replace(/^[\\x00-\\x20]+|[\\x00-\\x20]+$/g, ''); }\n" +
+      "function contains(s, sub) { return reduceSpaces(s.toLowerCase()).indexOf(reduceSpaces(sub.toLowerCase())) > -1; }\n" +
+      "function matches(e, selector) {\n" +
+      "  var m = e.matches || e.msMatchesSelector || e.webkitMatchesSelector;\n" +
+      "  return m ? m.call(e, selector) : !!e[selector.substring(1)];\n" +
+      "}\n" +
+      "function enabled(e) { return !matches(e, ':disabled'); }\n" +
+      "function selected(e) { return !!(e.selected || e.checked); }\n" +
+      "function attrValue(e, name) { var a = attr(e, name); return a === null ? '' : trim(a); }\n" +
+      "function hasClass(e, name) {\n" +
+      "  var c = attr(e, 'class');\n" +
+      "  if (c === null) return false;\n" +
+      "  var classes = c.split(' ');\n" +
+      "  if (classes.length > 1) { while (classes.length && classes[classes.length - 1] === '') classes.pop(); }\n" +
+      "  return classes.indexOf(name) > -1;\n" +
+      "}\n";
+
+  /**
+   * @return source of a javascript function which Selenium itself uses to implement some webdriver command
+   */
+  private static String atom(String name) {
+    try {
+      return IOUtils.toString(RemoteWebDriver.class.getResource(name), UTF_8).trim();
+    }
+    catch (IOException e) {
+      throw new RuntimeException("Cannot load " + name + " from classpath", e);
+    }
+  }
+
+  /**
+   * @return true if browser says that element matches the condition,
+   *         false if browser says that element doesn't match the condition,
+   *         null if condition cannot be checked in browser (and should be checked via webdriver)
+   */
+  public Boolean matches(WebElement element, Condition condition) {
+    String expression = expression(condition);
+    if (expression == null) {
+      return null;
+    }
+    Object result = ((JavascriptExecutor) getWebDriver()).executeScript(script(expression), element);
+    return Boolean.TRUE.equals(result);
+  }
+
+  /**
+   * @return javascript expression of the condition, or null if condition cannot be checked in browser
+   */
+  private String expression(Condition condition) {
+    String expression = condition.javascript();
+    if (expression == null || !(getWebDriver() instanceof JavascriptExecutor)) {
+      return null;
+    }
+    return expression;
+  }
+
+  /**
+   * Filter given elements in browser with a single script call.
+   *
+   * @param limit maximum number of matching elements to return (e.g. 1 when searching for the first matching element)
+   * @return elements matching the condition, or null if condition cannot be checked in browser
+   *         (and elements should be filtered via webdriver)
+   */
+  public List<WebElement> filter(List<WebElement> elements, Condition condition, int limit) {
+    String expression = expression(condition);
+    if (expression == null) {
+      return null;
+    }
+    if (elements.isEmpty()) {
+      return elements;
+    }
+    return fetch(((JavascriptExecutor) getWebDriver()), filterScript(expression), elements, limit);
+  }
+
+  @SuppressWarnings("unchecked")
+  private List<WebElement> fetch(JavascriptExecutor js, String script, List<WebElement> elements, int limit) {
+    return (List<WebElement>) js.executeScript(script, elements, limit);
+  }
+
+  String filterScript(String expression) {
+    return FUNCTIONS +
+        "var elements = arguments[0], limit = arguments[1], result = [];\n" +
+        "for (var i = 0; i < elements.length && result.length < limit; i++) {\n" +
+        "  var e = elements[i];\n" +
+        "  if (" + expression + ") result.push(e);\n" +
+        "}\n" +
+        "return result;";
+  }
+
+  String script(String expression) {
+    return FUNCTIONS + "var e = arguments[0];\n" + "return !!(" + expression + ");";
+  }
+
+  /**
+   * @return javascript string literal for the given value
+   */
+  public static String literal(String value) {
+    return gson.toJson(value);
+  }
+
+  /**
+   * @return javascript expressions of given conditions joined with given operator,
+   *         or null if any of conditions cannot be checked in browser
+   */
+  public static String join(String operator, Condition... conditions) {
+    StringBuilder sb = new StringBuilder();
+    for (Condition condition : conditions) {
+      String expression = condition.javascript();
+      if (expression == null) {
+        return null;
+      }
+      if (sb.length() > 0) {
+        sb.append(operator);
+      }
+      sb.append('(').append(expression).append(')');
+    }
+    return sb.length() == 0 ? null : sb.toString();
+  }
+}
@@ -0,0 +1,104 @@
+package com.codeborne.selenide.impl;
+
+import com.codeborne.selenide.Selenide;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.logging.Logger;
+
+import static com.codeborne.selenide.Configuration.waitForDomChanges;
+import static com.codeborne.selenide.WebDriverRunner.getWebDriver;
+import static com.codeborne.selenide.WebDriverRunner.hasWebDriverStarted;
+import static java.lang.System.currentTimeMillis;
+import static java.util.logging.Level.FINE;
+
+/**
+ * Blocks between two checks of a condition until the page DOM changes (or polling interval expires),
+ * instead of sleeping for a fixed polling interval.
+ *
+ * Every document gets a persistent MutationObserver counting mutations. Each wait compares the counter
+ * with its value at the end of previous wait, so mutations made while condition was being checked
+ * are not lost: in this case the wait returns immediately.
+ * Otherwise the wait returns at the next animation frame after the first mutation.
+ *
+ * @see com.codeborne.selenide.Configuration#waitForDomChanges
+ */
+public class DomChangesWaiter {
+  private static final Logger log = Logger.getLogger(DomChangesWaiter.class.getName());
+
+  public static DomChangesWaiter instance = new DomChangesWaiter();
+
+  /**
+   * Returns state of mutations counter ("documentId:count"), or null if browser doesn't support MutationObserver.
+   * Arguments: the state returned by previous call, and maximum wait in milliseconds.
+   */
+  private static final String WAIT_FOR_MUTATION =
+      "var callback = arguments[arguments.length - 1];\n" +
+      "if (typeof MutationObserver == 'undefined') { callback(null); return; }\n" +
+      "var changes = window.__selenideDomChanges;\n" +
+      "var state = function() { return changes.id + ':' + changes.count; };\n" +
+      "if (!changes) {\n" +
+      "  changes = window.__selenideDomChanges = {id: String(Math.random()).substring(2), count: 0, listeners: []};\n" +
+      "  new MutationObserver(function() {\n" +
+      "    changes.count++;\n" +
+      "    var listeners = changes.listeners.slice();\n" +
+      "    for (var i = 0; i < listeners.length; i++) listeners[i]();\n" +
+      "  }).observe(document, {childList: true, subtree: true, attributes: true, characterData: true});\n" +
+      "  callback(state()); return;\n" +
+      "}\n" +
+      "if (state() != arguments[0]) { callback(state()); return; }\n" +
+      "var done = false, timer;\n" +
+      "var finish = function() {\n" +
+      "  if (done) return;\n" +
+      "  done = true; clearTimeout(timer);\n" +
+      "  changes.listeners.splice(changes.listeners.indexOf(onMutation), 1);\n" +
+      "  callback(state());\n" +
+      "};\n" +
+      "var onMutation = function() {\n" +
+      "  if (window.requestAnimationFrame) window.requestAnimationFrame(finish); else setTimeout(finish, 0);\n" +
+      "};\n" +
+      "changes.listeners.push(onMutation);\n" +
+      "timer = setTimeout(finish, arguments[1]);";
+
+  private final Map<WebDriver, Object> lastStates = Collections.synchronizedMap(new WeakHashMap<>());
+
+  /**
+   * Wait until DOM gets changed, but no longer than {@code pollingIntervalMs} (some changes, like "value" property
+   * of inputs or CSS transitions, do not produce DOM mutations) and no longer than {@code maxWaitMs}.
+   * Falls back to sleeping {@code pollingIntervalMs} if the feature is disabled or not supported by browser.
+   */
+  public void waitForChanges(long pollingIntervalMs, long maxWaitMs) {
+    if (!waitForDomChanges || !hasWebDriverStarted() || !(getWebDriver() instanceof JavascriptExecutor)) {
+      sleep(pollingIntervalMs);
+      return;
+    }
+
+    long waitMs = Math.max(0, Math.min(maxWaitMs, pollingIntervalMs));
+    WebDriver webDriver = getWebDriver();
+    long start = currentTimeMillis();
+    try {
+      Object lastState = lastStates.get(webDriver);
+      Object state = ((JavascriptExecutor) webDriver).executeAsyncScript(WAIT_FOR_MUTATION,
+          lastState == null ? "" : lastState, waitMs);
+      if (state == null) {
+        sleep(pollingIntervalMs);
+      }
+      else {
+        lastStates.put(webDriver, state);
+      }
+    }
+    catch (WebDriverException e) {
+      // Page is being reloaded, script timeout of webdriver is too short, or driver doesn't support async scripts
+      log.log(FINE, "Failed to wait for DOM changes", e);
+      sleep(Math.max(0, pollingIntervalMs - (currentTimeMillis() - start)));
+    }
+  }
+
+  void sleep(long milliseconds) {
+    Selenide.sleep(milliseconds);
+  }
+}
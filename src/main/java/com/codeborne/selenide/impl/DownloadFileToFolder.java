@@ -0,0 +1,109 @@
+package com.codeborne.selenide.impl;
+
+import com.codeborne.selenide.Configuration;
+import org.openqa.selenium.WebElement;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.logging.Logger;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Downloads file by clicking the element and waiting until browser saves a new file to downloads folder
+ * of current browser session.
+ *
+ * Waiting is driven by file system events (not by polling the folder).
+ * Files which are still being downloaded (like "report.pdf.crdownload" or "report.pdf.part") are ignored.
+ */
+public class DownloadFileToFolder {
+  private static final Logger log = Logger.getLogger(DownloadFileToFolder.class.getName());
+
+  private static final List<String> PARTIAL_DOWNLOAD_EXTENSIONS = Arrays.asList(".crdownload", ".part", ".download");
+
+  public File download(WebElementSource anyClickableElement, WebElement clickable, File folder) throws IOException {
+    Path path = folder.toPath();
+    try (WatchService watcher = path.getFileSystem().newWatchService()) {
+      path.register(watcher, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+      Set<String> existingFiles = new HashSet<>(Arrays.asList(list(folder)));
+
+      clickable.click();
+
+      File file = waitForNewFile(watcher, folder, existingFiles, Configuration.timeout);
+      if (file == null) {
+        throw new FileNotFoundException("Failed to download file " + anyClickableElement +
+            " in " + Configuration.timeout + " ms. Files in " + folder + ": " + Arrays.toString(list(folder)));
+      }
+      log.info("Downloaded file: " + file.getAbsolutePath());
+      return file;
+    }
+  }
+
+  /**
+   * @return new completely downloaded file, or null if it has not appeared in {@code timeoutMs} milliseconds
+   */
+  File waitForNewFile(WatchService watcher, File folder, Set<String> existingFiles, long timeoutMs) throws IOException {
+    long deadline = System.currentTimeMillis() + timeoutMs;
+    try {
+      while (true) {
+        File file = findNewFile(folder, existingFiles);
+        if (file != null) return file;
+
+        long remaining = deadline - System.currentTimeMillis();
+        if (remaining <= 0) return null;
+
+        WatchKey key = watcher.poll(remaining, MILLISECONDS);
+        if (key == null) return null;
+        key.pollEvents();
+        key.reset();
+      }
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Download has been interrupted", e);
+    }
+    catch (ClosedWatchServiceException e) {
+      throw new IOException("Stopped watching " + folder, e);
+    }
+  }
+
+  /**
+   * @return the newest of the new files if the folder contains no partially downloaded files
+   */
+  File findNewFile(File folder, Set<String> existingFiles) {
+    File newest = null;
+    for (String name : list(folder)) {
+      if (isPartialDownload(name)) return null;
+
+      File file = new File(folder, name);
+      if (!existingFiles.contains(name) && file.isFile() && (newest == null || file.lastModified() > newest.lastModified())) {
+        newest = file;
+      }
+    }
+    return newest;
+  }
+
+  static boolean isPartialDownload(String fileName) {
+    for (String extension : PARTIAL_DOWNLOAD_EXTENSIONS) {
+      if (fileName.endsWith(extension)) return true;
+    }
+    return false;
+  }
+
+  private String[] list(File folder) {
+    String[] files = folder.list();
+    return files == null ? new String[0] : files;
+  }
+}
@@ -4,10 +4,10 @@ import com.codeborne.selenide.Configuration;
 import com.codeborne.selenide.WebDriverRunner;
 import org.apache.http.Header;
 import org.apache.http.HttpResponse;
+import org.apache.http.client.CookieStore;
 import org.apache.http.client.config.CookieSpecs;
 import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.methods.HttpGet;
-import org.apache.http.config.Registry;
 import org.apache.http.config.RegistryBuilder;
 import org.apache.http.conn.socket.ConnectionSocketFactory;
 import org.apache.http.conn.socket.PlainConnectionSocketFactory;
@@ -15,14 +15,15 @@ import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
 import org.apache.http.impl.client.BasicCookieStore;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.HttpClientBuilder;
-import org.apache.http.impl.client.HttpClients;
 import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.apache.http.impl.cookie.BasicClientCookie;
 import org.apache.http.protocol.BasicHttpContext;
 import org.apache.http.protocol.HttpContext;
 import org.apache.http.ssl.SSLContextBuilder;
 import org.apache.http.ssl.TrustStrategy;
+import org.apache.http.util.EntityUtils;
 import org.openqa.selenium.Cookie;
+import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
 
 import javax.net.ssl.HostnameVerifier;
@@ -32,45 +33,149 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
 import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.logging.Logger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import static com.codeborne.selenide.impl.Describe.describe;
-import static org.apache.commons.io.FileUtils.copyInputStreamToFile;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.util.Collections.synchronizedMap;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static java.util.logging.Level.FINE;
 import static org.apache.http.client.protocol.HttpClientContext.COOKIE_STORE;
 
+/**
+ * Downloads files via direct HTTP GET requests with the same cookies as browser has.
+ *
+ * All downloads share one pooled HTTP client, so connections (and TLS sessions) are kept alive and reused.
+ * Every browser session has its own cookie store which is synchronized with browser before every download
+ * (only changed cookies are updated). Cookies set by server in response to download stay in the download request.
+ */
 public class DownloadFileWithHttpRequest {
   private static final Logger log = Logger.getLogger(DownloadFileWithHttpRequest.class.getName());
+  private static final long TRANSFER_CHUNK_SIZE = 1024 * 1024;
   
   public static boolean ignoreSelfSignedCerts = true;
-  
+
+  /**
+   * Maximum number of files downloaded in parallel by {@link #download(Collection)}
+   */
+  public static int maxParallelDownloads = 8;
+
+  private static CloseableHttpClient httpClient;
+  private static boolean httpClientIgnoresSelfSignedCerts;
+  private static final Map<WebDriver, SessionCookies> sessionCookies = synchronizedMap(new WeakHashMap<>());
+
   public File download(WebElement element) throws IOException {
+    String fileToDownloadLocation = getHref(element);
+    HttpResponse response = executeHttpRequest(fileToDownloadLocation);
+    return saveResponse(fileToDownloadLocation, response);
+  }
+
+  /**
+   * Download files linked by "href" attribute of given elements in parallel
+   *
+   * @return downloaded files in the same order as links
+   */
+  public List<File> download(Collection<WebElement> links) throws IOException {
+    List<String> urls = new ArrayList<>(links.size());
+    for (WebElement link : links) {
+      urls.add(getHref(link));
+    }
+    if (urls.isEmpty()) return new ArrayList<>();
+
+    // Cookies are read from browser in the calling thread: webdriver is bound to it
+    CookieStore cookies = mimicCookieState();
+    Set<String> targetFiles = new HashSet<>();
+    ExecutorService executor = Executors.newFixedThreadPool(Math.min(urls.size(), maxParallelDownloads));
+    try {
+      List<Future<File>> downloads = new ArrayList<>(urls.size());
+      for (String url : urls) {
+        downloads.add(executor.submit(() -> saveResponse(url, executeHttpRequest(url, cookies), targetFiles)));
+      }
+      List<File> files = new ArrayList<>(urls.size());
+      for (Future<File> download : downloads) {
+        files.add(download.get());
+      }
+      return files;
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Download has been interrupted", e);
+    }
+    catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException) throw (IOException) e.getCause();
+      if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+      throw new IOException(e.getCause());
+    }
+    finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private String getHref(WebElement element) {
     String fileToDownloadLocation = element.getAttribute("href");
     if (fileToDownloadLocation == null || fileToDownloadLocation.trim().isEmpty()) {
       throw new IllegalArgumentException("The element does not have href attribute: " + describe(element));
     }
+    return fileToDownloadLocation;
+  }
 
-    HttpResponse response = executeHttpRequest(fileToDownloadLocation);
+  File saveResponse(String fileToDownloadLocation, HttpResponse response) throws IOException {
+    return saveResponse(fileToDownloadLocation, response, new HashSet<>());
+  }
 
-    if (response.getStatusLine().getStatusCode() >= 500) {
-      throw new RuntimeException("Failed to download file " +
-          fileToDownloadLocation + ": " + response.getStatusLine());
-    }
-    if (response.getStatusLine().getStatusCode() >= 400) {
-      throw new FileNotFoundException("Failed to download file " +
-          fileToDownloadLocation + ": " + response.getStatusLine());
-    }
+  /**
+   * @param targetFiles files already taken by other downloads of the same batch
+   *                    (the file gets a unique name like "report (1).pdf" if its name is taken)
+   */
+  File saveResponse(String fileToDownloadLocation, HttpResponse response, Set<String> targetFiles) throws IOException {
+    try {
+      if (response.getStatusLine().getStatusCode() >= 500) {
+        throw new RuntimeException("Failed to download file " +
+            fileToDownloadLocation + ": " + response.getStatusLine());
+      }
+      if (response.getStatusLine().getStatusCode() >= 400) {
+        throw new FileNotFoundException("Failed to download file " +
+            fileToDownloadLocation + ": " + response.getStatusLine());
+      }
 
-    File downloadedFile = prepareTargetFile(fileToDownloadLocation, response);
+      File downloadedFile = uniqueFile(prepareTargetFile(fileToDownloadLocation, response), targetFiles);
 
-    return saveFileContent(response, downloadedFile);
+      return saveFileContent(response, downloadedFile);
+    }
+    finally {
+      // Release connection back to the pool
+      EntityUtils.consumeQuietly(response.getEntity());
+    }
   }
 
   protected HttpResponse executeHttpRequest(String fileToDownloadLocation) throws IOException {
-    CloseableHttpClient httpClient = ignoreSelfSignedCerts ? createTrustingHttpClient() : HttpClients.createDefault();
+    return executeHttpRequest(fileToDownloadLocation, mimicCookieState());
+  }
+
+  protected HttpResponse executeHttpRequest(String fileToDownloadLocation, CookieStore cookies) throws IOException {
     HttpGet httpGet = new HttpGet(fileToDownloadLocation);
 
     httpGet.setConfig(RequestConfig.custom()
@@ -85,9 +190,47 @@ public class DownloadFileWithHttpRequest {
     );
     
     HttpContext localContext = new BasicHttpContext();
-    localContext.setAttribute(COOKIE_STORE, mimicCookieState());
+    localContext.setAttribute(COOKIE_STORE, new RequestCookies(cookies));
 
-    return httpClient.execute(httpGet, localContext);
+    return httpClient().execute(httpGet, localContext);
+  }
+
+  static File uniqueFile(File file, Set<String> takenFiles) {
+    String name = file.getName();
+    int dot = name.lastIndexOf('.');
+    String baseName = dot > 0 ? name.substring(0, dot) : name;
+    String extension = dot > 0 ? name.substring(dot) : "";
+    File unique = file;
+    synchronized (takenFiles) {
+      for (int i = 1; !takenFiles.add(unique.getAbsolutePath().toLowerCase()); i++) {
+        unique = new File(file.getParentFile(), baseName + " (" + i + ")" + extension);
+      }
+    }
+    return unique;
+  }
+
+  private static synchronized CloseableHttpClient httpClient() throws IOException {
+    if (httpClient == null || httpClientIgnoresSelfSignedCerts != ignoreSelfSignedCerts) {
+      if (httpClient == null) {
+        Runtime.getRuntime().addShutdownHook(new Thread(DownloadFileWithHttpRequest::closeHttpClient,
+            "Selenide http client shutdown"));
+      }
+      closeHttpClient();
+      httpClientIgnoresSelfSignedCerts = ignoreSelfSignedCerts;
+      httpClient = createHttpClient(ignoreSelfSignedCerts);
+    }
+    return httpClient;
+  }
+
+  private static synchronized void closeHttpClient() {
+    if (httpClient != null) {
+      try {
+        httpClient.close();
+      }
+      catch (IOException e) {
+        log.log(FINE, "Failed to close http client", e);
+      }
+    }
   }
 
   private static class TrustAllStrategy implements TrustStrategy {
@@ -98,25 +241,30 @@ public class DownloadFileWithHttpRequest {
   }
 
   /**
-   configure HttpClient to ignore self-signed certs
-   as described here: http://literatejava.com/networks/ignore-ssl-certificate-errors-apache-httpclient-4-4/
-  */
-  private CloseableHttpClient createTrustingHttpClient() throws IOException {
+   * Pooled client which keeps connections alive.
+   * If needed, it ignores self-signed certs
+   * as described here: http://literatejava.com/networks/ignore-ssl-certificate-errors-apache-httpclient-4-4/
+   */
+  private static CloseableHttpClient createHttpClient(boolean trustAllServers) throws IOException {
     try {
       HttpClientBuilder builder = HttpClientBuilder.create();
-      SSLContext sslContext = new SSLContextBuilder().loadTrustMaterial(null, new TrustAllStrategy()).build();
-      builder.setSslcontext(sslContext);
-
-      HostnameVerifier hostnameVerifier = SSLConnectionSocketFactory.ALLOW_ALL_HOSTNAME_VERIFIER;
+      RegistryBuilder<ConnectionSocketFactory> socketFactoryRegistry = RegistryBuilder.<ConnectionSocketFactory>create()
+          .register("http", PlainConnectionSocketFactory.getSocketFactory());
 
-      SSLConnectionSocketFactory sslSocketFactory = new SSLConnectionSocketFactory(sslContext, hostnameVerifier);
-      Registry<ConnectionSocketFactory> socketFactoryRegistry = RegistryBuilder.<ConnectionSocketFactory>create()
-          .register("http", PlainConnectionSocketFactory.getSocketFactory())
-          .register("https", sslSocketFactory)
-          .build();
+      if (trustAllServers) {
+        SSLContext sslContext = new SSLContextBuilder().loadTrustMaterial(null, new TrustAllStrategy()).build();
+        HostnameVerifier hostnameVerifier = SSLConnectionSocketFactory.ALLOW_ALL_HOSTNAME_VERIFIER;
+        socketFactoryRegistry.register("https", new SSLConnectionSocketFactory(sslContext, hostnameVerifier));
+      }
+      else {
+        socketFactoryRegistry.register("https", SSLConnectionSocketFactory.getSocketFactory());
+      }
 
-      PoolingHttpClientConnectionManager connMgr = new PoolingHttpClientConnectionManager(socketFactoryRegistry);
+      PoolingHttpClientConnectionManager connMgr = new PoolingHttpClientConnectionManager(socketFactoryRegistry.build());
+      connMgr.setMaxTotal(Math.max(20, maxParallelDownloads * 2));
+      connMgr.setDefaultMaxPerRoute(Math.max(2, maxParallelDownloads));
       builder.setConnectionManager(connMgr);
+      builder.evictIdleConnections(30, SECONDS);
       return builder.build();
     }
     catch (Exception e) {
@@ -152,14 +300,13 @@ public class DownloadFileWithHttpRequest {
     return null;
   }
 
+  /**
+   * @return cookie store of current browser session, synchronized with browser cookies
+   */
   protected BasicCookieStore mimicCookieState() {
-    Set<Cookie> seleniumCookieSet = WebDriverRunner.getWebDriver().manage().getCookies();
-    BasicCookieStore mimicWebDriverCookieStore = new BasicCookieStore();
-    for (Cookie seleniumCookie : seleniumCookieSet) {
-      mimicWebDriverCookieStore.addCookie(duplicateCookie(seleniumCookie));
-    }
-
-    return mimicWebDriverCookieStore;
+    WebDriver webDriver = WebDriverRunner.getWebDriver();
+    SessionCookies cookies = sessionCookies.computeIfAbsent(webDriver, driver -> new SessionCookies());
+    return cookies.sync(webDriver.manage().getCookies());
   }
 
   protected BasicClientCookie duplicateCookie(Cookie seleniumCookie) {
@@ -173,7 +320,116 @@ public class DownloadFileWithHttpRequest {
   }
 
   protected File saveFileContent(HttpResponse response, File downloadedFile) throws IOException {
-    copyInputStreamToFile(response.getEntity().getContent(), downloadedFile);
+    File folder = downloadedFile.getAbsoluteFile().getParentFile();
+    if (!folder.isDirectory() && !folder.mkdirs()) {
+      throw new IOException("Failed to create folder " + folder);
+    }
+    try (ReadableByteChannel content = Channels.newChannel(response.getEntity().getContent());
+         FileChannel file = FileChannel.open(downloadedFile.toPath(), CREATE, WRITE, TRUNCATE_EXISTING)) {
+      long position = 0;
+      for (long transferred; (transferred = file.transferFrom(content, position, TRANSFER_CHUNK_SIZE)) > 0; ) {
+        position += transferred;
+      }
+    }
     return downloadedFile;
   }
+
+  /**
+   * Cookies of one download request: reads cookies of browser session,
+   * but cookies set (or deleted) by server in response to download are kept only in this request
+   * (browser does not have them).
+   */
+  static class RequestCookies implements CookieStore {
+    private final CookieStore sessionCookies;
+    private final Map<String, org.apache.http.cookie.Cookie> ownCookies = new LinkedHashMap<>();
+    private boolean cleared;
+
+    RequestCookies(CookieStore sessionCookies) {
+      this.sessionCookies = sessionCookies;
+    }
+
+    @Override
+    public synchronized void addCookie(org.apache.http.cookie.Cookie cookie) {
+      if (cookie != null) {
+        ownCookies.put(key(cookie), cookie);
+      }
+    }
+
+    @Override
+    public synchronized List<org.apache.http.cookie.Cookie> getCookies() {
+      Date now = new Date();
+      List<org.apache.http.cookie.Cookie> cookies = new ArrayList<>();
+      if (!cleared) {
+        for (org.apache.http.cookie.Cookie cookie : sessionCookies.getCookies()) {
+          if (!ownCookies.containsKey(key(cookie))) {
+            cookies.add(cookie);
+          }
+        }
+      }
+      for (org.apache.http.cookie.Cookie cookie : ownCookies.values()) {
+        if (!cookie.isExpired(now)) {
+          cookies.add(cookie);
+        }
+      }
+      return cookies;
+    }
+
+    /**
+     * Expired cookies are skipped by {@link #getCookies()}, but kept here: they hide cookies of browser session
+     */
+    @Override
+    public boolean clearExpired(Date date) {
+      return false;
+    }
+
+    @Override
+    public synchronized void clear() {
+      ownCookies.clear();
+      cleared = true;
+    }
+
+    private static String key(org.apache.http.cookie.Cookie cookie) {
+      String domain = cookie.getDomain() == null ? "" : cookie.getDomain().toLowerCase();
+      String path = cookie.getPath() == null ? "/" : cookie.getPath();
+      return cookie.getName() + ';' + domain + ';' + path;
+    }
+  }
+
+  /**
+   * Cookies of one browser session.
+   * Only cookies changed in browser since previous download are copied to cookie store.
+   */
+  class SessionCookies {
+    private final BasicCookieStore store = new BasicCookieStore();
+    private Map<String, Cookie> synced = new HashMap<>();
+
+    synchronized BasicCookieStore sync(Set<Cookie> browserCookies) {
+      Map<String, Cookie> current = new HashMap<>(browserCookies.size());
+      for (Cookie cookie : browserCookies) {
+        String key = key(cookie);
+        current.put(key, cookie);
+        if (!isSame(cookie, synced.remove(key))) {
+          store.addCookie(duplicateCookie(cookie));
+        }
+      }
+      for (Cookie deleted : synced.values()) {
+        BasicClientCookie expired = duplicateCookie(deleted);
+        expired.setExpiryDate(new Date(0));
+        store.addCookie(expired); // replaces the cookie and gets dropped because it's expired
+      }
+      synced = current;
+      return store;
+    }
+
+    private String key(Cookie cookie) {
+      return cookie.getName() + ';' + cookie.getDomain() + ';' + cookie.getPath();
+    }
+
+    private boolean isSame(Cookie cookie, Cookie previous) {
+      return previous != null
+          && Objects.equals(cookie.getValue(), previous.getValue())
+          && Objects.equals(cookie.getExpiry(), previous.getExpiry())
+          && cookie.isSecure() == previous.isSecure();
+    }
+  }
 }
@@ -0,0 +1,76 @@
+package com.codeborne.selenide.impl;
+
+import org.openqa.selenium.WebDriver;
+
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.codeborne.selenide.WebDriverRunner.getWebDriver;
+import static com.codeborne.selenide.WebDriverRunner.hasWebDriverStarted;
+import static java.util.Collections.synchronizedMap;
+
+/**
+ * Keeps track of when web elements found by Selenide can be reused without re-querying the page.
+ *
+ * Every navigation, frame/window switch or stale element error starts a new "generation":
+ * elements cached in previous generations are looked up again on the next access.
+ * Every webdriver has its own generations, so invalidation in one thread doesn't affect browsers of other threads.
+ *
+ * @see com.codeborne.selenide.Configuration#cacheElements
+ */
+public class ElementCache {
+  public static ElementCache instance = new ElementCache();
+
+  private final Map<WebDriver, AtomicLong> generations = synchronizedMap(new WeakHashMap<>());
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+
+  /**
+   * Forget all cached elements of current browser. Should be called whenever page content could be replaced.
+   */
+  public void invalidate() {
+    if (hasWebDriverStarted()) {
+      invalidate(getWebDriver());
+    }
+  }
+
+  public void invalidate(WebDriver webDriver) {
+    generationOf(webDriver).incrementAndGet();
+  }
+
+  long generation(WebDriver webDriver) {
+    return generationOf(webDriver).get();
+  }
+
+  private AtomicLong generationOf(WebDriver webDriver) {
+    return generations.computeIfAbsent(webDriver, driver -> new AtomicLong());
+  }
+
+  void hit() {
+    hits.incrementAndGet();
+  }
+
+  void miss() {
+    misses.incrementAndGet();
+  }
+
+  /**
+   * @return number of times a cached element has been reused instead of looking it up
+   */
+  public long getHits() {
+    return hits.get();
+  }
+
+  /**
+   * @return number of times an element has been looked up while caching was enabled
+   */
+  public long getMisses() {
+    return misses.get();
+  }
+
+  public void resetStatistics() {
+    hits.set(0);
+    misses.set(0);
+  }
+}
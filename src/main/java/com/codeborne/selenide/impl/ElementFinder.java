@@ -6,12 +6,15 @@ import com.codeborne.selenide.ex.ElementNotFound;
 import org.openqa.selenium.By;
 import org.openqa.selenium.NoSuchElementException;
 import org.openqa.selenium.SearchContext;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
 
 import java.lang.reflect.Proxy;
 import java.util.List;
 
 import static com.codeborne.selenide.Condition.exist;
+import static com.codeborne.selenide.Configuration.cacheElements;
 import static com.codeborne.selenide.Selenide.$;
 import static com.codeborne.selenide.WebDriverRunner.getWebDriver;
 import static java.lang.Thread.currentThread;
@@ -27,6 +30,9 @@ public class ElementFinder extends WebElementSource {
 
   @SuppressWarnings("unchecked")
   public static <T extends SelenideElement> T wrap(Class<T> clazz, SearchContext parent, By criteria, int index) {
+    if (clazz == SelenideElement.class) {
+      return (T) new SelenideElementImpl(new ElementFinder(parent, criteria, index));
+    }
     return (T) Proxy.newProxyInstance(
         currentThread().getContextClassLoader(),
         new Class<?>[]{clazz},
@@ -36,6 +42,7 @@ public class ElementFinder extends WebElementSource {
   private final SearchContext parent;
   private final By criteria;
   private final int index;
+  private volatile CachedElement cached;
 
   ElementFinder(SearchContext parent, By criteria, int index) {
     this.parent = parent;
@@ -52,6 +59,44 @@ public class ElementFinder extends WebElementSource {
 
   @Override
   public WebElement getWebElement() throws NoSuchElementException, IndexOutOfBoundsException {
+    if (!cacheElements) {
+      return findWebElement();
+    }
+
+    WebDriver webDriver = getWebDriver();
+    CachedElement cached = this.cached;
+    if (cached != null && cached.webDriver == webDriver && cached.generation == ElementCache.instance.generation(webDriver)) {
+      ElementCache.instance.hit();
+      return cached.element;
+    }
+    return findAndCache(webDriver);
+  }
+
+  @Override
+  public WebElement getFreshWebElement() throws NoSuchElementException, IndexOutOfBoundsException {
+    return cacheElements ? findAndCache(getWebDriver()) : findWebElement();
+  }
+
+  private WebElement findAndCache(WebDriver webDriver) {
+    ElementCache.instance.miss();
+    long generation = ElementCache.instance.generation(webDriver);
+    WebElement element;
+    try {
+      element = findWebElement();
+    }
+    catch (StaleElementReferenceException e) {
+      if (!(parent instanceof SelenideElement)) throw e;
+
+      // parent element has been taken from cache, but page has re-rendered it since then
+      ElementCache.instance.invalidate(webDriver);
+      generation = ElementCache.instance.generation(webDriver);
+      element = findWebElement();
+    }
+    this.cached = element == null ? null : new CachedElement(element, webDriver, generation);
+    return element;
+  }
+
+  private WebElement findWebElement() {
     return index == 0 ?
         WebElementSelector.instance.findElement(getSearchContext(), criteria) :
         WebElementSelector.instance.findElements(getSearchContext(), criteria).get(index);
@@ -66,7 +111,7 @@ public class ElementFinder extends WebElementSource {
 
   private SearchContext getSearchContext() {
     return parent == null ? getWebDriver() :
-        (parent instanceof SelenideElement) ? ((SelenideElement) parent).toWebElement() :
+        (parent instanceof SelenideElement) ? ((SelenideElement) parent).getWrappedElement() :
         parent;
   }
 
@@ -93,4 +138,16 @@ public class ElementFinder extends WebElementSource {
   public String toString() {
     return "{" + getSearchCriteria() + '}';
   }
+
+  private static class CachedElement {
+    private final WebElement element;
+    private final WebDriver webDriver;
+    private final long generation;
+
+    private CachedElement(WebElement element, WebDriver webDriver, long generation) {
+      this.element = element;
+      this.webDriver = webDriver;
+      this.generation = generation;
+    }
+  }
 }
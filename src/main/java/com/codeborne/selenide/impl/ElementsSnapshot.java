@@ -0,0 +1,88 @@
+package com.codeborne.selenide.impl;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WebElement;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Logger;
+
+import static com.codeborne.selenide.Configuration.evaluateConditionsInBrowser;
+import static com.codeborne.selenide.WebDriverRunner.getWebDriver;
+import static com.codeborne.selenide.WebDriverRunner.hasWebDriverStarted;
+import static java.util.Collections.unmodifiableList;
+import static java.util.logging.Level.FINE;
+
+/**
+ * Texts of all elements of a collection, fetched by a single javascript call.
+ *
+ * NB! Texts are approximations of webdriver's getText().
+ *
+ * @see com.codeborne.selenide.Configuration#evaluateConditionsInBrowser
+ */
+public class ElementsSnapshot {
+  private static final Logger log = Logger.getLogger(ElementsSnapshot.class.getName());
+
+  private static final String SNAPSHOT =
+      ConditionScript.FUNCTIONS +
+      "function text(e) {\n" +
+      "  if (!visible(e)) return '';\n" +
+      "  if (e.tagName.toLowerCase() !== 'select') return e.innerText || '';\n" +
+      "  var s = '';\n" +
+      "  for (var i = 0; i < e.options.length; i++) { if (e.options[i].selected) s += e.options[i].text; }\n" +
+      "  return s;\n" +
+      "}\n" +
+      "var elements = arguments[0], result = [];\n" +
+      "for (var i = 0; i < elements.length; i++) { result.push(text(elements[i])); }\n" +
+      "return result;";
+
+  /**
+   * Fetch snapshot of given elements
+   *
+   * @return null if snapshots are disabled or not supported by browser, or if any element has disappeared meanwhile
+   */
+  public static ElementsSnapshot take(List<WebElement> elements) {
+    if (!evaluateConditionsInBrowser || !hasWebDriverStarted()) return null;
+
+    WebDriver webDriver = getWebDriver();
+    if (!(webDriver instanceof JavascriptExecutor)) return null;
+
+    try {
+      List<Object> snapshot = fetch((JavascriptExecutor) webDriver, elements);
+      return snapshot == null || snapshot.size() != elements.size() ? null : new ElementsSnapshot(snapshot);
+    }
+    catch (WebDriverException | ClassCastException e) {
+      log.log(FINE, "Failed to take snapshot of " + elements.size() + " elements", e);
+      return null;
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static List<Object> fetch(JavascriptExecutor js, List<WebElement> elements) {
+    return (List<Object>) js.executeScript(SNAPSHOT, elements);
+  }
+
+  private final List<String> texts;
+
+  ElementsSnapshot(List<Object> texts) {
+    List<String> result = new ArrayList<>(texts.size());
+    for (Object text : texts) {
+      result.add(text == null ? "" : text.toString());
+    }
+    this.texts = unmodifiableList(result);
+  }
+
+  public int size() {
+    return texts.size();
+  }
+
+  public String text(int index) {
+    return texts.get(index);
+  }
+
+  public List<String> texts() {
+    return texts;
+  }
+}
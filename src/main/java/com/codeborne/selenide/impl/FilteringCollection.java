@@ -1,12 +1,16 @@
 package com.codeborne.selenide.impl;
 
+import com.codeborne.selenide.Condition;
 import com.google.common.base.Predicate;
 import com.google.common.collect.Collections2;
 import com.google.common.collect.Lists;
+import org.openqa.selenium.WebDriverException;
 import org.openqa.selenium.WebElement;
 
 import java.util.List;
 
+import static com.codeborne.selenide.Configuration.evaluateConditionsInBrowser;
+
 public class FilteringCollection implements WebElementsCollection {
   private final WebElementsCollection originalCollection;
   private final Predicate<WebElement> filter;
@@ -18,7 +22,20 @@ public class FilteringCollection implements WebElementsCollection {
 
   @Override
   public List<WebElement> getActualElements() {
-    return Lists.newArrayList(Collections2.filter(originalCollection.getActualElements(), filter));
+    List<WebElement> elements = originalCollection.getActualElements();
+    List<WebElement> filteredInBrowser = filterInBrowser(elements);
+    return filteredInBrowser != null ? filteredInBrowser : Lists.newArrayList(Collections2.filter(elements, filter));
+  }
+
+  private List<WebElement> filterInBrowser(List<WebElement> elements) {
+    if (!evaluateConditionsInBrowser || !(filter instanceof Condition)) return null;
+
+    try {
+      return ConditionScript.instance.filter(elements, (Condition) filter, Integer.MAX_VALUE);
+    }
+    catch (WebDriverException e) {
+      return null;
+    }
   }
 
   @Override
@@ -0,0 +1,130 @@
+package com.codeborne.selenide.impl;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import static java.awt.image.BufferedImage.TYPE_INT_ARGB;
+
+/**
+ * Pixel-by-pixel comparison of two images.
+ *
+ * Images are compared as raw ARGB int arrays, in horizontal bands processed in parallel.
+ * Comparison stops as soon as number of different pixels exceeds the allowed maximum
+ * (in this case diff image contains only differences found so far).
+ */
+public class ImageDiff {
+  static final int BAND_HEIGHT = 32;
+
+  private static final int DIFF_COLOR = 0xFFFF0000;
+
+  private final boolean sameSize;
+  private final long differentPixels;
+  private final long totalPixels;
+  private final long maxDifferentPixels;
+  private final BufferedImage diffImage;
+
+  private ImageDiff(boolean sameSize, long differentPixels, long totalPixels, long maxDifferentPixels,
+                    BufferedImage diffImage) {
+    this.sameSize = sameSize;
+    this.differentPixels = differentPixels;
+    this.totalPixels = totalPixels;
+    this.maxDifferentPixels = maxDifferentPixels;
+    this.diffImage = diffImage;
+  }
+
+  /**
+   * @param maxDifferentPixels comparison stops when more than this number of pixels differ
+   */
+  public static ImageDiff compare(BufferedImage expected, BufferedImage actual, long maxDifferentPixels) {
+    int width = expected.getWidth();
+    int height = expected.getHeight();
+    long totalPixels = (long) width * height;
+    if (width != actual.getWidth() || height != actual.getHeight()) {
+      return new ImageDiff(false, totalPixels, totalPixels, maxDifferentPixels, null);
+    }
+
+    int[] expectedPixels = argbPixels(expected);
+    int[] actualPixels = argbPixels(actual);
+    BufferedImage diffImage = new BufferedImage(width, height, TYPE_INT_ARGB);
+    int[] diffPixels = ((DataBufferInt) diffImage.getRaster().getDataBuffer()).getData();
+    AtomicLong differentPixels = new AtomicLong();
+
+    int bands = (height + BAND_HEIGHT - 1) / BAND_HEIGHT;
+    IntStream.range(0, bands).parallel().forEach(band -> {
+      int fromRow = band * BAND_HEIGHT;
+      int toRow = Math.min(height, fromRow + BAND_HEIGHT);
+      for (int row = fromRow; row < toRow && differentPixels.get() <= maxDifferentPixels; row++) {
+        int differentInRow = 0;
+        for (int i = row * width, end = i + width; i < end; i++) {
+          if (expectedPixels[i] != actualPixels[i]) {
+            diffPixels[i] = DIFF_COLOR;
+            differentInRow++;
+          }
+          else {
+            // faded original, to see where differences are
+            diffPixels[i] = (expectedPixels[i] & 0x00FFFFFF) | 0x40000000;
+          }
+        }
+        if (differentInRow > 0) {
+          differentPixels.addAndGet(differentInRow);
+        }
+      }
+    });
+
+    return new ImageDiff(true, differentPixels.get(), totalPixels, maxDifferentPixels, diffImage);
+  }
+
+  /**
+   * @return pixels of image in ARGB format (without copying if image is already stored this way)
+   */
+  static int[] argbPixels(BufferedImage image) {
+    return ((DataBufferInt) toArgb(image).getRaster().getDataBuffer()).getData();
+  }
+
+  /**
+   * @return the same image if it's already stored as ARGB int array, or its ARGB copy otherwise
+   */
+  public static BufferedImage toArgb(BufferedImage image) {
+    if (image.getType() == TYPE_INT_ARGB && image.getRaster().getParent() == null) {
+      return image;
+    }
+    BufferedImage copy = new BufferedImage(image.getWidth(), image.getHeight(), TYPE_INT_ARGB);
+    Graphics2D graphics = copy.createGraphics();
+    try {
+      graphics.drawImage(image, 0, 0, null);
+    }
+    finally {
+      graphics.dispose();
+    }
+    return copy;
+  }
+
+  public boolean matches() {
+    return sameSize && differentPixels <= maxDifferentPixels;
+  }
+
+  public boolean isSameSize() {
+    return sameSize;
+  }
+
+  /**
+   * @return number of different pixels (if comparison was stopped early, actual number can be bigger)
+   */
+  public long getDifferentPixels() {
+    return differentPixels;
+  }
+
+  public long getTotalPixels() {
+    return totalPixels;
+  }
+
+  /**
+   * @return image with different pixels marked red, or null if images have different sizes
+   */
+  public BufferedImage getDiffImage() {
+    return diffImage;
+  }
+}
@@ -67,6 +67,7 @@ public class Navigator {
     SelenideLog log = SelenideLogger.beginStep("open", url);
     try {
       WebDriver webdriver = getAndCheckWebDriver();
+      ElementCache.instance.invalidate();
       webdriver.navigate().to(url);
       if (isIE() && !"".equals(login)) {
         Selenide.switchTo().alert().authenticateUsing(new UserAndPassword(domain + login, password));
@@ -134,10 +135,12 @@ public class Navigator {
   }
 
   public void back() {
+    ElementCache.instance.invalidate();
     getWebDriver().navigate().back();
   }
 
   public void forward() {
+    ElementCache.instance.invalidate();
     getWebDriver().navigate().forward();
   }
 }
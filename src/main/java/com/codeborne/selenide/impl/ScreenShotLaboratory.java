@@ -8,12 +8,15 @@ import org.openqa.selenium.remote.RemoteWebDriver;
 import org.openqa.selenium.remote.UnreachableBrowserException;
 
 import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
 import java.awt.image.BufferedImage;
-import java.awt.image.RasterFormatException;
 import java.io.*;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ConcurrentSkipListSet;
@@ -23,6 +26,8 @@ import java.util.logging.Logger;
 import static com.codeborne.selenide.Configuration.reportsFolder;
 import static com.codeborne.selenide.WebDriverRunner.getWebDriver;
 import static java.io.File.separatorChar;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.logging.Level.FINE;
 import static java.util.logging.Level.SEVERE;
 import static org.openqa.selenium.OutputType.FILE;
 
@@ -30,9 +35,9 @@ public class ScreenShotLaboratory {
   private static final Logger log = Logger.getLogger(ScreenShotLaboratory.class.getName());
 
   protected AtomicLong screenshotCounter = new AtomicLong();
-  protected String currentContext = "";
-  protected List<File> currentContextScreenshots;
-  protected List<File> allScreenshots = new ArrayList<>();
+  protected ThreadLocal<String> currentContext = ThreadLocal.withInitial(() -> "");
+  protected ThreadLocal<List<File>> currentContextScreenshots = new ThreadLocal<>();
+  protected ScreenshotsHistory allScreenshots = new ScreenshotsHistory(Configuration.screenshotsHistorySize);
 
   protected Set<String> printedErrors = new ConcurrentSkipListSet<>();
 
@@ -64,7 +69,7 @@ public class ScreenShotLaboratory {
   }
 
   protected String generateScreenshotFileName() {
-    return currentContext + timestamp() + "." + screenshotCounter.getAndIncrement();
+    return currentContext.get() + timestamp() + "." + screenshotCounter.getAndIncrement();
   }
 
   /**
@@ -82,6 +87,10 @@ public class ScreenShotLaboratory {
 
     WebDriver webdriver = getWebDriver();
 
+    if (Configuration.asyncScreenshots || Configuration.deduplicateScreenshots) {
+      return takeScreenShotAsBytes(fileName, webdriver);
+    }
+
     if (Configuration.savePageSource) {
       savePageSourceToFile(fileName, webdriver);
     }
@@ -93,6 +102,61 @@ public class ScreenShotLaboratory {
     return addToHistory(imageFile).getAbsolutePath();
   }
 
+  /**
+   * Takes page source and screenshot from browser as bytes, and then stores them
+   * (in background and/or deduplicated, depending on configuration).
+   *
+   * @return the name of screenshot file (which may be not written yet) or null if failed to take screenshot
+   */
+  protected String takeScreenShotAsBytes(String fileName, WebDriver webdriver) {
+    if (Configuration.savePageSource) {
+      String pageSource = getPageSource(webdriver, true);
+      if (pageSource != null) {
+        saveArtifact(fileName + ".html", pageSource.getBytes(UTF_8));
+      }
+    }
+
+    byte[] image = getPageImageBytes(webdriver);
+    if (image == null) {
+      return null;
+    }
+    File imageFile = saveArtifact(fileName + ".png", image);
+    return addToHistory(imageFile).getAbsolutePath();
+  }
+
+  protected File saveArtifact(String fileName, byte[] content) {
+    if (Configuration.deduplicateScreenshots) {
+      return ArtifactStore.instance.store(fileName, content);
+    }
+
+    File file = new File(reportsFolder, fileName);
+    if (Configuration.asyncScreenshots) {
+      AsyncFileWriter.instance.write(content, file);
+    }
+    else {
+      try {
+        copyFile(new ByteArrayInputStream(content), file);
+      }
+      catch (IOException e) {
+        log.log(SEVERE, "Failed to write file " + file.getAbsolutePath(), e);
+      }
+    }
+    return file;
+  }
+
+  protected byte[] getPageImageBytes(WebDriver webdriver) {
+    if (!(webdriver instanceof TakesScreenshot)) {
+      return null;
+    }
+    try {
+      return ((TakesScreenshot) webdriver).getScreenshotAs(OutputType.BYTES);
+    }
+    catch (Exception e) {
+      printOnce("takeScreenshotImage", e);
+      return null;
+    }
+  }
+
   public File takeScreenshot(WebElement element) {
     try {
       BufferedImage dest = takeScreenshotAsImage(element);
@@ -120,28 +184,69 @@ public class ScreenShotLaboratory {
     }
 
     byte[] screen = ((TakesScreenshot) webdriver).getScreenshotAs(OutputType.BYTES);
+    Rectangle elementRectangle = getElementRectangle(webdriver, element);
 
-    Point elementLocation = element.getLocation();
-    try {
-      BufferedImage img = ImageIO.read(new ByteArrayInputStream(screen));
-      int elementWidth = element.getSize().getWidth();
-      int elementHeight = element.getSize().getHeight();
-      if (elementWidth > img.getWidth()) {
-        elementWidth = img.getWidth() - elementLocation.getX();
+    try (ImageInputStream input = ImageIO.createImageInputStream(new ByteArrayInputStream(screen))) {
+      Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+      if (!readers.hasNext()) {
+        throw new IOException("Unsupported screenshot image format");
       }
-      if (elementHeight > img.getHeight()) {
-        elementHeight = img.getHeight() - elementLocation.getY();
+      ImageReader reader = readers.next();
+      try {
+        reader.setInput(input, true, true);
+        java.awt.Rectangle region = visibleRegion(elementRectangle, reader.getWidth(0), reader.getHeight(0));
+        if (region == null) {
+          log.warning("Cannot take screenshot because element is not displayed on current screen position");
+          return null;
+        }
+
+        // decode only the element's region instead of the whole screen
+        ImageReadParam param = reader.getDefaultReadParam();
+        param.setSourceRegion(region);
+        return reader.read(0, param);
+      }
+      finally {
+        reader.dispose();
       }
-      return img.getSubimage(elementLocation.getX(), elementLocation.getY(), elementWidth, elementHeight);
     }
     catch (IOException e) {
       printOnce("takeScreenshotImage", e);
       return null;
     }
-    catch (RasterFormatException e) {
-      log.warning("Cannot take screenshot because element is not displayed on current screen position");
-      return null;
+  }
+
+  /**
+   * @return part of element which fits into the screen, or null if element is out of screen
+   */
+  static java.awt.Rectangle visibleRegion(Rectangle element, int screenWidth, int screenHeight) {
+    int x = Math.max(0, element.getX());
+    int y = Math.max(0, element.getY());
+    int width = Math.min(element.getWidth(), screenWidth - x);
+    int height = Math.min(element.getHeight(), screenHeight - y);
+    return width <= 0 || height <= 0 ? null : new java.awt.Rectangle(x, y, width, height);
+  }
+
+  /**
+   * Get location and size of element by a single javascript call (or by webdriver if javascript is not available)
+   */
+  protected Rectangle getElementRectangle(WebDriver webdriver, WebElement element) {
+    if (webdriver instanceof JavascriptExecutor) {
+      try {
+        List<?> rectangle = (List<?>) ((JavascriptExecutor) webdriver).executeScript(
+            "var r = arguments[0].getBoundingClientRect();\n" +
+            "return [r.left + window.pageXOffset, r.top + window.pageYOffset, r.width, r.height];", element);
+        return new Rectangle(toInt(rectangle.get(0)), toInt(rectangle.get(1)),
+            toInt(rectangle.get(3)), toInt(rectangle.get(2)));
+      }
+      catch (WebDriverException | ClassCastException | NullPointerException | IndexOutOfBoundsException e) {
+        log.log(FINE, "Failed to get element rectangle by javascript", e);
+      }
     }
+    return new Rectangle(element.getLocation(), element.getSize());
+  }
+
+  private static int toInt(Object number) {
+    return (int) Math.round(((Number) number).doubleValue());
   }
 
   public File takeScreenShotAsFile() {
@@ -189,16 +294,26 @@ public class ScreenShotLaboratory {
 
   protected File savePageSourceToFile(String fileName, WebDriver webdriver, boolean retryIfAlert) {
     File pageSource = new File(reportsFolder, fileName + ".html");
+    String content = getPageSource(webdriver, retryIfAlert);
+    if (content != null) {
+      writeToFile(content, pageSource);
+    }
+    return pageSource;
+  }
 
+  /**
+   * @return page source, or error description if failed to get it, or null if there is nothing to save
+   */
+  protected String getPageSource(WebDriver webdriver, boolean retryIfAlert) {
     try {
-      writeToFile(webdriver.getPageSource(), pageSource);
+      return webdriver.getPageSource();
     } catch (UnhandledAlertException e) {
       if (retryIfAlert) {
         try {
           Alert alert = webdriver.switchTo().alert();
           log.severe(e + ": " + alert.getText());
           alert.accept();
-          savePageSourceToFile(fileName, webdriver, false);
+          return getPageSource(webdriver, false);
         }
         catch (Exception unableToCloseAlert) {
           log.severe("Failed to close alert: " + unableToCloseAlert);
@@ -207,23 +322,23 @@ public class ScreenShotLaboratory {
       else {
         printOnce("savePageSourceToFile", e);
       }
+      return null;
     }
     catch (UnreachableBrowserException e) {
-      writeToFile(e.toString(), pageSource);
-      return pageSource;
+      return e.toString();
     }
     catch (Exception e) {
-      writeToFile(e.toString(), pageSource);
       printOnce("savePageSourceToFile", e);
+      return e.toString();
     }
-    return pageSource;
   }
 
   protected File addToHistory(File screenshot) {
-    if (currentContextScreenshots != null) {
-      currentContextScreenshots.add(screenshot);
+    List<File> contextScreenshots = currentContextScreenshots.get();
+    if (contextScreenshots != null) {
+      contextScreenshots.add(screenshot);
     }
-    allScreenshots.add(screenshot);
+    allScreenshots.add(screenshot, Configuration.screenshotsHistorySize);
     return screenshot;
   }
 
@@ -292,23 +407,23 @@ public class ScreenShotLaboratory {
   }
 
   public void startContext(String context) {
-    this.currentContext = context;
-    currentContextScreenshots = new ArrayList<>();
+    currentContext.set(context);
+    currentContextScreenshots.set(new ArrayList<>());
   }
 
   public List<File> finishContext() {
-    List<File> result = currentContextScreenshots;
-    this.currentContext = "";
-    currentContextScreenshots = null;
+    List<File> result = currentContextScreenshots.get();
+    currentContext.remove();
+    currentContextScreenshots.remove();
     return result;
   }
 
   public List<File> getScreenshots() {
-    return allScreenshots;
+    return allScreenshots.getAll();
   }
 
   public File getLastScreenshot() {
-    return allScreenshots.isEmpty() ? null : allScreenshots.get(allScreenshots.size() - 1);
+    return allScreenshots.getLast();
   }
 
   public String formatScreenShotPath() {
@@ -0,0 +1,93 @@
+package com.codeborne.selenide.impl;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.logging.Logger;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.logging.Level.SEVERE;
+
+/**
+ * List of all taken screenshots which keeps only the latest {@code maxSize} entries in memory.
+ * Older entries are moved to a temporary file on disk.
+ *
+ * @see com.codeborne.selenide.Configuration#screenshotsHistorySize
+ */
+public class ScreenshotsHistory {
+  private static final Logger log = Logger.getLogger(ScreenshotsHistory.class.getName());
+
+  private final int maxSize;
+  private final Deque<File> recent = new ArrayDeque<>();
+  private File spillFile;
+  private int spilledCount;
+
+  public ScreenshotsHistory(int maxSize) {
+    this.maxSize = Math.max(1, maxSize);
+  }
+
+  public void add(File screenshot) {
+    add(screenshot, maxSize);
+  }
+
+  /**
+   * @param maxSize number of latest entries to keep in memory (overrides the one given to constructor)
+   */
+  public synchronized void add(File screenshot, int maxSize) {
+    recent.addLast(screenshot);
+    while (recent.size() > Math.max(1, maxSize)) {
+      spill(recent.removeFirst());
+    }
+  }
+
+  private void spill(File screenshot) {
+    try {
+      if (spillFile == null) {
+        spillFile = File.createTempFile("selenide-screenshots", ".txt");
+        spillFile.deleteOnExit();
+      }
+      try (Writer out = new OutputStreamWriter(new FileOutputStream(spillFile, true), UTF_8)) {
+        out.write(screenshot.getPath());
+        out.write('\n');
+      }
+      spilledCount++;
+    }
+    catch (IOException e) {
+      log.log(SEVERE, "Failed to save screenshots history to " + spillFile, e);
+    }
+  }
+
+  /**
+   * @return all screenshots (including those moved to disk) in order of taking
+   */
+  public synchronized List<File> getAll() {
+    List<File> all = new ArrayList<>(spilledCount + recent.size());
+    if (spillFile != null) {
+      try {
+        for (String path : Files.readAllLines(spillFile.toPath(), UTF_8)) {
+          all.add(new File(path));
+        }
+      }
+      catch (IOException e) {
+        log.log(SEVERE, "Failed to read screenshots history from " + spillFile, e);
+      }
+    }
+    all.addAll(recent);
+    return all;
+  }
+
+  public synchronized File getLast() {
+    return recent.peekLast();
+  }
+
+  public synchronized int size() {
+    return spilledCount + recent.size();
+  }
+}
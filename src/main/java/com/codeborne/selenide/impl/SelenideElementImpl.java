@@ -0,0 +1,667 @@
+package com.codeborne.selenide.impl;
+
+import com.codeborne.selenide.Condition;
+import com.codeborne.selenide.ElementsCollection;
+import com.codeborne.selenide.SelenideElement;
+import com.codeborne.selenide.commands.Commands;
+import org.openqa.selenium.By;
+import org.openqa.selenium.Dimension;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.Point;
+import org.openqa.selenium.Rectangle;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.interactions.internal.Coordinates;
+import org.openqa.selenium.internal.*;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Implementation of {@link SelenideElement} which calls commands (or methods of found {@link WebElement})
+ * directly, without dynamic proxy and reflection.
+ *
+ * Behaves exactly like a dynamic proxy with {@link SelenideElementProxy}: every method is logged and retried
+ * until timeout, and commands can be overridden by {@link Commands#add(String, com.codeborne.selenide.Command)}.
+ * Custom interfaces extending {@link SelenideElement} are still implemented by dynamic proxies
+ * (see {@link ElementFinder#wrap(Class, SearchContext, By, int)}).
+ */
+class SelenideElementImpl implements SelenideElement {
+  private final WebElementSource webElementSource;
+  private final SelenideElementProxy handler;
+
+  SelenideElementImpl(WebElementSource webElementSource) {
+    this.webElementSource = webElementSource;
+    this.handler = new SelenideElementProxy(webElementSource);
+  }
+
+  @SuppressWarnings("unchecked")
+  private <T> T command(String methodName, Object[] args) {
+    try {
+      return (T) execute(methodName, args);
+    }
+    catch (RuntimeException | Error e) {
+      throw e;
+    }
+    catch (Throwable e) {
+      throw new UndeclaredThrowableException(e);
+    }
+  }
+
+  private Object execute(String methodName, Object[] args) throws Throwable {
+    return handler.invoke(this, methodName, args,
+        () -> Commands.getInstance().execute(this, webElementSource, methodName, args));
+  }
+
+  @SuppressWarnings("unchecked")
+  private <T> T webElement(String methodName, Object[] args, Function<WebElement, T> method) {
+    try {
+      return (T) handler.invoke(this, methodName, args, () -> method.apply(webElementSource.getWebElement()));
+    }
+    catch (RuntimeException | Error e) {
+      throw e;
+    }
+    catch (Throwable e) {
+      throw new UndeclaredThrowableException(e);
+    }
+  }
+
+  /**
+   * Fails the same way as reflective call of a method which found element doesn't implement
+   */
+  private static <T> T as(Class<T> type, WebElement element) {
+    if (!type.isInstance(element)) {
+      throw new IllegalArgumentException("object is not an instance of declaring class " + type.getName());
+    }
+    return type.cast(element);
+  }
+
+  @Override
+  public void followLink() {
+    command("followLink", null);
+  }
+
+  @Override
+  public SelenideElement setValue(String text) {
+    return command("setValue", new Object[]{text});
+  }
+
+  @Override
+  public SelenideElement val(String text) {
+    return command("val", new Object[]{text});
+  }
+
+  @Override
+  public SelenideElement append(String text) {
+    return command("append", new Object[]{text});
+  }
+
+  @Override
+  public SelenideElement pressEnter() {
+    return command("pressEnter", null);
+  }
+
+  @Override
+  public SelenideElement pressTab() {
+    return command("pressTab", null);
+  }
+
+  @Override
+  public SelenideElement pressEscape() {
+    return command("pressEscape", null);
+  }
+
+  @Override
+  public String getText() {
+    return command("getText", null);
+  }
+
+  @Override
+  public String text() {
+    return command("text", null);
+  }
+
+  @Override
+  public String innerText() {
+    return command("innerText", null);
+  }
+
+  @Override
+  public String innerHtml() {
+    return command("innerHtml", null);
+  }
+
+  @Override
+  public String attr(String attributeName) {
+    return command("attr", new Object[]{attributeName});
+  }
+
+  @Override
+  public String name() {
+    return command("name", null);
+  }
+
+  @Override
+  public String val() {
+    return command("val", null);
+  }
+
+  @Override
+  public String getValue() {
+    return command("getValue", null);
+  }
+
+  @Override
+  public SelenideElement selectRadio(String value) {
+    return command("selectRadio", new Object[]{value});
+  }
+
+  @Override
+  public String data(String dataAttributeName) {
+    return command("data", new Object[]{dataAttributeName});
+  }
+
+  @Override
+  public boolean exists() {
+    return this.<Boolean>command("exists", null);
+  }
+
+  @Override
+  public boolean isDisplayed() {
+    return this.<Boolean>command("isDisplayed", null);
+  }
+
+  @Override
+  public boolean is(Condition condition) {
+    return this.<Boolean>command("is", new Object[]{condition});
+  }
+
+  @Override
+  public boolean has(Condition condition) {
+    return this.<Boolean>command("has", new Object[]{condition});
+  }
+
+  @Override
+  public SelenideElement setSelected(boolean selected) {
+    return command("setSelected", new Object[]{selected});
+  }
+
+  @Override
+  public SelenideElement should(Condition... condition) {
+    return command("should", new Object[]{condition});
+  }
+
+  @Override
+  public SelenideElement shouldHave(Condition... condition) {
+    return command("shouldHave", new Object[]{condition});
+  }
+
+  @Override
+  public SelenideElement shouldBe(Condition... condition) {
+    return command("shouldBe", new Object[]{condition});
+  }
+
+  @Override
+  public SelenideElement shouldNot(Condition... condition) {
+    return command("shouldNot", new Object[]{condition});
+  }
+
+  @Override
+  public SelenideElement shouldNotHave(Condition... condition) {
+    return command("shouldNotHave", new Object[]{condition});
+  }
+
+  @Override
+  public SelenideElement shouldNotBe(Condition... condition) {
+    return command("shouldNotBe", new Object[]{condition});
+  }
+
+  @Override
+  public SelenideElement waitUntil(Condition condition, long timeoutMilliseconds) {
+    return command("waitUntil", new Object[]{condition, timeoutMilliseconds});
+  }
+
+  @Override
+  public SelenideElement waitUntil(Condition condition, long timeoutMilliseconds, long pollingIntervalMilliseconds) {
+    return command("waitUntil", new Object[]{condition, timeoutMilliseconds, pollingIntervalMilliseconds});
+  }
+
+  @Override
+  public SelenideElement waitWhile(Condition condition, long timeoutMilliseconds) {
+    return command("waitWhile", new Object[]{condition, timeoutMilliseconds});
+  }
+
+  @Override
+  public SelenideElement waitWhile(Condition condition, long timeoutMilliseconds, long pollingIntervalMilliseconds) {
+    return command("waitWhile", new Object[]{condition, timeoutMilliseconds, pollingIntervalMilliseconds});
+  }
+
+  @Override
+  public String toString() {
+    return command("toString", null);
+  }
+
+  @Override
+  public SelenideElement parent() {
+    return command("parent", null);
+  }
+
+  @Override
+  public SelenideElement closest(String tagOrClass) {
+    return command("closest", new Object[]{tagOrClass});
+  }
+
+  @Override
+  public SelenideElement find(String cssSelector) {
+    return command("find", new Object[]{cssSelector});
+  }
+
+  @Override
+  public SelenideElement find(String cssSelector, int index) {
+    return command("find", new Object[]{cssSelector, index});
+  }
+
+  @Override
+  public SelenideElement find(By selector) {
+    return command("find", new Object[]{selector});
+  }
+
+  @Override
+  public SelenideElement find(By selector, int index) {
+    return command("find", new Object[]{selector, index});
+  }
+
+  @Override
+  public SelenideElement $(String cssSelector) {
+    return command("$", new Object[]{cssSelector});
+  }
+
+  @Override
+  public SelenideElement $(String cssSelector, int index) {
+    return command("$", new Object[]{cssSelector, index});
+  }
+
+  @Override
+  public SelenideElement $(By selector) {
+    return command("$", new Object[]{selector});
+  }
+
+  @Override
+  public SelenideElement $(By selector, int index) {
+    return command("$", new Object[]{selector, index});
+  }
+
+  @Override
+  public SelenideElement $x(String xpath) {
+    return command("$x", new Object[]{xpath});
+  }
+
+  @Override
+  public SelenideElement $x(String xpath, int index) {
+    return command("$x", new Object[]{xpath, index});
+  }
+
+  @Override
+  public ElementsCollection findAll(String cssSelector) {
+    return command("findAll", new Object[]{cssSelector});
+  }
+
+  @Override
+  public ElementsCollection findAll(By selector) {
+    return command("findAll", new Object[]{selector});
+  }
+
+  @Override
+  public ElementsCollection $$(String cssSelector) {
+    return command("$$", new Object[]{cssSelector});
+  }
+
+  @Override
+  public ElementsCollection $$(By selector) {
+    return command("$$", new Object[]{selector});
+  }
+
+  @Override
+  public ElementsCollection $$x(String xpath) {
+    return command("$$x", new Object[]{xpath});
+  }
+
+  @Override
+  public File uploadFromClasspath(String... fileName) {
+    return command("uploadFromClasspath", new Object[]{fileName});
+  }
+
+  @Override
+  public File uploadFile(File... file) {
+    return command("uploadFile", new Object[]{file});
+  }
+
+  @Override
+  public void selectOption(int... index) {
+    command("selectOption", new Object[]{index});
+  }
+
+  @Override
+  public void selectOption(String... text) {
+    command("selectOption", new Object[]{text});
+  }
+
+  @Override
+  public void selectOptionContainingText(String text) {
+    command("selectOptionContainingText", new Object[]{text});
+  }
+
+  @Override
+  public void selectOptionByValue(String... value) {
+    command("selectOptionByValue", new Object[]{value});
+  }
+
+  @Override
+  public SelenideElement getSelectedOption() throws NoSuchElementException {
+    return command("getSelectedOption", null);
+  }
+
+  @Override
+  public ElementsCollection getSelectedOptions() {
+    return command("getSelectedOptions", null);
+  }
+
+  @Override
+  public String getSelectedValue() {
+    return command("getSelectedValue", null);
+  }
+
+  @Override
+  public String getSelectedText() {
+    return command("getSelectedText", null);
+  }
+
+  @Override
+  public SelenideElement scrollTo() {
+    return command("scrollTo", null);
+  }
+
+  @Override
+  public File download() throws FileNotFoundException {
+    try {
+      return (File) execute("download", null);
+    }
+    catch (FileNotFoundException | RuntimeException | Error e) {
+      throw e;
+    }
+    catch (Throwable e) {
+      throw new UndeclaredThrowableException(e);
+    }
+  }
+
+  @Override
+  public String getSearchCriteria() {
+    return command("getSearchCriteria", null);
+  }
+
+  @Override
+  public WebElement toWebElement() {
+    return command("toWebElement", null);
+  }
+
+  @Override
+  public WebElement getWrappedElement() {
+    return command("getWrappedElement", null);
+  }
+
+  @Override
+  public void click() {
+    command("click", null);
+  }
+
+  @Override
+  public void click(int offsetX, int offsetY) {
+    command("click", new Object[]{offsetX, offsetY});
+  }
+
+  @Override
+  public SelenideElement contextClick() {
+    return command("contextClick", null);
+  }
+
+  @Override
+  public SelenideElement doubleClick() {
+    return command("doubleClick", null);
+  }
+
+  @Override
+  public SelenideElement hover() {
+    return command("hover", null);
+  }
+
+  @Override
+  public SelenideElement dragAndDropTo(String targetCssSelector) {
+    return command("dragAndDropTo", new Object[]{targetCssSelector});
+  }
+
+  @Override
+  public SelenideElement dragAndDropTo(WebElement target) {
+    return command("dragAndDropTo", new Object[]{target});
+  }
+
+  @Override
+  public boolean isImage() {
+    return this.<Boolean>command("isImage", null);
+  }
+
+  @Override
+  public File screenshot() {
+    return command("screenshot", null);
+  }
+
+  @Override
+  public BufferedImage screenshotAsImage() {
+    return command("screenshotAsImage", null);
+  }
+
+  @Override
+  public SelenideElement shouldMatchBaseline(String name, double tolerance) {
+    return command("shouldMatchBaseline", new Object[]{name, tolerance});
+  }
+
+  @Override
+  public void submit() {
+    webElement("submit", null, element -> {
+      element.submit();
+      return null;
+    });
+  }
+
+  @Override
+  public void sendKeys(CharSequence... keysToSend) {
+    webElement("sendKeys", new Object[]{keysToSend}, element -> {
+      element.sendKeys(keysToSend);
+      return null;
+    });
+  }
+
+  @Override
+  public void clear() {
+    webElement("clear", null, element -> {
+      element.clear();
+      return null;
+    });
+  }
+
+  @Override
+  public String getTagName() {
+    return webElement("getTagName", null, WebElement::getTagName);
+  }
+
+  @Override
+  public String getAttribute(String name) {
+    return webElement("getAttribute", new Object[]{name}, element -> element.getAttribute(name));
+  }
+
+  @Override
+  public boolean isSelected() {
+    return webElement("isSelected", null, WebElement::isSelected);
+  }
+
+  @Override
+  public boolean isEnabled() {
+    return webElement("isEnabled", null, WebElement::isEnabled);
+  }
+
+  @Override
+  public List<WebElement> findElements(By by) {
+    return webElement("findElements", new Object[]{by}, element -> element.findElements(by));
+  }
+
+  @Override
+  public WebElement findElement(By by) {
+    return webElement("findElement", new Object[]{by}, element -> element.findElement(by));
+  }
+
+  @Override
+  public Point getLocation() {
+    return webElement("getLocation", null, WebElement::getLocation);
+  }
+
+  @Override
+  public Dimension getSize() {
+    return webElement("getSize", null, WebElement::getSize);
+  }
+
+  @Override
+  public Rectangle getRect() {
+    return webElement("getRect", null, WebElement::getRect);
+  }
+
+  @Override
+  public String getCssValue(String propertyName) {
+    return webElement("getCssValue", new Object[]{propertyName}, element -> element.getCssValue(propertyName));
+  }
+
+  @Override
+  public <X> X getScreenshotAs(OutputType<X> target) throws WebDriverException {
+    return webElement("getScreenshotAs", new Object[]{target}, element -> element.getScreenshotAs(target));
+  }
+
+  @Override
+  public WebElement findElementByLinkText(String using) {
+    return webElement("findElementByLinkText", new Object[]{using},
+        element -> as(FindsByLinkText.class, element).findElementByLinkText(using));
+  }
+
+  @Override
+  public List<WebElement> findElementsByLinkText(String using) {
+    return webElement("findElementsByLinkText", new Object[]{using},
+        element -> as(FindsByLinkText.class, element).findElementsByLinkText(using));
+  }
+
+  @Override
+  public WebElement findElementByPartialLinkText(String using) {
+    return webElement("findElementByPartialLinkText", new Object[]{using},
+        element -> as(FindsByLinkText.class, element).findElementByPartialLinkText(using));
+  }
+
+  @Override
+  public List<WebElement> findElementsByPartialLinkText(String using) {
+    return webElement("findElementsByPartialLinkText", new Object[]{using},
+        element -> as(FindsByLinkText.class, element).findElementsByPartialLinkText(using));
+  }
+
+  @Override
+  public WebElement findElementById(String using) {
+    return webElement("findElementById", new Object[]{using},
+        element -> as(FindsById.class, element).findElementById(using));
+  }
+
+  @Override
+  public List<WebElement> findElementsById(String using) {
+    return webElement("findElementsById", new Object[]{using},
+        element -> as(FindsById.class, element).findElementsById(using));
+  }
+
+  @Override
+  public WebElement findElementByName(String using) {
+    return webElement("findElementByName", new Object[]{using},
+        element -> as(FindsByName.class, element).findElementByName(using));
+  }
+
+  @Override
+  public List<WebElement> findElementsByName(String using) {
+    return webElement("findElementsByName", new Object[]{using},
+        element -> as(FindsByName.class, element).findElementsByName(using));
+  }
+
+  @Override
+  public WebElement findElementByTagName(String using) {
+    return webElement("findElementByTagName", new Object[]{using},
+        element -> as(FindsByTagName.class, element).findElementByTagName(using));
+  }
+
+  @Override
+  public List<WebElement> findElementsByTagName(String using) {
+    return webElement("findElementsByTagName", new Object[]{using},
+        element -> as(FindsByTagName.class, element).findElementsByTagName(using));
+  }
+
+  @Override
+  public WebElement findElementByClassName(String using) {
+    return webElement("findElementByClassName", new Object[]{using},
+        element -> as(FindsByClassName.class, element).findElementByClassName(using));
+  }
+
+  @Override
+  public List<WebElement> findElementsByClassName(String using) {
+    return webElement("findElementsByClassName", new Object[]{using},
+        element -> as(FindsByClassName.class, element).findElementsByClassName(using));
+  }
+
+  @Override
+  public WebElement findElementByCssSelector(String using) {
+    return webElement("findElementByCssSelector", new Object[]{using},
+        element -> as(FindsByCssSelector.class, element).findElementByCssSelector(using));
+  }
+
+  @Override
+  public List<WebElement> findElementsByCssSelector(String using) {
+    return webElement("findElementsByCssSelector", new Object[]{using},
+        element -> as(FindsByCssSelector.class, element).findElementsByCssSelector(using));
+  }
+
+  @Override
+  public WebElement findElementByXPath(String using) {
+    return webElement("findElementByXPath", new Object[]{using},
+        element -> as(FindsByXPath.class, element).findElementByXPath(using));
+  }
+
+  @Override
+  public List<WebElement> findElementsByXPath(String using) {
+    return webElement("findElementsByXPath", new Object[]{using},
+        element -> as(FindsByXPath.class, element).findElementsByXPath(using));
+  }
+
+  @Override
+  public WebDriver getWrappedDriver() {
+    return webElement("getWrappedDriver", null, element -> as(WrapsDriver.class, element).getWrappedDriver());
+  }
+
+  @Override
+  public Coordinates getCoordinates() {
+    return webElement("getCoordinates", null, element -> as(Locatable.class, element).getCoordinates());
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    return webElement("equals", new Object[]{obj}, element -> element.equals(obj));
+  }
+
+  @Override
+  public int hashCode() {
+    return webElement("hashCode", null, Object::hashCode);
+  }
+}
@@ -2,6 +2,7 @@ package com.codeborne.selenide.impl;
 
 import com.codeborne.selenide.SelenideElement;
 import com.codeborne.selenide.commands.Commands;
+import com.codeborne.selenide.ex.ImageMismatch;
 import com.codeborne.selenide.ex.InvalidStateException;
 import com.codeborne.selenide.ex.UIAssertionError;
 import com.codeborne.selenide.logevents.SelenideLog;
@@ -19,7 +20,6 @@ import java.util.Set;
 import static com.codeborne.selenide.Condition.exist;
 import static com.codeborne.selenide.Configuration.AssertionMode.SOFT;
 import static com.codeborne.selenide.Configuration.*;
-import static com.codeborne.selenide.Selenide.sleep;
 import static com.codeborne.selenide.logevents.ErrorsCollector.validateAssertionMode;
 import static com.codeborne.selenide.logevents.LogEvent.EventStatus.PASS;
 import static java.lang.System.currentTimeMillis;
@@ -40,7 +40,8 @@ class SelenideElementProxy implements InvocationHandler {
       "shouldNotHave",
       "shouldNotBe",
       "waitUntil",
-      "waitWhile"
+      "waitWhile",
+      "shouldMatchBaseline"
   ));
 
   private final WebElementSource webElementSource;
@@ -51,22 +52,32 @@ class SelenideElementProxy implements InvocationHandler {
 
   @Override
   public Object invoke(Object proxy, Method method, Object... args) throws Throwable {
-    if (methodsToSkipLogging.contains(method.getName()))
-      return Commands.getInstance().execute(proxy, webElementSource, method.getName(), args);
+    Call call = SelenideElement.class.isAssignableFrom(method.getDeclaringClass()) ?
+        () -> Commands.getInstance().execute(proxy, webElementSource, method, args) :
+        () -> method.invoke(webElementSource.getWebElement(), args);
+    return invoke(proxy, method.getName(), args, call);
+  }
+
+  /**
+   * Logs and retries (until timeout) given call of method {@code methodName} of element {@code proxy}
+   */
+  Object invoke(Object proxy, String methodName, Object[] args, Call call) throws Throwable {
+    if (methodsToSkipLogging.contains(methodName))
+      return call.run();
 
     validateAssertionMode();
 
-    long timeoutMs = getTimeoutMs(method, args);
-    long pollingIntervalMs = getPollingIntervalMs(method, args);
-    SelenideLog log = SelenideLogger.beginStep(webElementSource.getSearchCriteria(), method.getName(), args);
+    long timeoutMs = getTimeoutMs(methodName, args);
+    long pollingIntervalMs = getPollingIntervalMs(methodName, args);
+    SelenideLog log = SelenideLogger.beginStep(webElementSource.getSearchCriteria(), methodName, args);
     try {
-      Object result = dispatchAndRetry(timeoutMs, pollingIntervalMs, proxy, method, args);
+      Object result = dispatchAndRetry(timeoutMs, pollingIntervalMs, call);
       SelenideLogger.commitStep(log, PASS);
       return result;
     }
     catch (Error error) {
       SelenideLogger.commitStep(log, error);
-      if (assertionMode == SOFT && methodsForSoftAssertion.contains(method.getName()))
+      if (assertionMode == SOFT && methodsForSoftAssertion.contains(methodName))
         return proxy;
       else
         throw UIAssertionError.wrap(error, timeoutMs);
@@ -77,17 +88,12 @@ class SelenideElementProxy implements InvocationHandler {
     }
   }
 
-  protected Object dispatchAndRetry(long timeoutMs, long pollingIntervalMs, 
-                                    Object proxy, Method method, Object[] args) throws Throwable, Error {
+  protected Object dispatchAndRetry(long timeoutMs, long pollingIntervalMs, Call call) throws Throwable, Error {
     final long startTime = currentTimeMillis();
     Throwable lastError;
     do {
       try {
-        if (SelenideElement.class.isAssignableFrom(method.getDeclaringClass())) {
-          return Commands.getInstance().execute(proxy, webElementSource, method.getName(), args);
-        }
-
-        return method.invoke(webElementSource.getWebElement(), args);
+        return call.run();
       }
       catch (InvocationTargetException e) {
         lastError = e.getTargetException();
@@ -102,7 +108,8 @@ class SelenideElementProxy implements InvocationHandler {
       else if (!shouldRetryAfterError(lastError)) {
         throw lastError;
       }
-      sleep(pollingIntervalMs);
+      ElementCache.instance.invalidate();
+      DomChangesWaiter.instance.waitForChanges(pollingIntervalMs, timeoutMs - (currentTimeMillis() - startTime));
     }
     while (currentTimeMillis() - startTime <= timeoutMs);
 
@@ -122,21 +129,29 @@ class SelenideElementProxy implements InvocationHandler {
     if (e instanceof FileNotFoundException) return false;
     if (e instanceof IllegalArgumentException) return false;
     if (e instanceof ReflectiveOperationException) return false;
+    if (e instanceof ImageMismatch) return false;
     
     return e instanceof Exception || e instanceof AssertionError;
   }
 
-  private long getTimeoutMs(Method method, Object[] args) {
-    return isWaitCommand(method) ? 
+  private long getTimeoutMs(String methodName, Object[] args) {
+    return isWaitCommand(methodName) ? 
         args.length == 3 ? (Long) args[args.length - 2] : (Long) args[args.length - 1] : 
         timeout;
   }
 
-  private long getPollingIntervalMs(Method method, Object[] args) {
-    return isWaitCommand(method) && args.length == 3 ? (Long) args[args.length - 1] : pollingInterval;
+  private long getPollingIntervalMs(String methodName, Object[] args) {
+    return isWaitCommand(methodName) && args.length == 3 ? (Long) args[args.length - 1] : pollingInterval;
+  }
+
+  private boolean isWaitCommand(String methodName) {
+    return "waitUntil".equals(methodName) || "waitWhile".equals(methodName);
   }
 
-  private boolean isWaitCommand(Method method) {
-    return "waitUntil".equals(method.getName()) || "waitWhile".equals(method.getName());
+  /**
+   * One attempt to execute a method of element
+   */
+  interface Call {
+    Object run() throws Throwable;
   }
 }
@@ -5,11 +5,14 @@ import org.openqa.selenium.Proxy;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.support.events.WebDriverEventListener;
 
+import java.io.File;
+
 public interface WebDriverContainer {
   void addListener(WebDriverEventListener listener);
   WebDriver setWebDriver(WebDriver webDriver);
   WebDriver getWebDriver();
   SelenideProxyServer getProxyServer();
+  File getDownloadsFolder();
   void setProxy(Proxy webProxy);
   WebDriver getAndCheckWebDriver();
   void closeWebDriver();
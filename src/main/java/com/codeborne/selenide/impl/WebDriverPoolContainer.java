@@ -0,0 +1,266 @@
+package com.codeborne.selenide.impl;
+
+import com.codeborne.selenide.proxy.SelenideProxyServer;
+import org.apache.commons.io.FileUtils;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+import static com.codeborne.selenide.Configuration.closeBrowserTimeoutMs;
+import static com.codeborne.selenide.Configuration.holdBrowserOpen;
+import static com.codeborne.selenide.Configuration.openBrowserTimeoutMs;
+import static com.codeborne.selenide.impl.Describe.describe;
+import static java.lang.Thread.currentThread;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.logging.Level.FINE;
+import static java.util.logging.Level.SEVERE;
+
+/**
+ * Keeps a bounded pool of browsers which are launched in background before tests need them.
+ *
+ * When a thread needs a browser, it takes one from the pool (waiting if all browsers are busy).
+ * When a thread closes its browser, the browser is cleaned (cookies, local storage, extra windows)
+ * and returned to the pool instead of being closed.
+ *
+ * State of browser's proxy server (request rules, intercepted downloads, traffic summary) is reset as well,
+ * and downloads folder of browser (with fileDownload=FOLDER) is emptied.
+ *
+ * NB! Only cookies and local storage of the currently opened site are deleted.
+ *
+ * @see com.codeborne.selenide.Configuration#browserPoolSize
+ */
+public class WebDriverPoolContainer extends WebDriverThreadLocalContainer {
+  private static final Logger log = Logger.getLogger(WebDriverPoolContainer.class.getName());
+
+  private final int poolSize;
+  private final AtomicInteger launched = new AtomicInteger();
+  private final BlockingQueue<PooledBrowser> idle = new LinkedBlockingQueue<>();
+  private final Map<WebDriver, PooledBrowser> leased = new ConcurrentHashMap<>();
+  private final AtomicBoolean started = new AtomicBoolean();
+  private final AtomicBoolean closed = new AtomicBoolean();
+  private volatile RuntimeException lastLaunchError;
+  private ExecutorService launcher;
+
+  public WebDriverPoolContainer(int poolSize) {
+    if (poolSize < 1) {
+      throw new IllegalArgumentException("Pool size should be positive, but was: " + poolSize);
+    }
+    this.poolSize = poolSize;
+  }
+
+  @Override
+  protected WebDriver createDriver() {
+    warmUp();
+
+    PooledBrowser browser = lease();
+    leased.put(browser.webdriver, browser);
+    if (browser.proxyServer != null) {
+      THREAD_PROXY_SERVER.put(currentThread().getId(), browser.proxyServer);
+    }
+    if (browser.downloadsFolder != null) {
+      THREAD_DOWNLOADS_FOLDER.put(currentThread().getId(), browser.downloadsFolder);
+    }
+
+    log.info("Take webdriver from pool in current thread " + currentThread().getId() + ": " +
+        describe(browser.webdriver) + " -> " + browser.webdriver);
+
+    return markForAutoClose(browser.webdriver);
+  }
+
+  private PooledBrowser lease() {
+    try {
+      PooledBrowser browser = idle.poll(openBrowserTimeoutMs, MILLISECONDS);
+      if (browser == null) {
+        throw new WebDriverException("No browser available in pool of " + poolSize +
+            " browsers in " + openBrowserTimeoutMs + " ms", lastLaunchError);
+      }
+      return browser;
+    }
+    catch (InterruptedException e) {
+      currentThread().interrupt();
+      throw new WebDriverException("Interrupted while waiting for a browser from pool", e);
+    }
+  }
+
+  /**
+   * Launch browsers in background until pool is full
+   */
+  protected void warmUp() {
+    startLauncher();
+
+    int count;
+    while ((count = launched.get()) < poolSize) {
+      if (launched.compareAndSet(count, count + 1)) {
+        launcher.submit(this::launchInBackground);
+      }
+    }
+  }
+
+  private synchronized void startLauncher() {
+    if (started.getAndSet(true)) return;
+
+    launcher = Executors.newFixedThreadPool(poolSize, runnable -> {
+      Thread thread = new Thread(runnable, "Webdrivers pool launcher");
+      thread.setDaemon(true);
+      return thread;
+    });
+    Runtime.getRuntime().addShutdownHook(new Thread(this::closePool, "Webdrivers pool cleanup"));
+  }
+
+  private void launchInBackground() {
+    File downloadsFolder = null;
+    try {
+      SelenideProxyServer proxyServer = createProxyServer();
+      downloadsFolder = createDownloadsFolder();
+      WebDriver webdriver = addListeners(createDriver(proxyServer, downloadsFolder));
+      log.info("Launched webdriver for pool: " + describe(webdriver) + " -> " + webdriver);
+      release(new PooledBrowser(webdriver, proxyServer, downloadsFolder));
+    }
+    catch (RuntimeException e) {
+      log.log(SEVERE, "Failed to launch webdriver for pool", e);
+      deleteDownloadsFolder(downloadsFolder);
+      lastLaunchError = e;
+      launched.decrementAndGet();
+    }
+  }
+
+  /**
+   * Webdriver factory reads downloads folder of current (launcher) thread
+   */
+  private WebDriver createDriver(SelenideProxyServer proxyServer, File downloadsFolder) {
+    if (downloadsFolder == null) {
+      return createDriver(proxyServer);
+    }
+    THREAD_DOWNLOADS_FOLDER.put(currentThread().getId(), downloadsFolder);
+    try {
+      return createDriver(proxyServer);
+    }
+    finally {
+      THREAD_DOWNLOADS_FOLDER.remove(currentThread().getId());
+    }
+  }
+
+  private void release(PooledBrowser browser) {
+    idle.offer(browser);
+    if (closed.get()) {
+      closeIdleBrowsers();
+    }
+  }
+
+  @Override
+  protected Future<?> closeWebDriverAsync(long threadId) {
+    WebDriver webdriver = THREAD_WEB_DRIVER.get(threadId);
+    PooledBrowser browser = webdriver == null ? null : leased.remove(webdriver);
+    if (browser == null) {
+      return super.closeWebDriverAsync(threadId);
+    }
+
+    if (!closed.get() && !holdBrowserOpen && resetBrowser(webdriver)) {
+      ALL_WEB_DRIVERS_THREADS.remove(threadId);
+      THREAD_WEB_DRIVER.remove(threadId);
+      THREAD_PROXY_SERVER.remove(threadId);
+      THREAD_DOWNLOADS_FOLDER.remove(threadId);
+      if (browser.proxyServer != null) {
+        browser.proxyServer.reset();
+      }
+      if (browser.downloadsFolder != null) {
+        cleanDownloadsFolder(browser.downloadsFolder);
+      }
+      log.info("Return webdriver to pool: " + threadId + " -> " + webdriver);
+      release(browser);
+      return null;
+    }
+
+    launched.decrementAndGet();
+    return super.closeWebDriverAsync(threadId);
+  }
+
+  /**
+   * Clean browser state before giving it to another thread
+   *
+   * @return false if browser cannot be reused
+   */
+  protected boolean resetBrowser(WebDriver webdriver) {
+    try {
+      List<String> windows = new ArrayList<>(webdriver.getWindowHandles());
+      for (int i = windows.size() - 1; i > 0; i--) {
+        webdriver.switchTo().window(windows.get(i));
+        webdriver.close();
+      }
+      webdriver.switchTo().window(windows.get(0));
+      webdriver.manage().deleteAllCookies();
+      if (webdriver instanceof JavascriptExecutor) {
+        ((JavascriptExecutor) webdriver).executeScript(
+            "try { window.localStorage.clear(); window.sessionStorage.clear(); } catch (e) {}");
+      }
+      webdriver.navigate().to("about:blank");
+      return true;
+    }
+    catch (WebDriverException | IndexOutOfBoundsException e) {
+      log.log(FINE, "Failed to reset webdriver " + webdriver, e);
+      return false;
+    }
+  }
+
+  private void cleanDownloadsFolder(File downloadsFolder) {
+    try {
+      FileUtils.cleanDirectory(downloadsFolder);
+    }
+    catch (IOException | IllegalArgumentException e) {
+      log.log(FINE, "Failed to clean downloads folder " + downloadsFolder, e);
+    }
+  }
+
+  protected void closePool() {
+    closed.set(true);
+    if (launcher != null) {
+      launcher.shutdownNow();
+    }
+    closeIdleBrowsers();
+  }
+
+  private void closeIdleBrowsers() {
+    List<Future<?>> closings = new ArrayList<>();
+    PooledBrowser browser;
+    while ((browser = idle.poll()) != null) {
+      log.info("Close webdriver from pool: " + browser.webdriver);
+      closings.add(BrowserCloser.instance.close(browser.webdriver, browser.proxyServer));
+      deleteDownloadsFolder(browser.downloadsFolder);
+    }
+    BrowserCloser.instance.awaitAll(closings, closeBrowserTimeoutMs);
+  }
+
+  /**
+   * @return number of launched browsers which are not used by any thread at the moment
+   */
+  public int getIdleCount() {
+    return idle.size();
+  }
+
+  private static class PooledBrowser {
+    private final WebDriver webdriver;
+    private final SelenideProxyServer proxyServer;
+    private final File downloadsFolder;
+
+    private PooledBrowser(WebDriver webdriver, SelenideProxyServer proxyServer, File downloadsFolder) {
+      this.webdriver = webdriver;
+      this.proxyServer = proxyServer;
+      this.downloadsFolder = downloadsFolder;
+    }
+  }
+}
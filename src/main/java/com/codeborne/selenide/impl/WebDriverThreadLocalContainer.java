@@ -3,21 +3,29 @@ package com.codeborne.selenide.impl;
 import com.codeborne.selenide.Configuration;
 import com.codeborne.selenide.proxy.SelenideProxyServer;
 import com.codeborne.selenide.webdriver.WebDriverFactory;
+import org.apache.commons.io.FileUtils;
 import org.openqa.selenium.*;
 import org.openqa.selenium.internal.Killable;
 import org.openqa.selenium.remote.UnreachableBrowserException;
 import org.openqa.selenium.support.events.EventFiringWebDriver;
 import org.openqa.selenium.support.events.WebDriverEventListener;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.ref.WeakReference;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.logging.Logger;
 
+import static com.codeborne.selenide.Configuration.FileDownloadMode.FOLDER;
 import static com.codeborne.selenide.Configuration.FileDownloadMode.PROXY;
 import static com.codeborne.selenide.Configuration.*;
 import static com.codeborne.selenide.impl.Describe.describe;
@@ -31,20 +39,36 @@ public class WebDriverThreadLocalContainer implements WebDriverContainer {
   protected WebDriverFactory factory = new WebDriverFactory();
 
   protected List<WebDriverEventListener> listeners = new ArrayList<>();
-  protected Collection<Thread> ALL_WEB_DRIVERS_THREADS = new ConcurrentLinkedQueue<>();
+  /**
+   * Threads which have opened webdrivers. When such a thread ends, its webdriver is closed by {@link DeadThreadWatcher}.
+   */
+  protected Map<Long, ThreadReference> ALL_WEB_DRIVERS_THREADS = new ConcurrentHashMap<>(4);
+  protected Map<Thread, DeadThreadWatcher> DEAD_THREAD_WATCHERS = new ConcurrentHashMap<>(4);
   protected Map<Long, WebDriver> THREAD_WEB_DRIVER = new ConcurrentHashMap<>(4);
   protected Map<Long, SelenideProxyServer> THREAD_PROXY_SERVER = new ConcurrentHashMap<>(4);
+  protected Map<Long, File> THREAD_DOWNLOADS_FOLDER = new ConcurrentHashMap<>(4);
   protected Proxy proxy;
 
   protected final AtomicBoolean cleanupThreadStarted = new AtomicBoolean(false);
 
-  protected void closeUnusedWebdrivers() {
-    for (Thread thread : ALL_WEB_DRIVERS_THREADS) {
-      if (!thread.isAlive()) {
-        log.info("Thread " + thread.getId() + " is dead. Let's close webdriver " + THREAD_WEB_DRIVER.get(thread.getId()));
-        closeWebDriver(thread);
-      }
+  protected void closeWebDriver(ThreadReference thread) {
+    // Thread id could be reused by a new thread which has its own webdriver
+    if (ALL_WEB_DRIVERS_THREADS.get(thread.threadId) == thread) {
+      log.info("Thread " + thread.threadId + " is dead. Let's close webdriver " + THREAD_WEB_DRIVER.get(thread.threadId));
+      closeWebDriverAsync(thread.threadId);
+    }
+  }
+
+  /**
+   * @return webdriver bound to current thread, or null if there is no one
+   */
+  protected WebDriver currentThreadWebDriver() {
+    Thread thread = currentThread();
+    ThreadReference owner = ALL_WEB_DRIVERS_THREADS.get(thread.getId());
+    if (owner != null && owner.get() != thread) {
+      closeWebDriver(owner);
     }
+    return THREAD_WEB_DRIVER.get(thread.getId());
   }
 
   @Override
@@ -84,12 +108,12 @@ public class WebDriverThreadLocalContainer implements WebDriverContainer {
    */
   @Override
   public boolean hasWebDriverStarted() {
-    return THREAD_WEB_DRIVER.containsKey(currentThread().getId());
+    return currentThreadWebDriver() != null;
   }
 
   @Override
   public WebDriver getWebDriver() {
-    WebDriver webDriver = THREAD_WEB_DRIVER.get(currentThread().getId());
+    WebDriver webDriver = currentThreadWebDriver();
     if (webDriver != null) {
       return webDriver;
     }
@@ -100,7 +124,7 @@ public class WebDriverThreadLocalContainer implements WebDriverContainer {
 
   @Override
   public WebDriver getAndCheckWebDriver() {
-    WebDriver webDriver = THREAD_WEB_DRIVER.get(currentThread().getId());
+    WebDriver webDriver = currentThreadWebDriver();
     if (webDriver != null) {
       if (!reopenBrowserOnFail || isBrowserStillOpen(webDriver)) {
         return webDriver;
@@ -118,56 +142,54 @@ public class WebDriverThreadLocalContainer implements WebDriverContainer {
     return THREAD_PROXY_SERVER.get(currentThread().getId());
   }
 
+  @Override
+  public File getDownloadsFolder() {
+    return THREAD_DOWNLOADS_FOLDER.get(currentThread().getId());
+  }
+
   @Override
   public void closeWebDriver() {
     closeWebDriver(currentThread());
   }
 
   protected void closeWebDriver(Thread thread) {
-    ALL_WEB_DRIVERS_THREADS.remove(thread);
-    WebDriver webdriver = THREAD_WEB_DRIVER.remove(thread.getId());
-    SelenideProxyServer proxy = THREAD_PROXY_SERVER.remove(thread.getId());
-    
-    if (webdriver != null && !holdBrowserOpen) {
-      log.info("Close webdriver: " + thread.getId() + " -> " + webdriver);
-      if (proxy != null) {
-        log.info("Close proxy server: " + thread.getId() + " -> " + proxy);
-      }
-
-      long start = System.currentTimeMillis();
+    Future<?> closing = closeWebDriverAsync(thread.getId());
+    if (closing != null && !closeBrowserAsync) {
+      BrowserCloser.instance.await(closing, closeBrowserTimeoutMs);
+    }
+  }
 
-      Thread t = new Thread(new CloseBrowser(webdriver, proxy));
-      t.setDaemon(true);
-      t.start();
+  /**
+   * Start closing webdriver and proxy server bound to given thread
+   *
+   * @return null if there is nothing to close
+   */
+  protected Future<?> closeWebDriverAsync(long threadId) {
+    ALL_WEB_DRIVERS_THREADS.remove(threadId);
+    WebDriver webdriver = THREAD_WEB_DRIVER.remove(threadId);
+    SelenideProxyServer proxy = THREAD_PROXY_SERVER.remove(threadId);
+    File downloadsFolder = THREAD_DOWNLOADS_FOLDER.remove(threadId);
+
+    if (holdBrowserOpen || (webdriver == null && proxy == null)) {
+      return null;
+    }
 
-      try {
-        t.join(closeBrowserTimeoutMs);
-      } catch (InterruptedException e) {
-        log.log(FINE, "Failed to close webdriver in " + closeBrowserTimeoutMs + " milliseconds", e);
-      }
+    deleteDownloadsFolder(downloadsFolder);
 
-      long duration = System.currentTimeMillis() - start;
-      if (duration >= closeBrowserTimeoutMs) {
-        log.severe("Failed to close webdriver in " + closeBrowserTimeoutMs + " milliseconds");
-      }
-      else if (duration > 200) {
-        log.info("Closed webdriver in " + duration + " ms");
-      }
-      else {
-        log.fine("Closed webdriver in " + duration + " ms");
-      }
+    if (webdriver != null) {
+      log.info("Close webdriver: " + threadId + " -> " + webdriver);
     }
-    else if (proxy != null && !holdBrowserOpen) {
-      log.info("Close proxy server: " + thread.getId() + " -> " + proxy);
-      proxy.shutdown();
+    if (proxy != null) {
+      log.info("Close proxy server: " + threadId + " -> " + proxy);
     }
+    return BrowserCloser.instance.close(webdriver, proxy);
   }
 
-  private static class CloseBrowser implements Runnable {
+  protected static class CloseBrowser implements Runnable {
     private final WebDriver webdriver;
     private final SelenideProxyServer proxy;
 
-    private CloseBrowser(WebDriver webdriver, SelenideProxyServer proxy) {
+    protected CloseBrowser(WebDriver webdriver, SelenideProxyServer proxy) {
       this.webdriver = webdriver;
       this.proxy = proxy;
     }
@@ -230,16 +252,16 @@ public class WebDriverThreadLocalContainer implements WebDriverContainer {
   }
 
   protected WebDriver createDriver() {
-    Proxy userProvidedProxy = proxy;
-    
-    if (Configuration.fileDownload == PROXY) {
-      SelenideProxyServer selenideProxyServer = new SelenideProxyServer(proxy);
-      selenideProxyServer.start();
+    SelenideProxyServer selenideProxyServer = createProxyServer();
+    if (selenideProxyServer != null) {
       THREAD_PROXY_SERVER.put(currentThread().getId(), selenideProxyServer);
-      userProvidedProxy = selenideProxyServer.createSeleniumProxy();
+    }
+    File downloadsFolder = createDownloadsFolder();
+    if (downloadsFolder != null) {
+      THREAD_DOWNLOADS_FOLDER.put(currentThread().getId(), downloadsFolder);
     }
 
-    WebDriver webdriver = factory.createWebDriver(userProvidedProxy);
+    WebDriver webdriver = createDriver(selenideProxyServer);
 
     log.info("Create webdriver in current thread " + currentThread().getId() + ": " +
         describe(webdriver) + " -> " + webdriver);
@@ -247,6 +269,52 @@ public class WebDriverThreadLocalContainer implements WebDriverContainer {
     return markForAutoClose(addListeners(webdriver));
   }
 
+  /**
+   * @return started proxy server if files are downloaded via proxy, or null otherwise
+   */
+  protected SelenideProxyServer createProxyServer() {
+    if (Configuration.fileDownload != PROXY) {
+      return null;
+    }
+    SelenideProxyServer selenideProxyServer = new SelenideProxyServer(proxy);
+    selenideProxyServer.start();
+    return selenideProxyServer;
+  }
+
+  /**
+   * @return new empty folder for files downloaded by browser if files are downloaded to folder
+   * and browser can be configured to use it, or null otherwise
+   */
+  protected File createDownloadsFolder() {
+    if (Configuration.fileDownload != FOLDER) {
+      return null;
+    }
+    if (!factory.canDownloadToFolder()) {
+      log.warning("Browser " + browser + (remote == null ? "" : " (remote)") +
+          " cannot download files to folder - files will be downloaded via http get");
+      return null;
+    }
+    try {
+      Path parent = Files.createDirectories(Paths.get(Configuration.downloadsFolder));
+      return Files.createTempDirectory(parent, "session-").toFile().getAbsoluteFile();
+    }
+    catch (IOException e) {
+      throw new UncheckedIOException("Failed to create downloads folder in " + Configuration.downloadsFolder, e);
+    }
+  }
+
+  protected void deleteDownloadsFolder(File downloadsFolder) {
+    if (downloadsFolder != null) {
+      log.info("Delete downloads folder: " + downloadsFolder);
+      FileUtils.deleteQuietly(downloadsFolder);
+    }
+  }
+
+  protected WebDriver createDriver(SelenideProxyServer selenideProxyServer) {
+    Proxy userProvidedProxy = selenideProxyServer == null ? proxy : selenideProxyServer.createSeleniumProxy();
+    return factory.createWebDriver(userProvidedProxy);
+  }
+
   protected WebDriver addListeners(WebDriver webdriver) {
     if (listeners.isEmpty()) {
       return webdriver;
@@ -261,49 +329,88 @@ public class WebDriverThreadLocalContainer implements WebDriverContainer {
   }
 
   protected WebDriver markForAutoClose(WebDriver webDriver) {
-    ALL_WEB_DRIVERS_THREADS.add(currentThread());
+    Thread thread = currentThread();
+    ALL_WEB_DRIVERS_THREADS.put(thread.getId(), new ThreadReference(thread));
+    DEAD_THREAD_WATCHERS.computeIfAbsent(thread, owner -> {
+      DeadThreadWatcher watcher = new DeadThreadWatcher(owner);
+      watcher.start();
+      return watcher;
+    });
 
     if (!cleanupThreadStarted.get()) {
       synchronized (this) {
         if (!cleanupThreadStarted.get()) {
-          new UnusedWebdriversCleanupThread().start();
+          Runtime.getRuntime().addShutdownHook(new WebdriversFinalCleanupThread());
           cleanupThreadStarted.set(true);
         }
       }
     }
-    Runtime.getRuntime().addShutdownHook(new WebdriversFinalCleanupThread(currentThread()));
     return webDriver;
   }
 
+  /**
+   * Closes all webdrivers in parallel at JVM exit
+   */
   protected class WebdriversFinalCleanupThread extends Thread {
-    private final Thread thread;
-
-    public WebdriversFinalCleanupThread(Thread thread) {
-      this.thread = thread;
+    public WebdriversFinalCleanupThread() {
+      setName("Webdrivers final cleanup");
     }
 
     @Override
     public void run() {
-      closeWebDriver(thread);
+      List<Future<?>> closings = new ArrayList<>();
+      for (Long threadId : ALL_WEB_DRIVERS_THREADS.keySet()) {
+        Future<?> closing = closeWebDriverAsync(threadId);
+        if (closing != null) {
+          closings.add(closing);
+        }
+      }
+      BrowserCloser.instance.awaitAll(closings, closeBrowserTimeoutMs);
     }
   }
 
-  protected class UnusedWebdriversCleanupThread extends Thread {
-    public UnusedWebdriversCleanupThread() {
+  /**
+   * Thread which has opened webdriver. Thread id could be reused by a new thread, so the thread itself is kept
+   * (weakly, to not hold a finished thread in memory).
+   */
+  protected static class ThreadReference extends WeakReference<Thread> {
+    protected final long threadId;
+
+    protected ThreadReference(Thread thread) {
+      super(thread);
+      this.threadId = thread.getId();
+    }
+  }
+
+  /**
+   * Waits for the end of given thread (without polling) and closes its webdriver.
+   * Every thread which has opened webdriver gets one watcher, no matter how many times it reopens webdriver.
+   */
+  protected class DeadThreadWatcher extends Thread {
+    private final Thread owner;
+
+    protected DeadThreadWatcher(Thread owner) {
+      this.owner = owner;
       setDaemon(true);
-      setName("Webdrivers killer thread");
+      setName("Webdriver closer of thread " + owner.getId());
     }
 
     @Override
     public void run() {
-      while (true) {
-        closeUnusedWebdrivers();
-        try {
-          Thread.sleep(100);
-        } catch (InterruptedException e) {
-          Thread.currentThread().interrupt();
-          break;
-        }
+      try {
+        owner.join();
+      }
+      catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+      finally {
+        DEAD_THREAD_WATCHERS.remove(owner);
+      }
+
+      ThreadReference thread = ALL_WEB_DRIVERS_THREADS.get(owner.getId());
+      if (thread != null && thread.get() == owner) {
+        closeWebDriver(thread);
       }
     }
   }
@@ -4,7 +4,6 @@ import org.apache.commons.io.IOUtils;
 import org.openqa.selenium.By;
 import org.openqa.selenium.By.ByCssSelector;
 import org.openqa.selenium.SearchContext;
-import org.openqa.selenium.WebDriverException;
 import org.openqa.selenium.WebElement;
 
 import java.io.IOException;
@@ -20,7 +19,7 @@ import static java.lang.Thread.currentThread;
  */
 public class WebElementSelector {
   public static WebElementSelector instance = new WebElementSelector();
-  
+
   protected String sizzleSource;
 
   public WebElement findElement(SearchContext context, By selector) {
@@ -40,41 +39,39 @@ public class WebElementSelector {
     return evaluateSizzleSelector(context, (ByCssSelector) selector);
   }
 
+  /**
+   * Sizzle is injected into every document (page) only once: it lives in the document until navigation.
+   * The same script checks if Sizzle is loaded and runs the query, so a lookup normally takes one call to browser.
+   * Only if the document doesn't have Sizzle yet (the script returns null), the query is repeated
+   * together with injection.
+   */
   protected List<WebElement> evaluateSizzleSelector(SearchContext context, ByCssSelector sizzleCssSelector) {
-    injectSizzleIfNeeded();
-
     String sizzleSelector = sizzleCssSelector.toString()
         .replace("By.selector: ", "")
         .replace("By.cssSelector: ", "");
-    
-    if (context instanceof WebElement)
-      return executeJavaScript("return Sizzle(arguments[0], arguments[1])", sizzleSelector, context);
-    else
-      return executeJavaScript("return Sizzle(arguments[0])", sizzleSelector);
-  }
+    Object[] arguments = context instanceof WebElement ?
+        new Object[]{sizzleSelector, context} : new Object[]{sizzleSelector};
 
-  protected void injectSizzleIfNeeded() {
-    if (!sizzleLoaded()) {
-      injectSizzle();
+    List<WebElement> result = executeJavaScript(
+        "return typeof Sizzle == 'undefined' ? null : Sizzle(arguments[0], arguments[1])", arguments);
+    if (result == null) {
+      result = executeJavaScript(injectSizzleScript() + "\nreturn Sizzle(arguments[0], arguments[1]);", arguments);
     }
+    return result;
   }
 
-  protected Boolean sizzleLoaded() {
-    try {
-      return executeJavaScript("return typeof Sizzle != 'undefined'");
-    } catch (WebDriverException e) {
-      return false;
-    }
-  }
-  
-  protected synchronized void injectSizzle() {
+  /**
+   * Local "define" and "module" hide AMD and CommonJS loaders of the page, so that Sizzle becomes global
+   */
+  protected synchronized String injectSizzleScript() {
     if (sizzleSource == null) {
       try {
-        sizzleSource = IOUtils.toString(currentThread().getContextClassLoader().getResource("sizzle.js"));
+        sizzleSource = "var define, module;\n" +
+            IOUtils.toString(currentThread().getContextClassLoader().getResource("sizzle.js"));
       } catch (IOException e) {
         throw new RuntimeException("Cannot load sizzle.js from classpath", e);
       }
     }
-    executeJavaScript(sizzleSource);
+    return sizzleSource;
   }
 }
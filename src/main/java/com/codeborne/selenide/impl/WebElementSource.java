@@ -6,17 +6,29 @@ import com.codeborne.selenide.ex.ElementNotFound;
 import com.codeborne.selenide.ex.ElementShould;
 import com.codeborne.selenide.ex.ElementShouldNot;
 import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriverException;
 import org.openqa.selenium.WebElement;
 
 import java.util.List;
 
 import static com.codeborne.selenide.Condition.not;
 import static com.codeborne.selenide.Condition.visible;
+import static com.codeborne.selenide.Configuration.evaluateConditionsInBrowser;
 import static java.util.Collections.singletonList;
 
 public abstract class WebElementSource {
   public abstract WebElement getWebElement();
 
+  /**
+   * Same as {@link #getWebElement()}, but doesn't reuse a cached element: it could have been removed from page
+   * or re-rendered since it was found.
+   *
+   * @see com.codeborne.selenide.Configuration#cacheElements
+   */
+  public WebElement getFreshWebElement() {
+    return getWebElement();
+  }
+
   public abstract String getSearchCriteria();
 
   public SelenideElement find(SelenideElement proxy, Object arg, int index) {
@@ -41,9 +53,16 @@ public abstract class WebElementSource {
     Throwable lastError = null;
     WebElement element = null;
     try {
+      if (check.applyNull()) {
+        // cached element could have been replaced by a new one
+        ElementCache.instance.invalidate();
+      }
       element = getWebElement();
-      if (element != null && check.apply(element)) {
-        return element;
+      if (element != null) {
+        Boolean matchesInBrowser = matchesInBrowser(element, check);
+        if (matchesInBrowser != null ? matchesInBrowser : check.apply(element)) {
+          return element;
+        }
       }
     }
     catch (Throwable e) {
@@ -68,6 +87,20 @@ public abstract class WebElementSource {
     return null;
   }
 
+  /**
+   * @return null if condition should be checked via webdriver
+   */
+  private Boolean matchesInBrowser(WebElement element, Condition condition) {
+    if (!evaluateConditionsInBrowser) return null;
+
+    try {
+      return ConditionScript.instance.matches(element, condition);
+    }
+    catch (WebDriverException e) {
+      return null;
+    }
+  }
+
   public WebElement findAndAssertElementIsVisible() {
     return checkCondition("be ", null, visible, false);
   }
@@ -3,15 +3,11 @@ package com.codeborne.selenide.impl;
 import com.codeborne.selenide.SelenideElement;
 import org.openqa.selenium.WebElement;
 
-import java.lang.reflect.Proxy;
-
 public class WebElementWrapper extends WebElementSource {
   public static SelenideElement wrap(WebElement element) {
     return element instanceof SelenideElement ?
         (SelenideElement) element :
-        (SelenideElement) Proxy.newProxyInstance(
-            element.getClass().getClassLoader(), new Class<?>[]{SelenideElement.class},
-            new SelenideElementProxy(new WebElementWrapper(element)));
+        new SelenideElementImpl(new WebElementWrapper(element));
   }
 
   private final WebElement delegate;
@@ -1,33 +1,59 @@
 package com.codeborne.selenide.proxy;
 
 import com.codeborne.selenide.Configuration;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.http.HttpContent;
 import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.handler.codec.http.HttpObject;
+import io.netty.handler.codec.http.HttpRequest;
 import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.codec.http.LastHttpContent;
+import net.lightbody.bmp.filters.HttpsAwareFiltersAdapter;
 import net.lightbody.bmp.filters.ResponseFilter;
 import net.lightbody.bmp.util.HttpMessageContents;
 import net.lightbody.bmp.util.HttpMessageInfo;
 import org.apache.commons.io.FileUtils;
+import org.littleshoot.proxy.HttpFilters;
+import org.littleshoot.proxy.HttpFiltersSourceAdapter;
 
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
 
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
 import static java.util.regex.Pattern.CASE_INSENSITIVE;
 
-public class FileDownloadFilter implements ResponseFilter {
+/**
+ * Intercepts files downloaded via proxy server.
+ *
+ * Downloads are recognized by response headers, and their content is written to disk chunk by chunk
+ * while it's being passed to the browser: responses are never accumulated in memory.
+ */
+public class FileDownloadFilter extends HttpFiltersSourceAdapter implements ResponseFilter {
   private static final Logger log = Logger.getLogger(FileDownloadFilter.class.getName());
 
-  private boolean active;
-  private final List<File> downloadedFiles = new ArrayList<>();
-  private final List<Response> responses = new ArrayList<>();
-  private final Pattern patternContentDisposition = 
+  private volatile boolean active;
+  private final List<File> downloadedFiles = new CopyOnWriteArrayList<>();
+  private final ResponseJournal responses = new ResponseJournal(100);
+  private final Pattern patternContentDisposition =
       Pattern.compile(".*filename\\*?=\"?([^\";]*)\"?(;charset=.*)?.*", CASE_INSENSITIVE);
 
   /**
@@ -49,17 +75,35 @@ public class FileDownloadFilter implements ResponseFilter {
     active = false;
   }
 
+  /**
+   * Deactivate this filter and forget downloaded files and responses (including settings of response journal)
+   */
+  public void reset() {
+    deactivate();
+    downloadedFiles.clear();
+    responses.clear();
+    responses.captureBodies(0);
+  }
+
+  @Override
+  public HttpFilters filterRequest(HttpRequest originalRequest, ChannelHandlerContext ctx) {
+    return active ? new DownloadInterceptor(originalRequest, ctx) : null;
+  }
+
+  /**
+   * Used only if this filter is added to proxy as {@link ResponseFilter} (with aggregated response content).
+   * Selenide proxy server adds it as a streaming filter.
+   */
   @Override
   public void filterResponse(HttpResponse response, HttpMessageContents contents, HttpMessageInfo messageInfo) {
     if (!active) return;
-    responses.add(new Response(messageInfo.getUrl(), 
-        response.getStatus().code(), 
+    responses.add(messageInfo.getUrl(),
+        response.getStatus().code(),
         response.getStatus().reasonPhrase(),
-        toMap(response.headers()),
-        contents.getContentType(),
-        contents.getTextContents()
-    ));
-    
+        response.headers(),
+        contents.getContentType()
+    ).setSize(contents.getTextContents().length());
+
     if (response.getStatus().code() < 200 || response.getStatus().code() >= 300) return;
 
     String fileName = getFileName(response);
@@ -76,12 +120,33 @@ public class FileDownloadFilter implements ResponseFilter {
     }
   }
 
-  private Map<String, String> toMap(HttpHeaders headers) {
-    Map<String, String> map = new HashMap<>();
-    for (Map.Entry<String, String> header : headers) {
-      map.put(header.getKey(), header.getValue());
+  /**
+   * Called when status and headers of response are received
+   *
+   * @return download to write response content to, or null if response does not contain a file
+   */
+  Download startDownload(String url, HttpResponse response) {
+    if (response.getStatus().code() < 200 || response.getStatus().code() >= 300) return null;
+
+    String fileName = getFileName(response);
+    if (fileName == null) return null;
+
+    File file = prepareTargetFile(fileName);
+    try {
+      return new Download(url, file, response.headers().get(HttpHeaders.Names.CONTENT_ENCODING));
+    }
+    catch (IOException e) {
+      log.log(Level.SEVERE, "Failed to save downloaded file to " + file.getAbsolutePath() + " for url " + url, e);
+      return null;
     }
-    return map;
+  }
+
+  ResponseJournal.Response recordResponse(String url, HttpResponse response) {
+    return responses.add(url,
+        response.getStatus().code(),
+        response.getStatus().reasonPhrase(),
+        response.headers(),
+        response.headers().get(HttpHeaders.Names.CONTENT_TYPE));
   }
 
   /**
@@ -115,40 +180,188 @@ public class FileDownloadFilter implements ResponseFilter {
   }
 
   /**
-   * @return all intercepted http response (as a string) - it can be useful for debugging
+   * @return latest intercepted http responses (as a string) - it can be useful for debugging
    */
   public String getResponses() {
-    StringBuilder sb = new StringBuilder();
-    sb.append("Intercepted ").append(responses.size()).append(" responses.");
-    
-    for (Response response : responses) {
-      sb.append("\n  ").append(response).append("\n");
+    return responses.toString();
+  }
+
+  /**
+   * Journal of latest intercepted responses.
+   * Use it to capture response bodies: {@code getResponseJournal().captureBodies(1024, "text/", "application/json")}
+   */
+  public ResponseJournal getResponseJournal() {
+    return responses;
+  }
+
+  /**
+   * Follows one response: counts its size and writes it to file if it's a download.
+   *
+   * Unfinished download is deleted if response times out, or connection to browser or server gets closed.
+   */
+  private class DownloadInterceptor extends HttpsAwareFiltersAdapter {
+    private final ChannelFutureListener abortOnDisconnect = future -> abortDownload();
+    private ChannelHandlerContext serverCtx;
+    private ResponseJournal.Response response;
+    private volatile Download download;
+
+    private DownloadInterceptor(HttpRequest originalRequest, ChannelHandlerContext ctx) {
+      super(originalRequest, ctx);
+    }
+
+    @Override
+    public void proxyToServerConnectionSucceeded(ChannelHandlerContext serverCtx) {
+      this.serverCtx = serverCtx;
+    }
+
+    @Override
+    public HttpObject serverToProxyResponse(HttpObject httpObject) {
+      if (httpObject instanceof HttpResponse) {
+        String url = getFullUrl(originalRequest);
+        response = recordResponse(url, (HttpResponse) httpObject);
+        download = startDownload(url, (HttpResponse) httpObject);
+        if (download != null) {
+          watchDisconnect(ctx, true);
+          watchDisconnect(serverCtx, true);
+        }
+      }
+      if (httpObject instanceof HttpContent && response != null) {
+        ByteBuf content = ((HttpContent) httpObject).content();
+        response.addContent(content);
+        Download download = this.download;
+        if (download != null) {
+          download.write(content);
+          if (httpObject instanceof LastHttpContent) {
+            download.finish();
+            this.download = null;
+            watchDisconnect(ctx, false);
+            watchDisconnect(serverCtx, false);
+          }
+        }
+      }
+      return httpObject;
+    }
+
+    @Override
+    public void serverToProxyResponseTimedOut() {
+      abortDownload();
+    }
+
+    @Override
+    public void proxyToServerConnectionFailed() {
+      abortDownload();
+    }
+
+    private void watchDisconnect(ChannelHandlerContext context, boolean watch) {
+      if (context == null) return;
+      if (watch) {
+        context.channel().closeFuture().addListener(abortOnDisconnect);
+      }
+      else {
+        context.channel().closeFuture().removeListener(abortOnDisconnect);
+      }
+    }
+
+    private void abortDownload() {
+      Download download = this.download;
+      if (download != null) {
+        download.abort();
+        this.download = null;
+      }
     }
-    return sb.toString();
   }
-  
-  private static class Response {
-    private String url;
-    private int code;
-    private String reasonPhrase;
-    private String contentType;
-    private Map<String, String> headers;
-    private String content;
-
-    private Response(String url, int code, String reasonPhrase, Map<String, String> headers, 
-                     String contentType, String content) {
+
+  /**
+   * One file being downloaded. Can be aborted from another thread (when connection gets closed).
+   */
+  class Download {
+    private final String url;
+    private final File file;
+    private final String contentEncoding;
+    private final File rawFile;
+    private FileChannel channel;
+
+    Download(String url, File file, String contentEncoding) throws IOException {
       this.url = url;
-      this.code = code;
-      this.reasonPhrase = reasonPhrase;
-      this.headers = headers;
-      this.contentType = contentType;
-      this.content = content;
+      this.file = file;
+      this.contentEncoding = contentEncoding == null ? null : contentEncoding.trim().toLowerCase();
+      this.rawFile = isEncoded() ? new File(file.getPath() + ".raw") : file;
+
+      File folder = file.getAbsoluteFile().getParentFile();
+      if (!folder.exists() && !folder.mkdirs() && !folder.exists()) {
+        throw new IOException("Failed to create " + folder);
+      }
+      channel = FileChannel.open(rawFile.toPath(), CREATE, WRITE, TRUNCATE_EXISTING);
     }
 
-    @Override
-    public String toString() {
-      return url + " -> " + code + " \"" + reasonPhrase + "\" " + headers + " " +
-          contentType + " " + " (" + content.length() + " bytes)";
+    private boolean isEncoded() {
+      return contentEncoding != null && !contentEncoding.isEmpty() && !"identity".equals(contentEncoding);
+    }
+
+    synchronized void write(ByteBuf content) {
+      if (channel == null) return;
+      try {
+        for (ByteBuffer buffer : content.nioBuffers()) {
+          while (buffer.hasRemaining()) {
+            channel.write(buffer);
+          }
+        }
+      }
+      catch (IOException e) {
+        log.log(Level.SEVERE, "Failed to save downloaded file to " + file.getAbsolutePath() + " for url " + url, e);
+        abort();
+      }
+    }
+
+    synchronized void finish() {
+      if (channel == null) return;
+      try {
+        channel.close();
+        channel = null;
+        if (isEncoded()) {
+          decode();
+        }
+        downloadedFiles.add(file);
+      }
+      catch (IOException e) {
+        log.log(Level.SEVERE, "Failed to save downloaded file to " + file.getAbsolutePath() + " for url " + url, e);
+        abort();
+      }
+    }
+
+    private void decode() throws IOException {
+      try (InputStream in = decoder(new FileInputStream(rawFile))) {
+        Files.copy(in, file.toPath(), REPLACE_EXISTING);
+      }
+      finally {
+        Files.deleteIfExists(rawFile.toPath());
+      }
+    }
+
+    private InputStream decoder(InputStream raw) throws IOException {
+      switch (contentEncoding) {
+        case "gzip":
+        case "x-gzip":
+          return new GZIPInputStream(raw);
+        case "deflate":
+          return new InflaterInputStream(raw);
+        default:
+          raw.close();
+          throw new IOException("Unsupported content encoding: " + contentEncoding);
+      }
+    }
+
+    synchronized void abort() {
+      try {
+        if (channel != null) {
+          channel.close();
+        }
+      }
+      catch (IOException e) {
+        log.log(Level.FINE, "Failed to close " + rawFile, e);
+      }
+      channel = null;
+      FileUtils.deleteQuietly(rawFile);
     }
   }
 }
@@ -0,0 +1,162 @@
+package com.codeborne.selenide.proxy;
+
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.http.HttpObject;
+import io.netty.handler.codec.http.HttpResponse;
+import org.littleshoot.proxy.HttpFilters;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+
+/**
+ * Applies several filters to one request, in the given order.
+ * A filter returning short-circuit response (or replacing response object) affects the filters after it.
+ */
+class HttpFiltersChain implements HttpFilters {
+  private final List<HttpFilters> filters;
+
+  HttpFiltersChain(List<HttpFilters> filters) {
+    this.filters = filters;
+  }
+
+  @Override
+  public HttpResponse clientToProxyRequest(HttpObject httpObject) {
+    for (HttpFilters filter : filters) {
+      HttpResponse response = filter.clientToProxyRequest(httpObject);
+      if (response != null) {
+        return response;
+      }
+    }
+    return null;
+  }
+
+  @Override
+  public HttpResponse proxyToServerRequest(HttpObject httpObject) {
+    for (HttpFilters filter : filters) {
+      HttpResponse response = filter.proxyToServerRequest(httpObject);
+      if (response != null) {
+        return response;
+      }
+    }
+    return null;
+  }
+
+  @Override
+  public void proxyToServerRequestSending() {
+    for (HttpFilters filter : filters) {
+      filter.proxyToServerRequestSending();
+    }
+  }
+
+  @Override
+  public void proxyToServerRequestSent() {
+    for (HttpFilters filter : filters) {
+      filter.proxyToServerRequestSent();
+    }
+  }
+
+  @Override
+  public HttpObject serverToProxyResponse(HttpObject httpObject) {
+    HttpObject processed = httpObject;
+    for (HttpFilters filter : filters) {
+      processed = filter.serverToProxyResponse(processed);
+      if (processed == null) {
+        return null;
+      }
+    }
+    return processed;
+  }
+
+  @Override
+  public void serverToProxyResponseTimedOut() {
+    for (HttpFilters filter : filters) {
+      filter.serverToProxyResponseTimedOut();
+    }
+  }
+
+  @Override
+  public void serverToProxyResponseReceiving() {
+    for (HttpFilters filter : filters) {
+      filter.serverToProxyResponseReceiving();
+    }
+  }
+
+  @Override
+  public void serverToProxyResponseReceived() {
+    for (HttpFilters filter : filters) {
+      filter.serverToProxyResponseReceived();
+    }
+  }
+
+  @Override
+  public HttpObject proxyToClientResponse(HttpObject httpObject) {
+    HttpObject processed = httpObject;
+    for (HttpFilters filter : filters) {
+      processed = filter.proxyToClientResponse(processed);
+      if (processed == null) {
+        return null;
+      }
+    }
+    return processed;
+  }
+
+  @Override
+  public void proxyToServerConnectionQueued() {
+    for (HttpFilters filter : filters) {
+      filter.proxyToServerConnectionQueued();
+    }
+  }
+
+  @Override
+  public InetSocketAddress proxyToServerResolutionStarted(String resolvingServerHostAndPort) {
+    for (HttpFilters filter : filters) {
+      InetSocketAddress address = filter.proxyToServerResolutionStarted(resolvingServerHostAndPort);
+      if (address != null) {
+        return address;
+      }
+    }
+    return null;
+  }
+
+  @Override
+  public void proxyToServerResolutionFailed(String hostAndPort) {
+    for (HttpFilters filter : filters) {
+      filter.proxyToServerResolutionFailed(hostAndPort);
+    }
+  }
+
+  @Override
+  public void proxyToServerResolutionSucceeded(String serverHostAndPort, InetSocketAddress resolvedRemoteAddress) {
+    for (HttpFilters filter : filters) {
+      filter.proxyToServerResolutionSucceeded(serverHostAndPort, resolvedRemoteAddress);
+    }
+  }
+
+  @Override
+  public void proxyToServerConnectionStarted() {
+    for (HttpFilters filter : filters) {
+      filter.proxyToServerConnectionStarted();
+    }
+  }
+
+  @Override
+  public void proxyToServerConnectionSSLHandshakeStarted() {
+    for (HttpFilters filter : filters) {
+      filter.proxyToServerConnectionSSLHandshakeStarted();
+    }
+  }
+
+  @Override
+  public void proxyToServerConnectionFailed() {
+    for (HttpFilters filter : filters) {
+      filter.proxyToServerConnectionFailed();
+    }
+  }
+
+  @Override
+  public void proxyToServerConnectionSucceeded(ChannelHandlerContext serverCtx) {
+    for (HttpFilters filter : filters) {
+      filter.proxyToServerConnectionSucceeded(serverCtx);
+    }
+  }
+}
@@ -0,0 +1,181 @@
+package com.codeborne.selenide.proxy;
+
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpObject;
+import io.netty.handler.codec.http.HttpRequest;
+import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.codec.http.LastHttpContent;
+import net.lightbody.bmp.filters.HttpsAwareFiltersAdapter;
+import org.littleshoot.proxy.HttpFilters;
+import org.littleshoot.proxy.HttpFiltersSourceAdapter;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static java.lang.System.currentTimeMillis;
+
+/**
+ * Tracks requests in flight (sent by browser, but not yet answered) of one proxy server.
+ *
+ * Waiting for network idle blocks until request count changes, instead of polling.
+ */
+public class NetworkActivity extends HttpFiltersSourceAdapter {
+  private final Set<Request> inFlight = new LinkedHashSet<>();
+  private long lastActivity = currentTimeMillis();
+
+  /**
+   * CONNECT requests (tunnels for https) are not tracked: proxy answers them itself, and they never "finish".
+   * Request is considered finished when the whole response is sent to browser (if response is delayed by
+   * {@link RequestRules#delay(String, long)}, when the delay is over), or when it fails,
+   * or when browser closes connection (e.g. cancelled navigation or aborted XHR).
+   */
+  @Override
+  public HttpFilters filterRequest(HttpRequest originalRequest, ChannelHandlerContext ctx) {
+    if (HttpMethod.CONNECT.equals(originalRequest.getMethod())) return null;
+
+    return new HttpsAwareFiltersAdapter(originalRequest, ctx) {
+      private final ChannelFutureListener finishOnDisconnect = future -> finish();
+      private volatile Request request;
+
+      @Override
+      public HttpResponse clientToProxyRequest(HttpObject httpObject) {
+        if (httpObject instanceof HttpRequest && request == null) {
+          request = started(getFullUrl(originalRequest));
+          if (ctx != null) {
+            ctx.channel().closeFuture().addListener(finishOnDisconnect);
+          }
+        }
+        return null;
+      }
+
+      @Override
+      public HttpObject proxyToClientResponse(HttpObject httpObject) {
+        if (httpObject instanceof LastHttpContent) {
+          RequestRules.ResponseDelay delay = ctx == null ? null : ctx.pipeline().get(RequestRules.ResponseDelay.class);
+          if (delay != null) {
+            delay.whenReleased(this::finish);
+          }
+          else {
+            finish();
+          }
+        }
+        return httpObject;
+      }
+
+      @Override
+      public void serverToProxyResponseTimedOut() {
+        finish();
+      }
+
+      @Override
+      public void proxyToServerConnectionFailed() {
+        finish();
+      }
+
+      @Override
+      public void proxyToServerResolutionFailed(String hostAndPort) {
+        finish();
+      }
+
+      private void finish() {
+        Request request = this.request;
+        if (request != null) {
+          this.request = null;
+          finished(request);
+          if (ctx != null) {
+            ctx.channel().closeFuture().removeListener(finishOnDisconnect);
+          }
+        }
+      }
+    };
+  }
+
+  synchronized Request started(String url) {
+    Request request = new Request(url, currentTimeMillis());
+    inFlight.add(request);
+    lastActivity = request.start;
+    notifyAll();
+    return request;
+  }
+
+  synchronized void finished(Request request) {
+    if (inFlight.remove(request)) {
+      lastActivity = currentTimeMillis();
+      notifyAll();
+    }
+  }
+
+  /**
+   * Forget all requests in flight
+   */
+  public synchronized void reset() {
+    inFlight.clear();
+    lastActivity = currentTimeMillis();
+    notifyAll();
+  }
+
+  /**
+   * @return number of requests sent by browser, but not answered yet
+   */
+  public synchronized int getInFlightCount() {
+    return inFlight.size();
+  }
+
+  /**
+   * Wait until there are no requests in flight during {@code quietMs} milliseconds.
+   *
+   * Requests which have already been in flight longer than {@code timeoutMs} when waiting starts
+   * (like long polling or event streams) are ignored.
+   *
+   * @return false if network has not become idle in {@code timeoutMs} milliseconds
+   */
+  public synchronized boolean waitForIdle(long quietMs, long timeoutMs) throws InterruptedException {
+    long ignoreStartedBefore = currentTimeMillis() - timeoutMs;
+    long deadline = currentTimeMillis() + timeoutMs;
+    while (true) {
+      long now = currentTimeMillis();
+      if (isIdle(ignoreStartedBefore) && lastActivity + quietMs <= now) {
+        return true;
+      }
+      if (now >= deadline) {
+        return false;
+      }
+      long wakeUp = isIdle(ignoreStartedBefore) ? lastActivity + quietMs : deadline;
+      wait(Math.max(1, Math.min(wakeUp, deadline) - now));
+    }
+  }
+
+  private boolean isIdle(long ignoreStartedBefore) {
+    for (Request request : inFlight) {
+      if (request.start >= ignoreStartedBefore) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * @return urls of requests sent by browser, but not answered yet
+   */
+  public synchronized List<String> getInFlightUrls() {
+    List<String> urls = new ArrayList<>(inFlight.size());
+    for (Request request : inFlight) {
+      urls.add(request.url);
+    }
+    return urls;
+  }
+
+  static class Request {
+    private final String url;
+    private final long start;
+
+    private Request(String url, long start) {
+      this.url = url;
+      this.start = start;
+    }
+  }
+}
@@ -0,0 +1,354 @@
+package com.codeborne.selenide.proxy;
+
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.ChannelPromise;
+import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpObject;
+import io.netty.handler.codec.http.HttpRequest;
+import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.util.ReferenceCountUtil;
+import net.lightbody.bmp.filters.HttpsAwareFiltersAdapter;
+import org.littleshoot.proxy.HttpFilters;
+import org.littleshoot.proxy.HttpFiltersSourceAdapter;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.logging.Logger;
+
+import static io.netty.handler.codec.http.HttpResponseStatus.NO_CONTENT;
+import static io.netty.handler.codec.http.HttpVersion.HTTP_1_1;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Rules to block, delay or stub requests by url (e.g. to get rid of analytics, ads and chat widgets in tests).
+ *
+ * Url patterns look like {@code "example.com"} (any page of given host), {@code "example.com/ads/"}
+ * (any page starting with given path), {@code "*.example.com"} (any page of given host or its subdomains),
+ * or {@code "*"} (any page). Protocol is ignored. If several rules match, the most specific one is applied.
+ *
+ * All rules are compiled into one prefix tree, so matching takes the same time for any number of rules.
+ */
+public class RequestRules extends HttpFiltersSourceAdapter {
+  private static final Logger log = Logger.getLogger(RequestRules.class.getName());
+
+  private final List<Rule> rules = new ArrayList<>();
+  private volatile Node root = new Node();
+
+  /**
+   * Respond with "204 No Content" without sending request to server
+   */
+  public RequestRules block(String urlPattern) {
+    return add(new Rule(urlPattern, Action.BLOCK, 0, NO_CONTENT, null, null));
+  }
+
+  /**
+   * Pass response to browser after given delay (counted from the moment when response starts to arrive from server).
+   * Delay does not block threads of proxy server, so other requests (and other sessions of shared proxy server)
+   * are not affected.
+   */
+  public RequestRules delay(String urlPattern, long delayMs) {
+    return add(new Rule(urlPattern, Action.DELAY, delayMs, null, null, null));
+  }
+
+  /**
+   * Respond with given content without sending request to server
+   */
+  public RequestRules stub(String urlPattern, int status, String contentType, String body) {
+    return stub(urlPattern, status, contentType, body.getBytes(UTF_8));
+  }
+
+  /**
+   * Respond with content of given file without sending request to server
+   */
+  public RequestRules stub(String urlPattern, int status, String contentType, File body) {
+    try {
+      return stub(urlPattern, status, contentType, Files.readAllBytes(body.toPath()));
+    }
+    catch (IOException e) {
+      throw new UncheckedIOException("Failed to read stub " + body.getAbsolutePath(), e);
+    }
+  }
+
+  /**
+   * Respond with given content without sending request to server
+   */
+  public RequestRules stub(String urlPattern, int status, String contentType, byte[] body) {
+    return add(new Rule(urlPattern, Action.STUB, 0, HttpResponseStatus.valueOf(status), contentType, body));
+  }
+
+  private synchronized RequestRules add(Rule rule) {
+    rules.add(rule);
+    root = compile(rules);
+    return this;
+  }
+
+  /**
+   * Remove all rules
+   */
+  public synchronized void clear() {
+    rules.clear();
+    root = new Node();
+  }
+
+  public synchronized int size() {
+    return rules.size();
+  }
+
+  private static Node compile(List<Rule> rules) {
+    Node root = new Node();
+    for (Rule rule : rules) {
+      for (String prefix : rule.prefixes) {
+        Node node = root;
+        for (int i = 0; i < prefix.length(); i++) {
+          node = node.children.computeIfAbsent(prefix.charAt(i), c -> new Node());
+        }
+        node.rule = rule;
+      }
+    }
+    return root;
+  }
+
+  /**
+   * @return the most specific rule matching given url, or null if no rules match
+   */
+  Rule match(String url) {
+    Node node = root;
+    Rule matched = node.rule;
+    String key = key(url);
+    for (int i = 0; i < key.length() && node != null; i++) {
+      node = node.children.get(key.charAt(i));
+      if (node != null && node.rule != null) {
+        matched = node.rule;
+      }
+    }
+    return matched;
+  }
+
+  /**
+   * Converts url to a form where more specific urls have longer common prefix:
+   * {@code "https://www.example.com:8080/path"} becomes {@code "com.example.www:8080/path"}
+   */
+  static String key(String url) {
+    int schemeEnd = url.indexOf("://");
+    String withoutScheme = schemeEnd < 0 ? url : url.substring(schemeEnd + 3);
+    int pathStart = withoutScheme.indexOf('/');
+    String hostAndPort = pathStart < 0 ? withoutScheme : withoutScheme.substring(0, pathStart);
+    String path = pathStart < 0 ? "/" : withoutScheme.substring(pathStart);
+
+    int portStart = hostAndPort.lastIndexOf(':');
+    String host = portStart < 0 ? hostAndPort : hostAndPort.substring(0, portStart);
+    String port = portStart < 0 ? "" : hostAndPort.substring(portStart);
+    if (":80".equals(port) || ":443".equals(port)) {
+      port = "";
+    }
+    return reverseHost(host.toLowerCase()) + port + path;
+  }
+
+  private static String reverseHost(String host) {
+    StringBuilder reversed = new StringBuilder(host.length());
+    int end = host.length();
+    for (int i = host.length() - 1; i >= -1; i--) {
+      if (i == -1 || host.charAt(i) == '.') {
+        if (reversed.length() > 0) reversed.append('.');
+        reversed.append(host, i + 1, end);
+        end = i;
+      }
+    }
+    return reversed.toString();
+  }
+
+  /**
+   * Converts url pattern to prefixes of {@link #key(String)}
+   */
+  static List<String> prefixes(String urlPattern) {
+    String pattern = urlPattern.trim();
+    if ("*".equals(pattern)) {
+      return singletonList("");
+    }
+    if (pattern.endsWith("*") && !pattern.endsWith(".*")) {
+      pattern = pattern.substring(0, pattern.length() - 1);
+    }
+    if (pattern.contains("://")) {
+      pattern = pattern.substring(pattern.indexOf("://") + 3);
+    }
+
+    if (pattern.startsWith("*.")) {
+      String domain = pattern.endsWith("/") ? pattern.substring(2, pattern.length() - 1) : pattern.substring(2);
+      if (domain.contains("/") || domain.contains(":")) {
+        throw new IllegalArgumentException("Pattern with wildcard host cannot contain port or path: " + urlPattern);
+      }
+      String reversed = reverseHost(domain.toLowerCase());
+      return asList(reversed + ".", reversed + "/", reversed + ":");
+    }
+    if (pattern.contains("*")) {
+      throw new IllegalArgumentException("Wildcard is allowed only in the beginning or in the end: " + urlPattern);
+    }
+    return singletonList(key(pattern));
+  }
+
+  @Override
+  public HttpFilters filterRequest(HttpRequest originalRequest, ChannelHandlerContext ctx) {
+    if (root.children.isEmpty() && root.rule == null) return null;
+    if (HttpMethod.CONNECT.equals(originalRequest.getMethod())) return null;
+
+    return new HttpsAwareFiltersAdapter(originalRequest, ctx) {
+      @Override
+      public HttpResponse clientToProxyRequest(HttpObject httpObject) {
+        if (httpObject instanceof HttpRequest) {
+          Rule rule = match(getFullUrl(originalRequest));
+          if (rule != null) {
+            log.fine(rule.action + " " + getFullUrl(originalRequest));
+            if (rule.action != Action.DELAY) {
+              return rule.response();
+            }
+            if (ctx != null) {
+              ctx.pipeline().addLast(new ResponseDelay(rule.delayMs));
+            }
+          }
+        }
+        return null;
+      }
+    };
+  }
+
+  /**
+   * Holds response to browser for given time without blocking event loop of proxy server.
+   * Removes itself from pipeline once the delayed response is passed on.
+   */
+  static class ResponseDelay extends ChannelOutboundHandlerAdapter {
+    private final long delayMs;
+    private final Queue<Object> messages = new ArrayDeque<>();
+    private final Queue<ChannelPromise> promises = new ArrayDeque<>();
+    private final List<Runnable> releaseListeners = new ArrayList<>();
+    private boolean started;
+    private boolean released;
+    private boolean listenersNotified;
+
+    ResponseDelay(long delayMs) {
+      this.delayMs = delayMs;
+    }
+
+    @Override
+    public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) {
+      if (released) {
+        ctx.write(msg, promise);
+        return;
+      }
+      messages.add(msg);
+      promises.add(promise);
+      if (!started) {
+        started = true;
+        ctx.executor().schedule(() -> release(ctx), delayMs, MILLISECONDS);
+      }
+    }
+
+    @Override
+    public void flush(ChannelHandlerContext ctx) {
+      if (released) {
+        ctx.flush();
+      }
+    }
+
+    private void release(ChannelHandlerContext ctx) {
+      if (ctx.isRemoved()) return;
+      released = true;
+      while (!messages.isEmpty()) {
+        ctx.write(messages.poll(), promises.poll());
+      }
+      ctx.flush();
+      ctx.pipeline().remove(this);
+    }
+
+    /**
+     * Runs given action when the delayed response is passed on to browser (or browser closes connection).
+     * Can be called from any thread.
+     */
+    void whenReleased(Runnable action) {
+      synchronized (releaseListeners) {
+        if (!listenersNotified) {
+          releaseListeners.add(action);
+          return;
+        }
+      }
+      action.run();
+    }
+
+    private void notifyReleaseListeners() {
+      List<Runnable> listeners;
+      synchronized (releaseListeners) {
+        listenersNotified = true;
+        listeners = new ArrayList<>(releaseListeners);
+        releaseListeners.clear();
+      }
+      listeners.forEach(Runnable::run);
+    }
+
+    /**
+     * Called when the delayed response has been passed on, or when browser has closed connection before delay expired
+     */
+    @Override
+    public void handlerRemoved(ChannelHandlerContext ctx) {
+      while (!messages.isEmpty()) {
+        ReferenceCountUtil.release(messages.poll());
+        promises.poll().tryFailure(new ClosedChannelException());
+      }
+      notifyReleaseListeners();
+    }
+  }
+
+  enum Action {BLOCK, DELAY, STUB}
+
+  static class Rule {
+    private final List<String> prefixes;
+    final Action action;
+    private final long delayMs;
+    private final HttpResponseStatus status;
+    private final String contentType;
+    private final byte[] body;
+
+    private Rule(String urlPattern, Action action, long delayMs, HttpResponseStatus status, String contentType,
+                 byte[] body) {
+      this.prefixes = prefixes(urlPattern);
+      this.action = action;
+      this.delayMs = delayMs;
+      this.status = status;
+      this.contentType = contentType;
+      this.body = body;
+    }
+
+    FullHttpResponse response() {
+      FullHttpResponse response = body == null ?
+          new DefaultFullHttpResponse(HTTP_1_1, status) :
+          new DefaultFullHttpResponse(HTTP_1_1, status, Unpooled.wrappedBuffer(body));
+      if (contentType != null) {
+        response.headers().set(HttpHeaders.Names.CONTENT_TYPE, contentType);
+      }
+      response.headers().set(HttpHeaders.Names.ACCESS_CONTROL_ALLOW_ORIGIN, "*");
+      HttpHeaders.setContentLength(response, body == null ? 0 : body.length);
+      return response;
+    }
+  }
+
+  private static class Node {
+    private final Map<Character, Node> children = new HashMap<>();
+    private Rule rule;
+  }
+}
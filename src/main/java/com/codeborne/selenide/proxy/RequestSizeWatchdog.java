@@ -1,19 +1,69 @@
 package com.codeborne.selenide.proxy;
 
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.http.HttpContent;
+import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.handler.codec.http.HttpObject;
 import io.netty.handler.codec.http.HttpRequest;
 import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.codec.http.LastHttpContent;
+import net.lightbody.bmp.filters.HttpsAwareFiltersAdapter;
 import net.lightbody.bmp.filters.RequestFilter;
 import net.lightbody.bmp.util.HttpMessageContents;
 import net.lightbody.bmp.util.HttpMessageInfo;
+import org.littleshoot.proxy.HttpFilters;
+import org.littleshoot.proxy.HttpFiltersSourceAdapter;
 
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
-public class RequestSizeWatchdog implements RequestFilter {
+/**
+ * Logs too large requests.
+ *
+ * Request size is taken from header "Content-Length" (so that warning is logged before content is transferred),
+ * or counted while request content is streamed through proxy (content is not accumulated).
+ */
+public class RequestSizeWatchdog extends HttpFiltersSourceAdapter implements RequestFilter {
   private static final Logger log = Logger.getLogger(RequestSizeWatchdog.class.getName());
 
   int threshold = 2 * 1024 * 1024; // 2 MB
 
+  @Override
+  public HttpFilters filterRequest(HttpRequest originalRequest, ChannelHandlerContext ctx) {
+    return new HttpsAwareFiltersAdapter(originalRequest, ctx) {
+      private long size;
+      private boolean sizeKnown;
+
+      @Override
+      public HttpResponse clientToProxyRequest(HttpObject httpObject) {
+        if (httpObject instanceof HttpRequest) {
+          long contentLength = HttpHeaders.getContentLength((HttpRequest) httpObject, -1);
+          if (contentLength >= 0) {
+            sizeKnown = true;
+            check(contentLength);
+          }
+        }
+        if (httpObject instanceof HttpContent && !sizeKnown) {
+          size += ((HttpContent) httpObject).content().readableBytes();
+          if (httpObject instanceof LastHttpContent) {
+            check(size);
+          }
+        }
+        return null;
+      }
+
+      private void check(long size) {
+        if (size > threshold) {
+          log.warning("Too large request " + getFullUrl(originalRequest) + ": " + size + " bytes");
+        }
+      }
+    };
+  }
+
+  /**
+   * Used only if this watchdog is added to proxy as {@link RequestFilter} (with aggregated request content).
+   * Selenide proxy server adds it as a streaming filter.
+   */
   @Override
   public HttpResponse filterRequest(HttpRequest request, HttpMessageContents contents, HttpMessageInfo messageInfo) {
     if (contents.getBinaryContents().length > threshold) {
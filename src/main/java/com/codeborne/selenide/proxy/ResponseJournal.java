@@ -0,0 +1,183 @@
+package com.codeborne.selenide.proxy;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.handler.codec.http.HttpHeaders;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.Charset;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.regex.Pattern.CASE_INSENSITIVE;
+
+/**
+ * Keeps metadata of the latest intercepted responses (for debugging failed downloads).
+ *
+ * Only a fixed number of responses is kept: older ones are overwritten.
+ * Response bodies are not captured unless {@link #captureBodies(int, String...)} is called,
+ * and nothing is converted to string until {@link #toString()}.
+ */
+public class ResponseJournal {
+  private static final Pattern CHARSET = Pattern.compile(".*charset=\"?([^\";]+)\"?.*", CASE_INSENSITIVE);
+
+  private final Response[] responses;
+  private int next;
+  private long total;
+
+  private volatile int maxBodySize;
+  private volatile String[] bodyContentTypes = new String[0];
+
+  public ResponseJournal(int capacity) {
+    this.responses = new Response[Math.max(1, capacity)];
+  }
+
+  /**
+   * Capture beginning of response bodies (for responses with given content types only)
+   *
+   * @param maxBodySize number of bytes to capture from each response (0 disables capturing)
+   * @param contentTypes prefixes of content types, like "text/" or "application/json"
+   *                     (if none are given, bodies of all responses are captured)
+   */
+  public void captureBodies(int maxBodySize, String... contentTypes) {
+    this.bodyContentTypes = contentTypes.clone();
+    this.maxBodySize = maxBodySize;
+  }
+
+  Response add(String url, int code, String reasonPhrase, HttpHeaders headers, String contentType) {
+    Response response = new Response(url, code, reasonPhrase, headers, contentType,
+        shouldCaptureBody(contentType) ? maxBodySize : 0);
+    synchronized (this) {
+      responses[next] = response;
+      next = (next + 1) % responses.length;
+      total++;
+    }
+    return response;
+  }
+
+  private boolean shouldCaptureBody(String contentType) {
+    if (maxBodySize <= 0) return false;
+    String[] contentTypes = bodyContentTypes;
+    if (contentTypes.length == 0) return true;
+    if (contentType == null) return false;
+    for (String prefix : contentTypes) {
+      if (contentType.regionMatches(true, 0, prefix, 0, prefix.length())) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  public synchronized void clear() {
+    for (int i = 0; i < responses.length; i++) {
+      responses[i] = null;
+    }
+    next = 0;
+    total = 0;
+  }
+
+  /**
+   * @return number of responses added since last {@link #clear()} (including overwritten ones)
+   */
+  public synchronized long size() {
+    return total;
+  }
+
+  @Override
+  public synchronized String toString() {
+    StringBuilder sb = new StringBuilder();
+    sb.append("Intercepted ").append(total).append(" responses.");
+    if (total > responses.length) {
+      sb.append(" Last ").append(responses.length).append(" of them:");
+    }
+
+    int count = (int) Math.min(total, responses.length);
+    for (int i = 0; i < count; i++) {
+      Response response = responses[(next - count + i + responses.length) % responses.length];
+      sb.append("\n  ").append(response).append("\n");
+    }
+    return sb.toString();
+  }
+
+  static class Response {
+    private final String url;
+    private final int code;
+    private final String reasonPhrase;
+    private final HttpHeaders headers;
+    private final String contentType;
+    private final int maxBodySize;
+    private volatile long size;
+    private ByteArrayOutputStream body;
+
+    Response(String url, int code, String reasonPhrase, HttpHeaders headers, String contentType, int maxBodySize) {
+      this.url = url;
+      this.code = code;
+      this.reasonPhrase = reasonPhrase;
+      this.headers = headers;
+      this.contentType = contentType;
+      this.maxBodySize = maxBodySize;
+    }
+
+    /**
+     * Count the next chunk of response content (and capture it if needed)
+     */
+    void addContent(ByteBuf content) {
+      int length = content.readableBytes();
+      size += length;
+      if (maxBodySize > 0) {
+        captureBody(content, length);
+      }
+    }
+
+    void setSize(long size) {
+      this.size = size;
+    }
+
+    private synchronized void captureBody(ByteBuf content, int length) {
+      if (body == null) {
+        body = new ByteArrayOutputStream(Math.min(maxBodySize, 4096));
+      }
+      int toCapture = Math.min(length, maxBodySize - body.size());
+      if (toCapture > 0) {
+        byte[] bytes = new byte[toCapture];
+        content.getBytes(content.readerIndex(), bytes);
+        body.write(bytes, 0, toCapture);
+      }
+    }
+
+    private synchronized String renderBody() {
+      if (body == null) return null;
+      if (headers.get(HttpHeaders.Names.CONTENT_ENCODING) != null) {
+        return "<" + body.size() + " encoded bytes>";
+      }
+      return new String(body.toByteArray(), charset()) + (size > body.size() ? "..." : "");
+    }
+
+    private Charset charset() {
+      if (contentType != null) {
+        Matcher matcher = CHARSET.matcher(contentType);
+        if (matcher.matches() && Charset.isSupported(matcher.group(1))) {
+          return Charset.forName(matcher.group(1));
+        }
+      }
+      return UTF_8;
+    }
+
+    private String renderHeaders() {
+      StringBuilder sb = new StringBuilder("{");
+      for (Map.Entry<String, String> header : headers) {
+        if (sb.length() > 1) sb.append(", ");
+        sb.append(header.getKey()).append('=').append(header.getValue());
+      }
+      return sb.append('}').toString();
+    }
+
+    @Override
+    public String toString() {
+      String body = renderBody();
+      return url + " -> " + code + " \"" + reasonPhrase + "\" " + renderHeaders() + " " +
+          contentType + " " + " (" + size + " bytes)" + (body == null ? "" : "\n  " + body);
+    }
+  }
+}
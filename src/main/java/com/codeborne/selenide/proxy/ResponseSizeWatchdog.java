@@ -1,18 +1,69 @@
 package com.codeborne.selenide.proxy;
 
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.http.HttpContent;
+import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.handler.codec.http.HttpObject;
+import io.netty.handler.codec.http.HttpRequest;
 import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.codec.http.LastHttpContent;
+import net.lightbody.bmp.filters.HttpsAwareFiltersAdapter;
 import net.lightbody.bmp.filters.ResponseFilter;
 import net.lightbody.bmp.util.HttpMessageContents;
 import net.lightbody.bmp.util.HttpMessageInfo;
+import org.littleshoot.proxy.HttpFilters;
+import org.littleshoot.proxy.HttpFiltersSourceAdapter;
 
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
-public class ResponseSizeWatchdog implements ResponseFilter {
+/**
+ * Logs too large responses.
+ *
+ * Response size is taken from header "Content-Length" (so that warning is logged before content is transferred),
+ * or counted while response content is streamed through proxy (content is not accumulated).
+ */
+public class ResponseSizeWatchdog extends HttpFiltersSourceAdapter implements ResponseFilter {
   private static final Logger log = Logger.getLogger(ResponseSizeWatchdog.class.getName());
 
   int threshold = 2 * 1024 * 1024; // 2 MB
 
+  @Override
+  public HttpFilters filterRequest(HttpRequest originalRequest, ChannelHandlerContext ctx) {
+    return new HttpsAwareFiltersAdapter(originalRequest, ctx) {
+      private long size;
+      private boolean sizeKnown;
+
+      @Override
+      public HttpObject serverToProxyResponse(HttpObject httpObject) {
+        if (httpObject instanceof HttpResponse) {
+          long contentLength = HttpHeaders.getContentLength((HttpResponse) httpObject, -1);
+          if (contentLength >= 0) {
+            sizeKnown = true;
+            check(contentLength);
+          }
+        }
+        if (httpObject instanceof HttpContent && !sizeKnown) {
+          size += ((HttpContent) httpObject).content().readableBytes();
+          if (httpObject instanceof LastHttpContent) {
+            check(size);
+          }
+        }
+        return httpObject;
+      }
+
+      private void check(long size) {
+        if (size > threshold) {
+          log.warning("Too large response " + getFullUrl(originalRequest) + ": " + size + " bytes");
+        }
+      }
+    };
+  }
+
+  /**
+   * Used only if this watchdog is added to proxy as {@link ResponseFilter} (with aggregated response content).
+   * Selenide proxy server adds it as a streaming filter.
+   */
   @Override
   public void filterResponse(HttpResponse response, HttpMessageContents contents, HttpMessageInfo messageInfo) {
     if (contents.getBinaryContents().length > threshold) {
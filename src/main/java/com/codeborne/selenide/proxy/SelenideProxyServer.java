@@ -1,5 +1,7 @@
 package com.codeborne.selenide.proxy;
 
+import com.codeborne.selenide.Configuration;
+import com.codeborne.selenide.ex.NetworkNotIdle;
 import net.lightbody.bmp.BrowserMobProxy;
 import net.lightbody.bmp.BrowserMobProxyServer;
 import net.lightbody.bmp.client.ClientUtil;
@@ -7,9 +9,13 @@ import net.lightbody.bmp.filters.RequestFilter;
 import net.lightbody.bmp.filters.RequestFilterAdapter;
 import net.lightbody.bmp.filters.ResponseFilter;
 import net.lightbody.bmp.filters.ResponseFilterAdapter;
+import org.littleshoot.proxy.HttpFiltersSource;
 import org.openqa.selenium.Proxy;
 
 import java.net.InetSocketAddress;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -22,21 +28,16 @@ import static java.lang.Integer.parseInt;
  */
 public class SelenideProxyServer {
   protected final Proxy outsideProxy;
-  protected BrowserMobProxy proxy = new BrowserMobProxyServer() {
-    int maxSize = 64 * 1024 * 1024; // 64 MB
-    @Override
-    public void addRequestFilter(RequestFilter filter) {
-      addFirstHttpFilterFactory(new RequestFilterAdapter.FilterSource(filter, maxSize));
-    }
-
-    @Override public void addResponseFilter(ResponseFilter filter) {
-      addLastHttpFilterFactory(new ResponseFilterAdapter.FilterSource(filter, maxSize));
-    }
-  };
+  protected BrowserMobProxy proxy = new BrowserMobProxyServer();
   
   protected int port;
   protected Map<String, RequestFilter> requestFilters = new HashMap<>();
   protected Map<String, ResponseFilter> responseFilters = new HashMap<>();
+  protected TrafficSummary trafficSummary = new TrafficSummary(10);
+  protected NetworkActivity networkActivity = new NetworkActivity();
+  protected RequestRules requestRules = new RequestRules();
+  protected SharedProxyServer.Session session;
+  private final Deque<HttpFiltersSource> filterSources = new ArrayDeque<>();
 
   /**
    * Create server
@@ -52,28 +53,82 @@ public class SelenideProxyServer {
    * Start the server
    * 
    * It automatically adds one response filter "download" that can intercept downloaded files.
+   * If {@link Configuration#proxyCacheSizeMb} is set, static resources are served from {@link StaticResourcesCache}.
+   * Requests to {@link Configuration#blockedUrls} are blocked by {@link RequestRules}.
+   * If {@link Configuration#sharedProxyServer} is enabled, it only opens a new session of the shared proxy server.
    */
   public void start() {
+    addRequestFilter("requestSizeWatchdog", new RequestSizeWatchdog());
+    addResponseFilter("responseSizeWatchdog", new ResponseSizeWatchdog());
+    addResponseFilter("download", new FileDownloadFilter());
+    filterSources.addFirst(trafficSummary);
+    filterSources.addLast(networkActivity);
+    if (Configuration.proxyCacheSizeMb > 0) {
+      filterSources.addFirst(StaticResourcesCache.instance);
+    }
+    blockConfiguredUrls();
+    filterSources.addFirst(requestRules);
+
+    if (Configuration.sharedProxyServer) {
+      session = SharedProxyServer.forOutsideProxy(outsideProxy).openSession(new ArrayList<>(filterSources));
+      port = session.getPort();
+      return;
+    }
+
     proxy.setTrustAllServers(true);
     if (outsideProxy != null) {
       proxy.setChainedProxy(getProxyAddress(outsideProxy));
     }
-
-    addRequestFilter("requestSizeWatchdog", new RequestSizeWatchdog());
-    addResponseFilter("responseSizeWatchdog", new ResponseSizeWatchdog());
-    addResponseFilter("download", new FileDownloadFilter());
+    for (HttpFiltersSource filterSource : filterSources) {
+      proxy.addLastHttpFilterFactory(filterSource);
+    }
 
     proxy.start();
     port = proxy.getPort();
   }
 
+  private void blockConfiguredUrls() {
+    for (String blockedUrl : Configuration.blockedUrls.split(",")) {
+      if (!blockedUrl.trim().isEmpty()) {
+        requestRules.block(blockedUrl);
+      }
+    }
+  }
+
+  /**
+   * Forget everything configured and collected by previous user of this proxy server:
+   * request rules, intercepted downloads and responses, traffic summary and requests in flight.
+   *
+   * Used when browser is returned to {@link com.codeborne.selenide.impl.WebDriverPoolContainer pool}.
+   */
+  public void reset() {
+    requestRules.clear();
+    blockConfiguredUrls();
+    FileDownloadFilter download = responseFilter("download");
+    if (download != null) {
+      download.reset();
+    }
+    trafficSummary.reset();
+    networkActivity.reset();
+  }
+
+  /**
+   * Filters implementing {@link HttpFiltersSource} are added as streaming filters (request content is not accumulated),
+   * other filters get the whole request content.
+   */
   private void addRequestFilter(String name, RequestFilter requestFilter) {
-    proxy.addRequestFilter(requestFilter);
+    filterSources.addFirst(requestFilter instanceof HttpFiltersSource ?
+        (HttpFiltersSource) requestFilter : new RequestFilterAdapter.FilterSource(requestFilter));
     requestFilters.put(name, requestFilter);
   }
 
+  /**
+   * Filters implementing {@link HttpFiltersSource} are added as streaming filters (response content is not accumulated),
+   * other filters get the whole response content.
+   */
   private void addResponseFilter(String name, ResponseFilter responseFilter) {
-    proxy.addResponseFilter(responseFilter);
+    filterSources.addLast(responseFilter instanceof HttpFiltersSource ?
+        (HttpFiltersSource) responseFilter : new ResponseFilterAdapter.FilterSource(responseFilter));
     responseFilters.put(name, responseFilter);
   }
 
@@ -88,14 +143,22 @@ public class SelenideProxyServer {
    * Converts this proxy to a "selenium" proxy that can be used by webdriver
    */
   public Proxy createSeleniumProxy() {
+    if (session != null) {
+      return ClientUtil.createSeleniumProxy(new InetSocketAddress(ClientUtil.getConnectableAddress(), port));
+    }
     return ClientUtil.createSeleniumProxy(proxy);
   }
 
   /**
-   * Stop the server
+   * Stop the server (or close session of the shared server)
    */
   public void shutdown() {
-    proxy.abort();
+    if (session != null) {
+      session.close();
+    }
+    else {
+      proxy.abort();
+    }
   }
 
   @Override
@@ -120,4 +183,43 @@ public class SelenideProxyServer {
   public <T extends ResponseFilter> T responseFilter(String name) {
     return (T) responseFilters.get(name);
   }
+
+  /**
+   * Summary of traffic passed through this proxy server (number of requests, bytes, the slowest urls)
+   */
+  public TrafficSummary getTrafficSummary() {
+    return trafficSummary;
+  }
+
+  /**
+   * Rules to block, delay or stub requests of this browser
+   */
+  public RequestRules getRequestRules() {
+    return requestRules;
+  }
+
+  /**
+   * Requests in flight (sent by browser, but not answered yet)
+   */
+  public NetworkActivity getNetworkActivity() {
+    return networkActivity;
+  }
+
+  /**
+   * Wait until browser has no requests in flight during {@code quietMs} milliseconds
+   *
+   * @throws NetworkNotIdle if network has not become idle in {@code timeoutMs} milliseconds
+   * @see NetworkActivity#waitForIdle(long, long)
+   */
+  public void waitForNetworkIdle(long quietMs, long timeoutMs) {
+    try {
+      if (!networkActivity.waitForIdle(quietMs, timeoutMs)) {
+        throw new NetworkNotIdle(quietMs, networkActivity.getInFlightUrls(), timeoutMs);
+      }
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(e);
+    }
+  }
 }
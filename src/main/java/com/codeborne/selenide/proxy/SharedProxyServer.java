@@ -0,0 +1,176 @@
+package com.codeborne.selenide.proxy;
+
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.http.HttpRequest;
+import net.lightbody.bmp.BrowserMobProxy;
+import net.lightbody.bmp.BrowserMobProxyServer;
+import org.littleshoot.proxy.HttpFilters;
+import org.littleshoot.proxy.HttpFiltersSource;
+import org.littleshoot.proxy.HttpFiltersSourceAdapter;
+import org.littleshoot.proxy.HttpProxyServer;
+import org.openqa.selenium.Proxy;
+
+import java.lang.reflect.Field;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+/**
+ * One BrowserMob proxy server shared by all browsers (instead of starting a separate proxy server for every browser).
+ *
+ * Every session gets its own port: an additional listener of the same server which shares its threads.
+ * Traffic is attributed to sessions by the port it comes to, so every session has its own filters
+ * (and its own intercepted downloads).
+ *
+ * @see com.codeborne.selenide.Configuration#sharedProxyServer
+ */
+public class SharedProxyServer extends HttpFiltersSourceAdapter {
+  private static final Logger log = Logger.getLogger(SharedProxyServer.class.getName());
+
+  private static final Map<String, SharedProxyServer> servers = new ConcurrentHashMap<>();
+
+  /**
+   * @param outsideProxy another proxy server used by test author for his own need (can be null)
+   * @return proxy server shared by all sessions using the same outside proxy
+   */
+  public static SharedProxyServer forOutsideProxy(Proxy outsideProxy) {
+    String key = outsideProxy == null ? "" : outsideProxy.getHttpProxy();
+    return servers.computeIfAbsent(key, k -> new SharedProxyServer(outsideProxy));
+  }
+
+  private final Proxy outsideProxy;
+  final Map<Integer, Session> sessions = new ConcurrentHashMap<>();
+  BrowserMobProxy proxy = new BrowserMobProxyServer();
+  private HttpProxyServer server;
+
+  SharedProxyServer(Proxy outsideProxy) {
+    this.outsideProxy = outsideProxy;
+  }
+
+  /**
+   * Start listening a new port for one browser
+   *
+   * @param filters filters applied to traffic of this session only (in given order).
+   *                Only streaming filters are supported: shared server does not accumulate request and response contents.
+   */
+  public synchronized Session openSession(List<HttpFiltersSource> filters) {
+    for (HttpFiltersSource filter : filters) {
+      if (filter.getMaximumRequestBufferSizeInBytes() > 0 || filter.getMaximumResponseBufferSizeInBytes() > 0) {
+        throw new IllegalArgumentException("Shared proxy server supports only streaming filters, but got " + filter);
+      }
+    }
+
+    HttpProxyServer listener = server().clone().withPort(0).start();
+    Session session = new Session(listener.getListenAddress().getPort(), listener, filters);
+    sessions.put(session.port, session);
+    log.info("Opened proxy session :" + session.port + " (" + sessions.size() + " sessions)");
+    return session;
+  }
+
+  private HttpProxyServer server() {
+    if (server == null) {
+      proxy.setTrustAllServers(true);
+      if (outsideProxy != null) {
+        proxy.setChainedProxy(SelenideProxyServer.getProxyAddress(outsideProxy));
+      }
+      proxy.addLastHttpFilterFactory(this);
+      proxy.start();
+      server = littleProxyServer(proxy);
+      Runtime.getRuntime().addShutdownHook(new Thread(this::shutdown, "Selenide shared proxy shutdown"));
+      log.info("Started shared proxy server :" + proxy.getPort());
+    }
+    return server;
+  }
+
+  /**
+   * BrowserMob does not expose underlying LittleProxy server, but only LittleProxy can listen additional ports
+   * sharing the same threads and configuration (MITM, chained proxy, filters).
+   */
+  private static HttpProxyServer littleProxyServer(BrowserMobProxy proxy) {
+    try {
+      Field field = BrowserMobProxyServer.class.getDeclaredField("proxyServer");
+      field.setAccessible(true);
+      return (HttpProxyServer) field.get(proxy);
+    }
+    catch (ReflectiveOperationException | RuntimeException e) {
+      throw new IllegalStateException("Shared proxy server is not supported by this version of BrowserMob proxy", e);
+    }
+  }
+
+  private void shutdown() {
+    try {
+      proxy.abort();
+    }
+    catch (IllegalStateException alreadyStopped) {
+      log.fine("Shared proxy server is already stopped");
+    }
+  }
+
+  @Override
+  public HttpFilters filterRequest(HttpRequest originalRequest, ChannelHandlerContext ctx) {
+    if (ctx == null) return null;
+    SocketAddress localAddress = ctx.channel().localAddress();
+    if (!(localAddress instanceof InetSocketAddress)) return null;
+
+    Session session = sessions.get(((InetSocketAddress) localAddress).getPort());
+    return session == null ? null : session.filterRequest(originalRequest, ctx);
+  }
+
+  /**
+   * @return number of currently open sessions
+   */
+  public int getSessionsCount() {
+    return sessions.size();
+  }
+
+  /**
+   * Traffic of one browser
+   */
+  public class Session {
+    private final int port;
+    private final HttpProxyServer listener;
+    private final List<HttpFiltersSource> filters;
+
+    Session(int port, HttpProxyServer listener, List<HttpFiltersSource> filters) {
+      this.port = port;
+      this.listener = listener;
+      this.filters = new ArrayList<>(filters);
+    }
+
+    public int getPort() {
+      return port;
+    }
+
+    HttpFilters filterRequest(HttpRequest originalRequest, ChannelHandlerContext ctx) {
+      List<HttpFilters> requestFilters = new ArrayList<>(filters.size());
+      for (HttpFiltersSource filter : filters) {
+        HttpFilters requestFilter = filter.filterRequest(originalRequest, ctx);
+        if (requestFilter != null) {
+          requestFilters.add(requestFilter);
+        }
+      }
+      if (requestFilters.isEmpty()) return null;
+      return requestFilters.size() == 1 ? requestFilters.get(0) : new HttpFiltersChain(requestFilters);
+    }
+
+    /**
+     * Stop listening port of this session (shared server keeps running)
+     */
+    public void close() {
+      sessions.remove(port);
+      if (listener != null) {
+        listener.abort();
+      }
+      log.info("Closed proxy session :" + port + " (" + sessions.size() + " sessions)");
+    }
+
+    @Override
+    public String toString() {
+      return "Proxy session :" + port;
+    }
+  }
+}
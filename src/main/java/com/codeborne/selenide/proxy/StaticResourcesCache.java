@@ -0,0 +1,495 @@
+package com.codeborne.selenide.proxy;
+
+import com.codeborne.selenide.Configuration;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpContent;
+import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpObject;
+import io.netty.handler.codec.http.HttpRequest;
+import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.codec.http.LastHttpContent;
+import net.lightbody.bmp.filters.HttpsAwareFiltersAdapter;
+import org.apache.commons.io.FileUtils;
+import org.littleshoot.proxy.HttpFilters;
+import org.littleshoot.proxy.HttpFiltersSourceAdapter;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.text.ParseException;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static io.netty.handler.codec.http.HttpResponseStatus.OK;
+import static io.netty.handler.codec.http.HttpVersion.HTTP_1_1;
+import static java.lang.System.currentTimeMillis;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.util.logging.Level.FINE;
+import static java.util.logging.Level.SEVERE;
+import static java.util.regex.Pattern.CASE_INSENSITIVE;
+
+/**
+ * Caches static resources (scripts, styles, fonts, images) in proxy server, so that they are loaded
+ * from server only once per JVM, even though every browser starts with an empty cache.
+ *
+ * Resources are stored on disk (in a temporary folder). Total size is limited by
+ * {@link Configuration#proxyCacheSizeMb}: least recently used resources are evicted.
+ * The cache is shared by all proxy servers (sessions).
+ *
+ * Only successful responses to GET requests without "Cache-Control: no-store/no-cache/private" are cached.
+ * Responses to requests with cookies are cached only if they are explicitly shared ("Cache-Control: public"
+ * or "s-maxage"). Cached resources expire according to "Cache-Control: max-age" or "Expires" headers of response.
+ */
+public class StaticResourcesCache extends HttpFiltersSourceAdapter {
+  private static final Logger log = Logger.getLogger(StaticResourcesCache.class.getName());
+
+  public static StaticResourcesCache instance = new StaticResourcesCache();
+
+  static final long MAX_ENTRY_SIZE = 16 * 1024 * 1024; // 16 MB
+
+  private static final Pattern STATIC_URL =
+      Pattern.compile("[^?#]*\\.(js|css|woff2?|ttf|otf|eot|png|jpe?g|gif|svg|ico|webp)([?#].*)?", CASE_INSENSITIVE);
+
+  private static final Pattern STATIC_CONTENT_TYPE =
+      Pattern.compile("(text/css|text/javascript|application/(x-)?javascript|application/(x-)?font.*|font/.*|image/.*)" +
+          "(;.*)?", CASE_INSENSITIVE);
+
+  private static final Pattern SHARED_MAX_AGE = Pattern.compile("(?:^|[,\\s])s-maxage\\s*=\\s*\"?(\\d+)", CASE_INSENSITIVE);
+  private static final Pattern PUBLIC = Pattern.compile("(?:^|[,\\s])public(?:$|[,\\s])", CASE_INSENSITIVE);
+  private static final Pattern MAX_AGE = Pattern.compile("(?:^|[,\\s])max-age\\s*=\\s*\"?(\\d+)", CASE_INSENSITIVE);
+
+  private static final Set<String> NOT_CACHED_HEADERS = new HashSet<>(Arrays.asList(
+      "connection", "keep-alive", "proxy-connection", "transfer-encoding", "te", "trailer", "upgrade",
+      "content-length", "date", "age"));
+
+  private final Map<String, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+  private long totalSize;
+  private File folder;
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+
+  @Override
+  public HttpFilters filterRequest(HttpRequest originalRequest, ChannelHandlerContext ctx) {
+    return isCacheable(originalRequest) ? new CachingFilter(originalRequest, ctx) : null;
+  }
+
+  static boolean isCacheable(HttpRequest request) {
+    HttpHeaders headers = request.headers();
+    return HttpMethod.GET.equals(request.getMethod())
+        && !headers.contains(HttpHeaders.Names.RANGE)
+        && !headers.contains(HttpHeaders.Names.AUTHORIZATION);
+  }
+
+  /**
+   * @return true if response may be shared even though request contained cookies
+   * ("Cache-Control: public" or "s-maxage")
+   */
+  static boolean isPublic(HttpResponse response) {
+    String cacheControl = response.headers().get(HttpHeaders.Names.CACHE_CONTROL);
+    return cacheControl != null
+        && (PUBLIC.matcher(cacheControl).find() || SHARED_MAX_AGE.matcher(cacheControl).find());
+  }
+
+  static boolean isCacheable(String url, HttpResponse response) {
+    HttpHeaders headers = response.headers();
+    if (response.getStatus().code() != 200
+        || headers.contains(HttpHeaders.Names.SET_COOKIE)
+        || headers.contains("Content-Disposition")
+        || HttpHeaders.getContentLength(response, 0) > MAX_ENTRY_SIZE) {
+      return false;
+    }
+
+    String cacheControl = headers.get(HttpHeaders.Names.CACHE_CONTROL);
+    if (cacheControl != null && cacheControl.toLowerCase().matches(".*(no-store|no-cache|private).*")) {
+      return false;
+    }
+
+    if (expiresAt(response, currentTimeMillis()) <= currentTimeMillis()) {
+      return false;
+    }
+
+    String vary = headers.get(HttpHeaders.Names.VARY);
+    if (vary != null && !vary.trim().equalsIgnoreCase(HttpHeaders.Names.ACCEPT_ENCODING)) {
+      return false;
+    }
+
+    String contentType = headers.get(HttpHeaders.Names.CONTENT_TYPE);
+    return (contentType != null && STATIC_CONTENT_TYPE.matcher(contentType).matches())
+        || STATIC_URL.matcher(url).matches();
+  }
+
+  /**
+   * @return time when response becomes stale (by "Cache-Control: s-maxage/max-age" or "Expires" headers),
+   * or {@link Long#MAX_VALUE} if response does not tell it
+   */
+  static long expiresAt(HttpResponse response, long now) {
+    HttpHeaders headers = response.headers();
+    String cacheControl = headers.get(HttpHeaders.Names.CACHE_CONTROL);
+    if (cacheControl != null) {
+      String maxAge = find(SHARED_MAX_AGE, cacheControl);
+      if (maxAge == null) {
+        maxAge = find(MAX_AGE, cacheControl);
+      }
+      if (maxAge != null) {
+        long age = parseLongOrZero(headers.get(HttpHeaders.Names.AGE));
+        return now + (parseLongOrZero(maxAge) - age) * 1000;
+      }
+    }
+
+    if (headers.contains(HttpHeaders.Names.EXPIRES)) {
+      try {
+        Date expires = HttpHeaders.getDateHeader(response, HttpHeaders.Names.EXPIRES);
+        Date date = HttpHeaders.getDateHeader(response, HttpHeaders.Names.DATE, new Date(now));
+        return now + expires.getTime() - date.getTime();
+      }
+      catch (ParseException invalidDateMeansExpired) {
+        return now;
+      }
+    }
+    return Long.MAX_VALUE;
+  }
+
+  private static String find(Pattern pattern, String text) {
+    Matcher matcher = pattern.matcher(text);
+    return matcher.find() ? matcher.group(1) : null;
+  }
+
+  private static long parseLongOrZero(String value) {
+    try {
+      return value == null ? 0 : Long.parseLong(value.trim());
+    }
+    catch (NumberFormatException e) {
+      return 0;
+    }
+  }
+
+  /**
+   * @return response read from cache, or null if given url is not cached (or cached response has expired)
+   */
+  FullHttpResponse cachedResponse(String url) {
+    Entry entry;
+    synchronized (this) {
+      entry = entries.get(url);
+      if (entry != null && entry.expiresAt <= currentTimeMillis()) {
+        entries.remove(url);
+        remove(entry);
+        return null;
+      }
+    }
+    if (entry == null) return null;
+
+    byte[] content;
+    try {
+      content = Files.readAllBytes(entry.file.toPath());
+    }
+    catch (IOException evictedMeanwhile) {
+      log.log(FINE, "Failed to read cached " + url, evictedMeanwhile);
+      return null;
+    }
+
+    FullHttpResponse response = new DefaultFullHttpResponse(HTTP_1_1, OK, Unpooled.wrappedBuffer(content));
+    for (Map.Entry<String, String> header : entry.headers) {
+      response.headers().add(header.getKey(), header.getValue());
+    }
+    HttpHeaders.setContentLength(response, content.length);
+    hits.incrementAndGet();
+    return response;
+  }
+
+  /**
+   * Called when headers of response are received
+   *
+   * @return writer to store response content to, or null if response should not be cached
+   */
+  EntryWriter startCaching(String url, HttpResponse response) {
+    if (!isCacheable(url, response)) return null;
+    misses.incrementAndGet();
+
+    List<Map.Entry<String, String>> headers = new ArrayList<>();
+    for (Map.Entry<String, String> header : response.headers()) {
+      if (!NOT_CACHED_HEADERS.contains(header.getKey().toLowerCase())) {
+        headers.add(new SimpleImmutableEntry<>(header.getKey(), header.getValue()));
+      }
+    }
+    try {
+      return new EntryWriter(url, headers, expiresAt(response, currentTimeMillis()),
+          File.createTempFile("resource", ".cache", folder()));
+    }
+    catch (IOException e) {
+      log.log(SEVERE, "Failed to cache " + url, e);
+      return null;
+    }
+  }
+
+  private synchronized File folder() throws IOException {
+    if (folder == null) {
+      folder = Files.createTempDirectory("selenide-proxy-cache").toFile();
+      File cacheFolder = folder;
+      Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+        log.info(toString());
+        FileUtils.deleteQuietly(cacheFolder);
+      }, "Selenide proxy cache cleanup"));
+    }
+    return folder;
+  }
+
+  synchronized void put(String url, Entry entry) {
+    Entry previous = entries.put(url, entry);
+    if (previous != null) {
+      remove(previous);
+    }
+    totalSize += entry.size;
+
+    long maxSize = maxSize();
+    for (Iterator<Entry> it = entries.values().iterator(); totalSize > maxSize && it.hasNext(); ) {
+      Entry eldest = it.next();
+      it.remove();
+      remove(eldest);
+    }
+  }
+
+  private void remove(Entry entry) {
+    totalSize -= entry.size;
+    FileUtils.deleteQuietly(entry.file);
+  }
+
+  long maxSize() {
+    return Configuration.proxyCacheSizeMb * 1024 * 1024;
+  }
+
+  /**
+   * Remove all cached resources
+   */
+  public synchronized void clear() {
+    for (Entry entry : entries.values()) {
+      FileUtils.deleteQuietly(entry.file);
+    }
+    entries.clear();
+    totalSize = 0;
+  }
+
+  public synchronized int getSize() {
+    return entries.size();
+  }
+
+  public synchronized long getSizeInBytes() {
+    return totalSize;
+  }
+
+  public long getHits() {
+    return hits.get();
+  }
+
+  /**
+   * @return number of cacheable resources loaded from server
+   */
+  public long getMisses() {
+    return misses.get();
+  }
+
+  /**
+   * @return share of static resources served from cache (from 0 to 1)
+   */
+  public double getHitRatio() {
+    long hits = getHits();
+    long total = hits + getMisses();
+    return total == 0 ? 0 : (double) hits / total;
+  }
+
+  public void resetStatistics() {
+    hits.set(0);
+    misses.set(0);
+  }
+
+  @Override
+  public String toString() {
+    return String.format("Static resources cache: %d resources, %d bytes, hits: %d, misses: %d, hit ratio: %.1f%%",
+        getSize(), getSizeInBytes(), getHits(), getMisses(), getHitRatio() * 100);
+  }
+
+  /**
+   * Serves one request from cache, or stores its response to cache.
+   *
+   * Unfinished entry is deleted if response times out, or connection to browser or server gets closed.
+   */
+  private class CachingFilter extends HttpsAwareFiltersAdapter {
+    private final ChannelFutureListener abortOnDisconnect = future -> abortCaching();
+    private ChannelHandlerContext serverCtx;
+    private String url;
+    private volatile EntryWriter writer;
+
+    private CachingFilter(HttpRequest originalRequest, ChannelHandlerContext ctx) {
+      super(originalRequest, ctx);
+    }
+
+    @Override
+    public HttpResponse clientToProxyRequest(HttpObject httpObject) {
+      if (httpObject instanceof HttpRequest) {
+        url = getFullUrl(originalRequest);
+        return cachedResponse(url);
+      }
+      return null;
+    }
+
+    @Override
+    public void proxyToServerConnectionSucceeded(ChannelHandlerContext serverCtx) {
+      this.serverCtx = serverCtx;
+    }
+
+    @Override
+    public HttpObject serverToProxyResponse(HttpObject httpObject) {
+      if (httpObject instanceof HttpResponse && url != null) {
+        HttpResponse response = (HttpResponse) httpObject;
+        if (!originalRequest.headers().contains(HttpHeaders.Names.COOKIE) || isPublic(response)) {
+          writer = startCaching(url, response);
+          if (writer != null) {
+            watchDisconnect(ctx, true);
+            watchDisconnect(serverCtx, true);
+          }
+        }
+      }
+      EntryWriter writer = this.writer;
+      if (httpObject instanceof HttpContent && writer != null) {
+        writer.write(((HttpContent) httpObject).content());
+        if (httpObject instanceof LastHttpContent) {
+          writer.commit();
+          this.writer = null;
+          watchDisconnect(ctx, false);
+          watchDisconnect(serverCtx, false);
+        }
+      }
+      return httpObject;
+    }
+
+    @Override
+    public void serverToProxyResponseTimedOut() {
+      abortCaching();
+    }
+
+    @Override
+    public void proxyToServerConnectionFailed() {
+      abortCaching();
+    }
+
+    private void watchDisconnect(ChannelHandlerContext context, boolean watch) {
+      if (context == null) return;
+      if (watch) {
+        context.channel().closeFuture().addListener(abortOnDisconnect);
+      }
+      else {
+        context.channel().closeFuture().removeListener(abortOnDisconnect);
+      }
+    }
+
+    private void abortCaching() {
+      EntryWriter writer = this.writer;
+      if (writer != null) {
+        writer.abort();
+        this.writer = null;
+      }
+    }
+  }
+
+  static class Entry {
+    private final File file;
+    private final long size;
+    private final List<Map.Entry<String, String>> headers;
+    private final long expiresAt;
+
+    Entry(File file, long size, List<Map.Entry<String, String>> headers, long expiresAt) {
+      this.file = file;
+      this.size = size;
+      this.headers = headers;
+      this.expiresAt = expiresAt;
+    }
+  }
+
+  /**
+   * Writes one resource to disk while it's being passed to the browser.
+   * Can be aborted from another thread (when connection gets closed).
+   */
+  class EntryWriter {
+    private final String url;
+    private final List<Map.Entry<String, String>> headers;
+    private final long expiresAt;
+    private final File file;
+    private FileChannel channel;
+    private long size;
+
+    EntryWriter(String url, List<Map.Entry<String, String>> headers, long expiresAt, File file) throws IOException {
+      this.url = url;
+      this.headers = headers;
+      this.expiresAt = expiresAt;
+      this.file = file;
+      this.channel = FileChannel.open(file.toPath(), CREATE, WRITE, TRUNCATE_EXISTING);
+    }
+
+    synchronized void write(ByteBuf content) {
+      if (channel == null) return;
+      size += content.readableBytes();
+      if (size > MAX_ENTRY_SIZE) {
+        abort();
+        return;
+      }
+      try {
+        for (ByteBuffer buffer : content.nioBuffers()) {
+          while (buffer.hasRemaining()) {
+            channel.write(buffer);
+          }
+        }
+      }
+      catch (IOException e) {
+        log.log(SEVERE, "Failed to cache " + url, e);
+        abort();
+      }
+    }
+
+    synchronized void commit() {
+      if (channel == null) return;
+      try {
+        channel.close();
+        channel = null;
+        put(url, new Entry(file, size, headers, expiresAt));
+      }
+      catch (IOException e) {
+        log.log(SEVERE, "Failed to cache " + url, e);
+        abort();
+      }
+    }
+
+    synchronized void abort() {
+      try {
+        if (channel != null) {
+          channel.close();
+        }
+      }
+      catch (IOException e) {
+        log.log(FINE, "Failed to close " + file, e);
+      }
+      channel = null;
+      FileUtils.deleteQuietly(file);
+    }
+  }
+}
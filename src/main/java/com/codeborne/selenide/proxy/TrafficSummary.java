@@ -0,0 +1,142 @@
+package com.codeborne.selenide.proxy;
+
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.http.HttpContent;
+import io.netty.handler.codec.http.HttpObject;
+import io.netty.handler.codec.http.HttpRequest;
+import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.codec.http.LastHttpContent;
+import net.lightbody.bmp.filters.HttpsAwareFiltersAdapter;
+import org.littleshoot.proxy.HttpFilters;
+import org.littleshoot.proxy.HttpFiltersSourceAdapter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Summary of traffic passed through proxy server: number of requests, bytes sent and received, the slowest urls.
+ *
+ * Bytes are counted while content is streamed (content is not accumulated).
+ * Call {@link #reset()} before every test to get per-test summary:
+ * {@code WebDriverRunner.getSelenideProxy().getTrafficSummary().reset()}
+ */
+public class TrafficSummary extends HttpFiltersSourceAdapter {
+  private final int slowestUrlsCount;
+  private final AtomicLong requests = new AtomicLong();
+  private final AtomicLong requestBytes = new AtomicLong();
+  private final AtomicLong responseBytes = new AtomicLong();
+  private final PriorityQueue<UrlTiming> slowest = new PriorityQueue<>(Comparator.comparingLong(t -> t.durationMs));
+
+  public TrafficSummary(int slowestUrlsCount) {
+    this.slowestUrlsCount = slowestUrlsCount;
+  }
+
+  @Override
+  public HttpFilters filterRequest(HttpRequest originalRequest, ChannelHandlerContext ctx) {
+    return new HttpsAwareFiltersAdapter(originalRequest, ctx) {
+      private final long start = System.currentTimeMillis();
+
+      @Override
+      public HttpResponse clientToProxyRequest(HttpObject httpObject) {
+        if (httpObject instanceof HttpContent) {
+          requestBytes.addAndGet(((HttpContent) httpObject).content().readableBytes());
+        }
+        return null;
+      }
+
+      @Override
+      public HttpObject serverToProxyResponse(HttpObject httpObject) {
+        if (httpObject instanceof HttpContent) {
+          responseBytes.addAndGet(((HttpContent) httpObject).content().readableBytes());
+          if (httpObject instanceof LastHttpContent) {
+            completed(getFullUrl(originalRequest), System.currentTimeMillis() - start);
+          }
+        }
+        return httpObject;
+      }
+    };
+  }
+
+  void completed(String url, long durationMs) {
+    requests.incrementAndGet();
+    synchronized (slowest) {
+      if (slowest.size() < slowestUrlsCount) {
+        slowest.add(new UrlTiming(url, durationMs));
+      }
+      else if (!slowest.isEmpty() && slowest.peek().durationMs < durationMs) {
+        slowest.poll();
+        slowest.add(new UrlTiming(url, durationMs));
+      }
+    }
+  }
+
+  /**
+   * Start collecting new summary
+   */
+  public void reset() {
+    requests.set(0);
+    requestBytes.set(0);
+    responseBytes.set(0);
+    synchronized (slowest) {
+      slowest.clear();
+    }
+  }
+
+  /**
+   * @return number of completed requests
+   */
+  public long getRequestsCount() {
+    return requests.get();
+  }
+
+  public long getRequestBytes() {
+    return requestBytes.get();
+  }
+
+  public long getResponseBytes() {
+    return responseBytes.get();
+  }
+
+  /**
+   * @return the slowest requests, starting from the slowest one
+   */
+  public List<UrlTiming> getSlowestUrls() {
+    List<UrlTiming> result;
+    synchronized (slowest) {
+      result = new ArrayList<>(slowest);
+    }
+    result.sort(Collections.reverseOrder(slowest.comparator()));
+    return result;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder();
+    sb.append("Requests: ").append(getRequestsCount())
+        .append(", sent: ").append(getRequestBytes()).append(" bytes")
+        .append(", received: ").append(getResponseBytes()).append(" bytes");
+    for (UrlTiming timing : getSlowestUrls()) {
+      sb.append("\n  ").append(timing);
+    }
+    return sb.toString();
+  }
+
+  public static class UrlTiming {
+    public final String url;
+    public final long durationMs;
+
+    UrlTiming(String url, long durationMs) {
+      this.url = url;
+      this.durationMs = durationMs;
+    }
+
+    @Override
+    public String toString() {
+      return durationMs + " ms " + url;
+    }
+  }
+}
@@ -20,13 +20,16 @@ import org.openqa.selenium.remote.LocalFileDetector;
 import org.openqa.selenium.remote.RemoteWebDriver;
 
 import java.awt.*;
+import java.io.File;
 import java.io.IOException;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.logging.Logger;
 
 import static com.codeborne.selenide.Configuration.*;
@@ -37,6 +40,16 @@ import static org.openqa.selenium.remote.CapabilityType.*;
 public class WebDriverFactory {
   private static final Logger log = Logger.getLogger(WebDriverFactory.class.getName());
 
+  /**
+   * Content types which Firefox saves to downloads folder without asking
+   */
+  private static final String DOWNLOADED_CONTENT_TYPES = "application/octet-stream,application/pdf,application/zip," +
+      "application/x-zip-compressed,application/msword,application/vnd.ms-excel,application/vnd.ms-powerpoint," +
+      "application/vnd.openxmlformats-officedocument.wordprocessingml.document," +
+      "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet," +
+      "application/vnd.openxmlformats-officedocument.presentationml.presentation," +
+      "application/xml,text/xml,text/csv,text/plain,image/png,image/jpeg";
+
   public WebDriver createWebDriver(Proxy proxy) {
     log.config("Configuration.browser=" + browser);
     log.config("Configuration.browser.version=" + browserVersion);
@@ -73,6 +86,15 @@ public class WebDriverFactory {
     return webdriver;
   }
 
+  /**
+   * @return true if browsers created by this factory save downloaded files to
+   * {@link com.codeborne.selenide.impl.WebDriverContainer#getDownloadsFolder() downloads folder}
+   * (only local Chrome and Firefox are configured for it)
+   */
+  public boolean canDownloadToFolder() {
+    return remote == null && (CHROME.equalsIgnoreCase(browser) || isMarionette() || isFirefox());
+  }
+
   protected WebDriver createRemoteDriver(String remote, String browser, Proxy proxy) {
     try {
       DesiredCapabilities capabilities = createCommonCapabilities(proxy);
@@ -174,6 +196,13 @@ public class WebDriverFactory {
     if (chromeSwitches != null) {
       options.addArguments(chromeSwitches);
     }
+    File folder = webdriverContainer.getDownloadsFolder();
+    if (folder != null) {
+      Map<String, Object> prefs = new HashMap<>();
+      prefs.put("download.default_directory", folder.getAbsolutePath());
+      prefs.put("download.prompt_for_download", false);
+      options.setExperimentalOption("prefs", prefs);
+    }
     options = transferChromeOptionsFromSystemProperties(options, "chromeoptions.");
     try {
       log.config("Chrome options:" + options.toJson().toString());
@@ -200,6 +229,16 @@ public class WebDriverFactory {
     myProfile.setPreference("network.http.phishy-userpass-length", 255);
     myProfile.setPreference("security.csp.enable", false);
 
+    File folder = webdriverContainer.getDownloadsFolder();
+    if (folder != null) {
+      myProfile.setPreference("browser.download.dir", folder.getAbsolutePath());
+      myProfile.setPreference("browser.download.folderList", 2);
+      myProfile.setPreference("browser.download.useDownloadDir", true);
+      myProfile.setPreference("browser.download.manager.showWhenStarting", false);
+      myProfile.setPreference("browser.helperApps.neverAsk.saveToDisk", DOWNLOADED_CONTENT_TYPES);
+      myProfile.setPreference("pdfjs.disabled", true);
+    }
+
     DesiredCapabilities capabilities = createCommonCapabilities(proxy);
     myProfile = transferFirefoxProfileFromSystemProperties(myProfile, "firefoxprofile.");
     capabilities.setCapability("marionette", false);
@@ -34,7 +34,7 @@ public class ElementsCollectionTest {
 
     collection.shouldHave(size(2));
     
-    verify(collection, never()).sleep(anyLong());
+    verify(collection, never()).sleep(anyLong(), anyLong());
   }
 
   @Test
@@ -49,7 +49,7 @@ public class ElementsCollectionTest {
 
     collection.shouldHave(size(3));
     
-    verify(collection, times(2)).sleep(anyLong());
+    verify(collection, times(2)).sleep(anyLong(), anyLong());
   }
 
   @Test
@@ -1,10 +1,13 @@
 package com.codeborne.selenide.collections;
 
+import com.codeborne.selenide.Configuration;
+import com.codeborne.selenide.WebDriverRunner;
 import com.codeborne.selenide.ex.ElementNotFound;
 import com.codeborne.selenide.ex.TextsMismatch;
 import com.codeborne.selenide.impl.WebElementsCollection;
 import org.junit.Test;
 import org.openqa.selenium.WebElement;
+import org.openqa.selenium.remote.RemoteWebDriver;
 
 import java.util.List;
 
@@ -13,8 +16,9 @@ import static java.util.Collections.emptyList;
 import static java.util.Collections.singletonList;
 import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.*;
-import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.when;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
 
 public class ExactTextsTest {
 
@@ -51,6 +55,67 @@ public class ExactTextsTest {
     assertEquals(shouldMatch, exactTexts.apply(asList(mockedWebElement1, mockedWebElement2)));
   }
 
+  @Test
+  public void checksTextsOfAllElementsBySingleScriptCall() {
+    RemoteWebDriver webdriver = mock(RemoteWebDriver.class);
+    WebDriverRunner.setWebDriver(webdriver);
+    Configuration.evaluateConditionsInBrowser = true;
+    try {
+      WebElement element1 = mock(WebElement.class);
+      WebElement element2 = mock(WebElement.class);
+      when(webdriver.executeScript(anyString(), any())).thenReturn(asList("One", "Two"));
+
+      assertTrue(new ExactTexts("One", "Two").apply(asList(element1, element2)));
+      verifyNoMoreInteractions(element1, element2);
+    }
+    finally {
+      Configuration.evaluateConditionsInBrowser = false;
+      WebDriverRunner.closeWebDriver();
+    }
+  }
+
+  @Test
+  public void rechecksViaWebdriverOnlyElementsWhoseSnapshotTextDoesNotMatch() {
+    RemoteWebDriver webdriver = mock(RemoteWebDriver.class);
+    WebDriverRunner.setWebDriver(webdriver);
+    Configuration.evaluateConditionsInBrowser = true;
+    try {
+      WebElement element1 = mock(WebElement.class);
+      WebElement element2 = mock(WebElement.class);
+      WebElement element3 = mock(WebElement.class);
+      when(webdriver.executeScript(anyString(), any())).thenReturn(asList("One", "Loading...", "Three"));
+      when(element2.getText()).thenReturn("Loading...");
+
+      assertFalse(new ExactTexts("One", "Two", "Three").apply(asList(element1, element2, element3)));
+      verify(element2).getText();
+      verifyNoMoreInteractions(element1, element2, element3);
+    }
+    finally {
+      Configuration.evaluateConditionsInBrowser = false;
+      WebDriverRunner.closeWebDriver();
+    }
+  }
+
+  @Test
+  public void trustsWebdriver_ifSnapshotTextDiffersFromGetText() {
+    RemoteWebDriver webdriver = mock(RemoteWebDriver.class);
+    WebDriverRunner.setWebDriver(webdriver);
+    Configuration.evaluateConditionsInBrowser = true;
+    try {
+      WebElement element = mock(WebElement.class);
+      when(webdriver.executeScript(anyString(), any())).thenReturn(singletonList(""));
+      when(element.getText()).thenReturn("One Two");
+
+      assertTrue(new ExactTexts("One Two").apply(singletonList(element)));
+      assertTrue(new Texts("One").apply(singletonList(element)));
+      assertFalse(new Texts("Three").apply(singletonList(element)));
+    }
+    finally {
+      Configuration.evaluateConditionsInBrowser = false;
+      WebDriverRunner.closeWebDriver();
+    }
+  }
+
   @Test
   public void testFailWithNullElementsList() {
     failOnEmptyOrNullElementsList(null);
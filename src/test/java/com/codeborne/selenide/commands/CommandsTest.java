@@ -0,0 +1,60 @@
+package com.codeborne.selenide.commands;
+
+import com.codeborne.selenide.Command;
+import com.codeborne.selenide.SelenideElement;
+import com.codeborne.selenide.impl.WebElementSource;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class CommandsTest {
+  SelenideElement proxy = mock(SelenideElement.class);
+  WebElementSource locator = mock(WebElementSource.class);
+  Object[] args = new Object[0];
+
+  @Test
+  public void returnsSameInstance() {
+    assertSame(Commands.getInstance(), Commands.getInstance());
+  }
+
+  @Test
+  public void executesCommandByMethod() throws Exception {
+    Commands commands = new Commands();
+    commands.add("getText", command("text"));
+
+    assertEquals("text", commands.execute(proxy, locator, getText(), args));
+    assertEquals("text", commands.execute(proxy, locator, getText(), args));
+    assertEquals("text", commands.execute(proxy, locator, "getText", args));
+  }
+
+  @Test
+  public void commandCanBeOverriddenAfterItWasExecuted() throws Exception {
+    Commands commands = new Commands();
+    commands.add("getText", command("old text"));
+    assertEquals("old text", commands.execute(proxy, locator, getText(), args));
+
+    commands.add("getText", command("new text"));
+    assertEquals("new text", commands.execute(proxy, locator, getText(), args));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void failsForUnknownMethod() throws Exception {
+    new Commands().execute(proxy, locator, getText(), args);
+  }
+
+  private Method getText() throws NoSuchMethodException {
+    return SelenideElement.class.getMethod("getText");
+  }
+
+  private Command command(String result) throws IOException {
+    Command command = mock(Command.class);
+    when(command.execute(proxy, locator, args)).thenReturn(result);
+    return command;
+  }
+}
@@ -0,0 +1,54 @@
+package com.codeborne.selenide.impl;
+
+import com.codeborne.selenide.Configuration;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.asList;
+import static org.junit.Assert.*;
+
+public class ArtifactStoreTest {
+  ArtifactStore store = new ArtifactStore();
+  String reportsFolder = Configuration.reportsFolder;
+  File folder;
+
+  @Before
+  public void setUp() throws IOException {
+    folder = Files.createTempDirectory("selenide-reports").toFile();
+    Configuration.reportsFolder = folder.getAbsolutePath();
+  }
+
+  @After
+  public void tearDown() {
+    Configuration.reportsFolder = reportsFolder;
+  }
+
+  @Test
+  public void storesSameContentOnlyOnce() throws IOException {
+    File file1 = store.store("MyTest/test1.html", "<html>error</html>".getBytes(UTF_8));
+    File file2 = store.store("MyTest/test2.html", "<html>error</html>".getBytes(UTF_8));
+    File file3 = store.store("MyTest/test3.html", "<html>another error</html>".getBytes(UTF_8));
+
+    assertEquals(file1, file2);
+    assertNotEquals(file1, file3);
+    assertEquals(new File(folder, "artifacts"), file1.getParentFile());
+    assertTrue(file1.getName().endsWith(".html"));
+    assertEquals("<html>error</html>", new String(Files.readAllBytes(file1.toPath()), UTF_8));
+    assertEquals(3, new File(folder, "artifacts").list().length); // 2 files + index
+  }
+
+  @Test
+  public void indexMapsScreenshotNamesToStoredFiles() throws IOException {
+    File file1 = store.store("MyTest/test1.png", new byte[]{1, 2, 3});
+    File file2 = store.store("MyTest/test2.png", new byte[]{1, 2, 3});
+
+    assertEquals(asList("MyTest/test1.png\t" + file1.getName(), "MyTest/test2.png\t" + file2.getName()),
+        Files.readAllLines(new File(folder, "artifacts/index.txt").toPath(), UTF_8));
+  }
+}
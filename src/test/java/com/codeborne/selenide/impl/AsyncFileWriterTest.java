@@ -0,0 +1,77 @@
+package com.codeborne.selenide.impl;
+
+import com.codeborne.selenide.Configuration;
+import com.codeborne.selenide.WebDriverRunner;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.remote.RemoteWebDriver;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.Future;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class AsyncFileWriterTest {
+  AsyncFileWriter writer = new AsyncFileWriter(1, 2);
+  File folder;
+  String reportsFolder = Configuration.reportsFolder;
+
+  @Before
+  public void setUp() throws IOException {
+    folder = Files.createTempDirectory("selenide-reports").toFile();
+  }
+
+  @After
+  public void tearDown() {
+    Configuration.reportsFolder = reportsFolder;
+    Configuration.asyncScreenshots = false;
+  }
+
+  @Test
+  public void writesFilesInBackground() throws Exception {
+    Future<File> future = writer.write("hello".getBytes(UTF_8), new File(folder, "sub/hello.txt"));
+
+    assertEquals(new File(folder, "sub/hello.txt"), future.get());
+    assertEquals("hello", new String(Files.readAllBytes(future.get().toPath()), UTF_8));
+  }
+
+  @Test
+  public void flushWaitsForAllPendingFiles() {
+    for (int i = 0; i < 10; i++) {
+      writer.write(new byte[100_000], new File(folder, i + ".png"));
+    }
+
+    assertTrue(writer.flush(10_000));
+    for (int i = 0; i < 10; i++) {
+      assertEquals(100_000, new File(folder, i + ".png").length());
+    }
+  }
+
+  @Test
+  public void screenshotLaboratoryWritesFilesInBackground_ifConfigured() throws Exception {
+    Configuration.asyncScreenshots = true;
+    Configuration.reportsFolder = folder.getAbsolutePath();
+    RemoteWebDriver webdriver = mock(RemoteWebDriver.class);
+    when(webdriver.getScreenshotAs(OutputType.BYTES)).thenReturn(new byte[]{1, 2, 3});
+    when(webdriver.getPageSource()).thenReturn("<html/>");
+    WebDriverRunner.setWebDriver(webdriver);
+    try {
+      String screenshot = new ScreenShotLaboratory().takeScreenShot("async/screenshot");
+
+      assertEquals(new File(folder, "async/screenshot.png").getAbsolutePath(), screenshot);
+      assertTrue(AsyncFileWriter.instance.flush(10_000));
+      assertEquals(3, new File(screenshot).length());
+      assertEquals("<html/>", new String(Files.readAllBytes(new File(folder, "async/screenshot.html").toPath()), UTF_8));
+    }
+    finally {
+      WebDriverRunner.closeWebDriver();
+    }
+  }
+}
@@ -0,0 +1,114 @@
+package com.codeborne.selenide.impl;
+
+import com.codeborne.selenide.Configuration;
+import com.codeborne.selenide.ex.ImageMismatch;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import static java.awt.image.BufferedImage.TYPE_INT_ARGB;
+import static org.junit.Assert.*;
+
+public class BaselinesTest {
+  Baselines baselines = new Baselines();
+  String baselinesFolder = Configuration.baselinesFolder;
+  String reportsFolder = Configuration.reportsFolder;
+  File folder;
+
+  @Before
+  public void setUp() throws IOException {
+    folder = Files.createTempDirectory("selenide-baselines").toFile();
+    Configuration.baselinesFolder = new File(folder, "baselines").getAbsolutePath();
+    Configuration.reportsFolder = new File(folder, "reports").getAbsolutePath();
+  }
+
+  @After
+  public void tearDown() {
+    Configuration.baselinesFolder = baselinesFolder;
+    Configuration.reportsFolder = reportsFolder;
+  }
+
+  @Test
+  public void failsAndSavesActualScreenshotIfBaselineDoesNotExist() throws IOException {
+    try {
+      baselines.check("#logo", "logo", image(20, 10, 0xFF336699), 0);
+      fail("expected ImageMismatch");
+    }
+    catch (ImageMismatch expected) {
+      assertTrue(expected.getMessage(), expected.getMessage().startsWith("Baseline logo for {#logo} does not exist"));
+    }
+
+    assertFalse(new File(folder, "baselines/logo.png").exists());
+    BufferedImage saved = ImageIO.read(new File(folder, "reports/baselines/logo.actual.png"));
+    assertEquals(20, saved.getWidth());
+    assertEquals(0xFF336699, saved.getRGB(19, 9));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void toleranceCannotBeNegative() throws IOException {
+    saveBaseline("logo", image(20, 10, 0xFF336699));
+
+    baselines.check("#logo", "logo", image(20, 10, 0xFF000000), -1);
+  }
+
+  @Test
+  public void passesIfScreenshotMatchesBaseline() throws IOException {
+    saveBaseline("logo", image(20, 10, 0xFF336699));
+    BufferedImage actual = image(20, 10, 0xFF336699);
+    actual.setRGB(0, 0, 0xFF000000);
+
+    baselines.check("#logo", "logo", actual, 0.01);
+
+    assertFalse(new File(folder, "reports/baselines/logo.actual.png").exists());
+  }
+
+  @Test
+  public void failsAndSavesDiffIfScreenshotDoesNotMatchBaseline() throws IOException {
+    saveBaseline("logo", image(20, 10, 0xFF336699));
+
+    try {
+      baselines.check("#logo", "logo", image(20, 10, 0xFF000000), 0.1);
+      fail("expected ImageMismatch");
+    }
+    catch (ImageMismatch expected) {
+      assertTrue(expected.getMessage(), expected.getMessage().startsWith("Element should match baseline logo {#logo}"));
+    }
+    assertTrue(new File(folder, "reports/baselines/logo.actual.png").exists());
+    assertTrue(new File(folder, "reports/baselines/logo.diff.png").exists());
+  }
+
+  @Test
+  public void failsIfScreenshotHasDifferentSize() throws IOException {
+    saveBaseline("logo", image(20, 10, 0xFF336699));
+
+    try {
+      baselines.check("#logo", "logo", image(20, 11, 0xFF336699), 1);
+      fail("expected ImageMismatch");
+    }
+    catch (ImageMismatch expected) {
+      assertTrue(expected.getMessage(), expected.getMessage().contains("Expected size: 20x10, actual size: 20x11"));
+    }
+  }
+
+  private void saveBaseline(String name, BufferedImage image) throws IOException {
+    File baseline = new File(Configuration.baselinesFolder, name + ".png");
+    assertTrue(baseline.getParentFile().mkdirs());
+    ImageIO.write(image, "png", baseline);
+  }
+
+  private BufferedImage image(int width, int height, int color) {
+    BufferedImage image = new BufferedImage(width, height, TYPE_INT_ARGB);
+    for (int x = 0; x < width; x++) {
+      for (int y = 0; y < height; y++) {
+        image.setRGB(x, y, color);
+      }
+    }
+    return image;
+  }
+}
@@ -1,17 +1,23 @@
 package com.codeborne.selenide.impl;
 
 import com.codeborne.selenide.Condition;
+import com.codeborne.selenide.Configuration;
+import com.codeborne.selenide.WebDriverRunner;
 import com.codeborne.selenide.SelenideElement;
 import com.codeborne.selenide.ex.ElementNotFound;
 import org.junit.Test;
 import org.openqa.selenium.WebElement;
+import org.openqa.selenium.remote.RemoteWebDriver;
 
 import java.util.List;
 
 import static java.util.Arrays.asList;
 import static java.util.Collections.singletonList;
 import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
 public class CollectionElementByConditionTest {
@@ -43,6 +49,32 @@ public class CollectionElementByConditionTest {
     assertEquals(mockedWebElement2, collectionElement.getWebElement());
   }
 
+  @Test
+  public void findsFirstMatchingElementInBrowser() {
+    RemoteWebDriver webdriver = mock(RemoteWebDriver.class);
+    WebDriverRunner.setWebDriver(webdriver);
+    Configuration.evaluateConditionsInBrowser = true;
+    try {
+      WebElementsCollection mockedWebElementCollection = mock(WebElementsCollection.class);
+      WebElement mockedWebElement1 = mock(WebElement.class);
+      WebElement mockedWebElement2 = mock(WebElement.class);
+      List<WebElement> listOfMockedElements = asList(mockedWebElement1, mockedWebElement2);
+      when(mockedWebElementCollection.getActualElements()).thenReturn(listOfMockedElements);
+      when(webdriver.executeScript(anyString(), eq(listOfMockedElements), eq(1)))
+          .thenReturn(singletonList(mockedWebElement2));
+
+      CollectionElementByCondition collectionElement =
+          new CollectionElementByCondition(mockedWebElementCollection, Condition.cssClass("active"));
+
+      assertEquals(mockedWebElement2, collectionElement.getWebElement());
+      verifyNoMoreInteractions(mockedWebElement1, mockedWebElement2);
+    }
+    finally {
+      Configuration.evaluateConditionsInBrowser = false;
+      WebDriverRunner.closeWebDriver();
+    }
+  }
+
   @Test
   public void testGetSearchCriteria() {
     String collectionDescription = "Collection description";
@@ -0,0 +1,129 @@
+package com.codeborne.selenide.impl;
+
+import com.codeborne.selenide.Condition;
+import com.codeborne.selenide.WebDriverRunner;
+import org.junit.After;
+import org.junit.Test;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.remote.RemoteWebDriver;
+
+import static com.codeborne.selenide.Condition.*;
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class ConditionScriptTest {
+  RemoteWebDriver webdriver = mock(RemoteWebDriver.class);
+  WebElement element = mock(WebElement.class);
+
+  @After
+  public void tearDown() {
+    WebDriverRunner.closeWebDriver();
+  }
+
+  @Test
+  public void escapesStringLiterals() {
+    assertEquals("\"it\\u0027s \\\"quoted\\\"\\n\"", ConditionScript.literal("it's \"quoted\"\n"));
+  }
+
+  @Test
+  public void builtInConditionsHaveJavascript() {
+    assertEquals("visible(e)", visible.javascript());
+    assertEquals("!visible(e)", hidden.javascript());
+    assertEquals("attrValue(e, \"href\") === \"http://site/\"", attribute("href", "http://site/").javascript());
+    assertEquals("hasClass(e, \"active\")", cssClass("active").javascript());
+    assertEquals("!(enabled(e))", not(enabled).javascript());
+    assertEquals("visible(e)", be(visible).because("it's important").javascript());
+  }
+
+  @Test
+  public void composesJavascriptOfCompoundConditions() {
+    assertEquals("(visible(e)) && (hasClass(e, \"active\"))", and("both", visible, cssClass("active")).javascript());
+    assertEquals("(visible(e)) || (selected(e))", or("any", visible, selected).javascript());
+  }
+
+  @Test
+  public void conditionWithoutJavascriptMakesWholeTreeNonEvaluable() {
+    Condition custom = new Condition("custom") {
+      @Override
+      public boolean apply(WebElement element) {
+        return true;
+      }
+    };
+    assertNull(custom.javascript());
+    assertNull(and("both", visible, custom).javascript());
+    assertNull(not(custom).javascript());
+    assertNull(matchText("a.*b").javascript());
+    assertNull(empty.javascript());
+  }
+
+  @Test
+  public void evaluatesConditionWithSingleScriptCall() {
+    WebDriverRunner.setWebDriver(webdriver);
+    when(webdriver.executeScript(anyString(), eq(element))).thenReturn(true);
+
+    assertTrue(ConditionScript.instance.matches(element, and("both", enabled, cssClass("active"))));
+    verify(webdriver).executeScript(anyString(), eq(element));
+    verifyNoMoreInteractions(element);
+  }
+
+  @Test
+  public void usesSeleniumAtomsForVisibilityAndAttributes() {
+    assertTrue(ConditionScript.FUNCTIONS.startsWith("var visible = function(){return function(){"));
+    assertTrue(ConditionScript.FUNCTIONS.contains("\nvar attr = function(){return function(){"));
+  }
+
+  @Test
+  public void checksTextsViaWebdriver() {
+    WebDriverRunner.setWebDriver(webdriver);
+
+    assertNull(text("Hello").javascript());
+    assertNull(textCaseSensitive("Hello").javascript());
+    assertNull(exactText("Hello").javascript());
+    assertNull(exactTextCaseSensitive("Hello").javascript());
+    assertNull(ConditionScript.instance.matches(element, not(text("Hello"))));
+    verify(webdriver, never()).executeScript(anyString(), any());
+  }
+
+  @Test
+  public void doesNotCallBrowser_ifConditionCannotBeEvaluatedInBrowser() {
+    WebDriverRunner.setWebDriver(webdriver);
+
+    assertNull(ConditionScript.instance.matches(element, matchText("a.*b")));
+    verify(webdriver, never()).executeScript(anyString(), any());
+  }
+
+  @Test
+  public void filterScriptPushesMatchingElements() {
+    String script = new ConditionScript().filterScript("visible(e)");
+    assertTrue(script.contains("if (visible(e)) result.push(e);"));
+    assertTrue(script.contains("result.length < limit"));
+  }
+
+  @Test
+  public void doesNotFilterInBrowser_ifConditionCannotBeEvaluatedInBrowser() {
+    WebDriverRunner.setWebDriver(webdriver);
+
+    assertNull(ConditionScript.instance.filter(singletonList(element), matchText("a.*b"), 1));
+    verify(webdriver, never()).executeScript(anyString(), any());
+  }
+
+  @Test
+  public void doesNotFilterInBrowser_byTexts() {
+    WebDriverRunner.setWebDriver(webdriver);
+
+    assertNull(ConditionScript.instance.filter(singletonList(element), text("Hello"), Integer.MAX_VALUE));
+    assertNull(ConditionScript.instance.filter(singletonList(element), not(exactText("Hello")), Integer.MAX_VALUE));
+    assertNull(ConditionScript.instance.filter(singletonList(element), and("both", visible, text("Hello")), 1));
+    verify(webdriver, never()).executeScript(anyString(), any());
+  }
+
+  @Test
+  public void scriptReturnsBooleanExpression() {
+    String script = new ConditionScript().script("visible(e)");
+    assertTrue(script.contains("var e = arguments[0];\n"));
+    assertTrue(script.endsWith("return !!(visible(e));"));
+  }
+}
@@ -0,0 +1,100 @@
+package com.codeborne.selenide.impl;
+
+import com.codeborne.selenide.Configuration;
+import com.codeborne.selenide.WebDriverRunner;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.remote.RemoteWebDriver;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class DomChangesWaiterTest {
+  DomChangesWaiter waiter = spy(new DomChangesWaiter());
+  RemoteWebDriver webdriver = mock(RemoteWebDriver.class);
+
+  @Before
+  public void setUp() {
+    doNothing().when(waiter).sleep(anyLong());
+    WebDriverRunner.setWebDriver(webdriver);
+  }
+
+  @After
+  public void tearDown() {
+    Configuration.waitForDomChanges = false;
+    WebDriverRunner.closeWebDriver();
+  }
+
+  @Test
+  public void sleepsForPollingInterval_ifFeatureIsDisabled() {
+    Configuration.waitForDomChanges = false;
+
+    waiter.waitForChanges(100, 4000);
+
+    verify(waiter).sleep(100);
+    verify(webdriver, never()).executeAsyncScript(anyString(), any());
+  }
+
+  @Test
+  public void waitsForDomMutationInBrowser() {
+    Configuration.waitForDomChanges = true;
+    when(webdriver.executeAsyncScript(anyString(), any(), any())).thenReturn("1:0", "1:5");
+
+    waiter.waitForChanges(100, 300);
+    waiter.waitForChanges(100, 300);
+
+    verify(webdriver).executeAsyncScript(anyString(), eq(""), eq(100L));
+    verify(webdriver).executeAsyncScript(anyString(), eq("1:0"), eq(100L));
+    verify(webdriver, never()).manage();
+    verify(waiter, never()).sleep(anyLong());
+  }
+
+  @Test
+  public void comparesMutationsCounterWithItsValueAfterPreviousWait() {
+    Configuration.waitForDomChanges = true;
+    when(webdriver.executeAsyncScript(anyString(), any(), any())).thenReturn("1:0", "1:3", "2:0");
+
+    waiter.waitForChanges(100, 300);
+    waiter.waitForChanges(100, 300);
+    waiter.waitForChanges(100, 300);
+    waiter.waitForChanges(100, 300);
+
+    verify(webdriver).executeAsyncScript(anyString(), eq(""), eq(100L));
+    verify(webdriver).executeAsyncScript(anyString(), eq("1:0"), eq(100L));
+    verify(webdriver).executeAsyncScript(anyString(), eq("1:3"), eq(100L));
+    verify(webdriver).executeAsyncScript(anyString(), eq("2:0"), eq(100L));
+  }
+
+  @Test
+  public void waitsNotLongerThanRemainingTimeout() {
+    Configuration.waitForDomChanges = true;
+    when(webdriver.executeAsyncScript(anyString(), any(), any())).thenReturn("1:0");
+
+    waiter.waitForChanges(100, 30);
+
+    verify(webdriver).executeAsyncScript(anyString(), eq(""), eq(30L));
+  }
+
+  @Test
+  public void fallsBackToSleeping_ifBrowserDoesNotSupportMutationObserver() {
+    Configuration.waitForDomChanges = true;
+    when(webdriver.executeAsyncScript(anyString(), any(), any())).thenReturn(null);
+
+    waiter.waitForChanges(100, 300);
+
+    verify(waiter).sleep(100);
+  }
+
+  @Test
+  public void fallsBackToSleepingTheRestOfPollingInterval_ifScriptFails() {
+    Configuration.waitForDomChanges = true;
+    when(webdriver.executeAsyncScript(anyString(), any(), any())).thenThrow(new TimeoutException("page reloaded"));
+
+    waiter.waitForChanges(100, 300);
+
+    verify(waiter).sleep(longThat(ms -> ms > 0 && ms <= 100));
+  }
+}
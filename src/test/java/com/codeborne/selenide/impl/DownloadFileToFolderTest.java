@@ -0,0 +1,75 @@
+package com.codeborne.selenide.impl;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.WatchService;
+import java.util.HashSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.util.Collections.singleton;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.junit.Assert.*;
+
+public class DownloadFileToFolderTest {
+  DownloadFileToFolder downloader = new DownloadFileToFolder();
+
+  @Test
+  public void recognizesPartiallyDownloadedFiles() {
+    assertTrue(DownloadFileToFolder.isPartialDownload("report.pdf.crdownload"));
+    assertTrue(DownloadFileToFolder.isPartialDownload("report.pdf.part"));
+    assertFalse(DownloadFileToFolder.isPartialDownload("report.pdf"));
+  }
+
+  @Test
+  public void ignoresExistingAndPartiallyDownloadedFiles() throws IOException {
+    File folder = Files.createTempDirectory("downloads").toFile();
+    Files.write(new File(folder, "old.txt").toPath(), "old".getBytes(UTF_8));
+    Files.write(new File(folder, "report.pdf").toPath(), new byte[0]);
+    Files.write(new File(folder, "report.pdf.part").toPath(), "%PDF".getBytes(UTF_8));
+
+    assertNull(downloader.findNewFile(folder, singleton("old.txt")));
+
+    Files.delete(new File(folder, "report.pdf.part").toPath());
+    assertEquals("report.pdf", downloader.findNewFile(folder, singleton("old.txt")).getName());
+  }
+
+  @Test
+  public void waitsUntilDownloadIsCompleted() throws IOException {
+    File folder = Files.createTempDirectory("downloads").toFile();
+    File partial = new File(folder, "report.csv.crdownload");
+    File complete = new File(folder, "report.csv");
+
+    ScheduledExecutorService browser = Executors.newSingleThreadScheduledExecutor();
+    try (WatchService watcher = folder.toPath().getFileSystem().newWatchService()) {
+      folder.toPath().register(watcher, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+      browser.schedule(() -> Files.write(partial.toPath(), "a,b".getBytes(UTF_8)), 100, MILLISECONDS);
+      browser.schedule(() -> Files.move(partial.toPath(), complete.toPath()), 300, MILLISECONDS);
+
+      File downloaded = downloader.waitForNewFile(watcher, folder, new HashSet<>(), 10000);
+
+      assertEquals(complete, downloaded);
+      assertEquals("a,b", new String(Files.readAllBytes(downloaded.toPath()), UTF_8));
+    }
+    finally {
+      browser.shutdown();
+    }
+  }
+
+  @Test
+  public void returnsNullIfNoFileIsDownloadedInTime() throws IOException {
+    File folder = Files.createTempDirectory("downloads").toFile();
+    try (WatchService watcher = folder.toPath().getFileSystem().newWatchService()) {
+      folder.toPath().register(watcher, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+
+      assertNull(downloader.waitForNewFile(watcher, folder, new HashSet<>(), 200));
+    }
+  }
+}
@@ -1,8 +1,33 @@
 package com.codeborne.selenide.impl;
 
+import com.codeborne.selenide.Configuration;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.CookieStore;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.impl.client.BasicCookieStore;
+import org.apache.http.impl.cookie.BasicClientCookie;
+import org.apache.http.message.BasicHttpResponse;
 import org.junit.Test;
+import org.openqa.selenium.Cookie;
+import org.openqa.selenium.WebElement;
 
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.asList;
+import static java.util.Collections.singleton;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 public class DownloadFileWithHttpRequestTest {
   DownloadFileWithHttpRequest d = new DownloadFileWithHttpRequest();
@@ -18,4 +43,137 @@ public class DownloadFileWithHttpRequestTest {
     assertEquals("selenide-2.6.1.jar", d.getFileNameFromContentDisposition(
         "content-disposition", "attachement; filename=selenide-2.6.1.jar"));
   }
+
+  @Test
+  public void synchronizesOnlyChangedCookies() {
+    DownloadFileWithHttpRequest.SessionCookies cookies = d.new SessionCookies();
+    Cookie session = new Cookie("session", "123", "site.com", "/", null);
+    Cookie locale = new Cookie("locale", "en", "site.com", "/", null);
+
+    BasicCookieStore store = cookies.sync(new HashSet<>(asList(session, locale)));
+    assertEquals(2, store.getCookies().size());
+
+    store = cookies.sync(new HashSet<>(asList(session, new Cookie("locale", "et", "site.com", "/", null))));
+    assertEquals(2, store.getCookies().size());
+    assertEquals("et", store.getCookies().stream().filter(c -> c.getName().equals("locale")).findAny().get().getValue());
+
+    store = cookies.sync(singleton(locale));
+    assertEquals(1, store.getCookies().size());
+    assertEquals("locale", store.getCookies().get(0).getName());
+  }
+
+  @Test
+  public void cookiesSetByDownloadResponseDoNotGetIntoSessionCookies() {
+    DownloadFileWithHttpRequest.SessionCookies cookies = d.new SessionCookies();
+    BasicCookieStore store = cookies.sync(singleton(new Cookie("session", "123", "site.com", "/", null)));
+
+    CookieStore requestCookies = new DownloadFileWithHttpRequest.RequestCookies(store);
+    requestCookies.addCookie(new BasicClientCookie("tracking", "456"));
+
+    assertEquals(2, requestCookies.getCookies().size());
+    assertEquals(1, store.getCookies().size());
+    assertEquals(1, cookies.sync(singleton(new Cookie("session", "123", "site.com", "/", null))).getCookies().size());
+  }
+
+  @Test
+  public void requestCookiesReadSessionCookiesAndOverrideThemLocally() {
+    BasicCookieStore store = new BasicCookieStore();
+    store.addCookie(cookie("session", "123"));
+    store.addCookie(cookie("locale", "en"));
+    CookieStore requestCookies = new DownloadFileWithHttpRequest.RequestCookies(store);
+
+    requestCookies.addCookie(cookie("session", "456"));
+    BasicClientCookie deleted = cookie("locale", "");
+    deleted.setExpiryDate(new Date(0));
+    requestCookies.addCookie(deleted);
+    store.addCookie(cookie("theme", "dark"));
+
+    assertEquals(2, requestCookies.getCookies().size());
+    assertEquals("456", value(requestCookies, "session"));
+    assertEquals("dark", value(requestCookies, "theme"));
+    assertEquals("123", value(store, "session"));
+    assertEquals("en", value(store, "locale"));
+  }
+
+  @Test
+  public void givesUniqueNamesToFilesOfOneBatch() {
+    Set<String> targetFiles = new HashSet<>();
+    File folder = new File("build/downloads");
+
+    assertEquals("report.pdf", DownloadFileWithHttpRequest.uniqueFile(new File(folder, "report.pdf"), targetFiles).getName());
+    assertEquals("report (1).pdf", DownloadFileWithHttpRequest.uniqueFile(new File(folder, "report.pdf"), targetFiles).getName());
+    assertEquals("Report (2).pdf", DownloadFileWithHttpRequest.uniqueFile(new File(folder, "Report.pdf"), targetFiles).getName());
+    assertEquals("README", DownloadFileWithHttpRequest.uniqueFile(new File(folder, "README"), targetFiles).getName());
+    assertEquals("README (1)", DownloadFileWithHttpRequest.uniqueFile(new File(folder, "README"), targetFiles).getName());
+  }
+
+  @Test
+  public void savesResponseContentToFile() throws IOException {
+    File file = File.createTempFile("download", ".txt");
+    file.deleteOnExit();
+
+    assertSame(file, d.saveFileContent(response(200, "Hello, world!"), file));
+    assertEquals("Hello, world!", new String(Files.readAllBytes(file.toPath()), UTF_8));
+  }
+
+  @Test(expected = FileNotFoundException.class)
+  public void failsIfServerRespondsWith404() throws IOException {
+    d.saveResponse("http://site.com/report.pdf", response(404, "Not found"));
+  }
+
+  @Test
+  public void downloadsMultipleFilesInParallel() throws IOException {
+    String reportsFolder = Configuration.reportsFolder;
+    Configuration.reportsFolder = Files.createTempDirectory("downloads").toString();
+    BasicCookieStore cookies = new BasicCookieStore();
+    DownloadFileWithHttpRequest downloader = new DownloadFileWithHttpRequest() {
+      @Override
+      protected BasicCookieStore mimicCookieState() {
+        return cookies;
+      }
+
+      @Override
+      protected HttpResponse executeHttpRequest(String url, CookieStore cookieStore) {
+        assertSame(cookies, cookieStore);
+        return response(200, "content of " + url);
+      }
+    };
+
+    try {
+      List<File> files = downloader.download(asList(
+          link("http://site.com/a.txt"), link("http://site.com/b.txt"), link("http://site.com/a.txt")));
+
+      assertEquals(3, new HashSet<>(files).size());
+      assertEquals("b.txt", files.get(1).getName());
+      assertEquals("content of http://site.com/b.txt", new String(Files.readAllBytes(files.get(1).toPath()), UTF_8));
+      assertEquals(new HashSet<>(asList("a.txt", "a (1).txt")),
+          new HashSet<>(asList(files.get(0).getName(), files.get(2).getName())));
+    }
+    finally {
+      Configuration.reportsFolder = reportsFolder;
+    }
+  }
+
+  private static BasicClientCookie cookie(String name, String value) {
+    BasicClientCookie cookie = new BasicClientCookie(name, value);
+    cookie.setDomain("site.com");
+    cookie.setPath("/");
+    return cookie;
+  }
+
+  private static String value(CookieStore cookies, String name) {
+    return cookies.getCookies().stream().filter(c -> c.getName().equals(name)).findAny().get().getValue();
+  }
+
+  private static HttpResponse response(int status, String content) {
+    HttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, status, "");
+    response.setEntity(new ByteArrayEntity(content.getBytes(UTF_8)));
+    return response;
+  }
+
+  private static WebElement link(String href) {
+    WebElement link = mock(WebElement.class);
+    when(link.getAttribute("href")).thenReturn(href);
+    return link;
+  }
 }
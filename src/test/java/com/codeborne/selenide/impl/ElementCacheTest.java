@@ -0,0 +1,151 @@
+package com.codeborne.selenide.impl;
+
+import com.codeborne.selenide.Configuration;
+import com.codeborne.selenide.SelenideElement;
+import com.codeborne.selenide.WebDriverRunner;
+import com.codeborne.selenide.commands.Exists;
+import com.codeborne.selenide.commands.IsDisplayed;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.openqa.selenium.By;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.remote.RemoteWebDriver;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class ElementCacheTest {
+  RemoteWebDriver webdriver = mock(RemoteWebDriver.class);
+  WebElement element1 = mock(WebElement.class);
+  WebElement element2 = mock(WebElement.class);
+  ElementFinder finder = new ElementFinder(null, By.id("app"), 0);
+
+  @Before
+  public void setUp() {
+    WebDriverRunner.setWebDriver(webdriver);
+    when(webdriver.findElement(By.id("app"))).thenReturn(element1, element2);
+    ElementCache.instance.resetStatistics();
+    Configuration.cacheElements = true;
+  }
+
+  @After
+  public void tearDown() {
+    Configuration.cacheElements = false;
+    WebDriverRunner.closeWebDriver();
+  }
+
+  @Test
+  public void reusesFoundElement() {
+    assertSame(element1, finder.getWebElement());
+    assertSame(element1, finder.getWebElement());
+    assertSame(element1, finder.getWebElement());
+
+    verify(webdriver, times(1)).findElement(By.id("app"));
+    assertEquals(2, ElementCache.instance.getHits());
+    assertEquals(1, ElementCache.instance.getMisses());
+  }
+
+  @Test
+  public void searchesElementAgainAfterInvalidation() {
+    assertSame(element1, finder.getWebElement());
+    ElementCache.instance.invalidate();
+    assertSame(element2, finder.getWebElement());
+    assertSame(element2, finder.getWebElement());
+
+    verify(webdriver, times(2)).findElement(By.id("app"));
+    assertEquals(1, ElementCache.instance.getHits());
+    assertEquals(2, ElementCache.instance.getMisses());
+  }
+
+  @Test
+  public void doesNotReuseElementFoundByAnotherWebDriver() {
+    assertSame(element1, finder.getWebElement());
+
+    RemoteWebDriver anotherWebdriver = mock(RemoteWebDriver.class);
+    when(anotherWebdriver.findElement(By.id("app"))).thenReturn(element2);
+    WebDriverRunner.setWebDriver(anotherWebdriver);
+
+    assertSame(element2, finder.getWebElement());
+  }
+
+  @Test
+  public void invalidationDoesNotAffectOtherWebDrivers() {
+    RemoteWebDriver anotherWebdriver = mock(RemoteWebDriver.class);
+    long generation = ElementCache.instance.generation(webdriver);
+    long anotherGeneration = ElementCache.instance.generation(anotherWebdriver);
+
+    ElementCache.instance.invalidate();
+    assertNotEquals(generation, ElementCache.instance.generation(webdriver));
+    assertEquals(anotherGeneration, ElementCache.instance.generation(anotherWebdriver));
+
+    ElementCache.instance.invalidate(anotherWebdriver);
+    assertNotEquals(anotherGeneration, ElementCache.instance.generation(anotherWebdriver));
+  }
+
+  @Test
+  public void reusesFoundElement_afterAnotherThreadInvalidatesItsBrowser() throws InterruptedException {
+    assertSame(element1, finder.getWebElement());
+
+    Thread anotherThread = new Thread(() -> ElementCache.instance.invalidate(mock(RemoteWebDriver.class)));
+    anotherThread.start();
+    anotherThread.join();
+
+    assertSame(element1, finder.getWebElement());
+    verify(webdriver, times(1)).findElement(By.id("app"));
+  }
+
+  @Test
+  public void alwaysSearchesElement_ifCacheIsDisabled() {
+    Configuration.cacheElements = false;
+
+    assertSame(element1, finder.getWebElement());
+    assertSame(element2, finder.getWebElement());
+
+    assertEquals(0, ElementCache.instance.getHits());
+    assertEquals(0, ElementCache.instance.getMisses());
+  }
+
+  @Test
+  public void freshLookupReplacesCachedElement() {
+    assertSame(element1, finder.getWebElement());
+    assertSame(element2, finder.getFreshWebElement());
+    assertSame(element2, finder.getWebElement());
+
+    verify(webdriver, times(2)).findElement(By.id("app"));
+  }
+
+  @Test
+  public void existsChecksElementInBrowser_evenIfItIsCached() {
+    when(webdriver.findElement(By.id("app"))).thenReturn(element1).thenThrow(new NoSuchElementException("removed"));
+    assertSame(element1, finder.getWebElement());
+
+    assertFalse(new Exists().execute(mock(SelenideElement.class), finder, null));
+  }
+
+  @Test
+  public void isDisplayedSearchesElementAgain_ifCachedElementIsStale() {
+    when(element1.isDisplayed()).thenThrow(new StaleElementReferenceException("re-rendered"));
+    when(element2.isDisplayed()).thenReturn(true);
+    assertSame(element1, finder.getWebElement());
+
+    assertTrue(new IsDisplayed().execute(mock(SelenideElement.class), finder, null));
+    assertSame(element2, finder.getWebElement());
+  }
+
+  @Test
+  public void searchesAgain_ifCachedParentIsStale() {
+    SelenideElement parent = mock(SelenideElement.class);
+    WebElement staleParent = mock(WebElement.class);
+    WebElement freshParent = mock(WebElement.class);
+    when(parent.getWrappedElement()).thenReturn(staleParent, freshParent);
+    when(staleParent.findElement(By.name("q"))).thenThrow(new StaleElementReferenceException("re-rendered"));
+    when(freshParent.findElement(By.name("q"))).thenReturn(element1);
+    long generation = ElementCache.instance.generation(webdriver);
+
+    assertSame(element1, new ElementFinder(parent, By.name("q"), 0).getWebElement());
+    assertNotEquals(generation, ElementCache.instance.generation(webdriver));
+  }
+}
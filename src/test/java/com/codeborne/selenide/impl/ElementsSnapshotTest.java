@@ -0,0 +1,63 @@
+package com.codeborne.selenide.impl;
+
+import com.codeborne.selenide.Configuration;
+import com.codeborne.selenide.WebDriverRunner;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.remote.RemoteWebDriver;
+
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class ElementsSnapshotTest {
+  RemoteWebDriver webdriver = mock(RemoteWebDriver.class);
+  List<WebElement> elements = asList(mock(WebElement.class), mock(WebElement.class));
+
+  @Before
+  public void setUp() {
+    WebDriverRunner.setWebDriver(webdriver);
+    Configuration.evaluateConditionsInBrowser = true;
+  }
+
+  @After
+  public void tearDown() {
+    Configuration.evaluateConditionsInBrowser = false;
+    WebDriverRunner.closeWebDriver();
+  }
+
+  @Test
+  public void fetchesTextsOfAllElementsBySingleScriptCall() {
+    when(webdriver.executeScript(anyString(), eq(elements))).thenReturn(asList("Home", null));
+
+    ElementsSnapshot snapshot = ElementsSnapshot.take(elements);
+
+    assertEquals(2, snapshot.size());
+    assertEquals("Home", snapshot.text(0));
+    assertEquals(asList("Home", ""), snapshot.texts());
+    verify(webdriver).executeScript(anyString(), eq(elements));
+    verifyNoMoreInteractions(elements.get(0), elements.get(1));
+  }
+
+  @Test
+  public void isNotAvailable_ifDisabled() {
+    Configuration.evaluateConditionsInBrowser = false;
+
+    assertNull(ElementsSnapshot.take(elements));
+    verifyNoMoreInteractions(webdriver);
+  }
+
+  @Test
+  public void isNotAvailable_ifElementsHaveDisappeared() {
+    when(webdriver.executeScript(anyString(), any())).thenThrow(new StaleElementReferenceException("gone"));
+
+    assertNull(ElementsSnapshot.take(elements));
+  }
+}
@@ -1,15 +1,20 @@
 package com.codeborne.selenide.impl;
 
 import com.codeborne.selenide.Condition;
+import com.codeborne.selenide.Configuration;
+import com.codeborne.selenide.WebDriverRunner;
 import org.junit.Test;
 import org.openqa.selenium.WebElement;
+import org.openqa.selenium.remote.RemoteWebDriver;
 
 import java.util.List;
 
 import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
 import static org.junit.Assert.assertEquals;
-import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.when;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
 
 public class FilteringCollectionTest {
   @Test
@@ -29,6 +34,54 @@ public class FilteringCollectionTest {
     assertEquals(mockedWebElement2, actualElements.get(0));
   }
 
+  @Test
+  public void filtersElementsInBrowser_ifConditionHasJavascript() {
+    RemoteWebDriver webdriver = mock(RemoteWebDriver.class);
+    WebDriverRunner.setWebDriver(webdriver);
+    Configuration.evaluateConditionsInBrowser = true;
+    try {
+      WebElement element1 = mock(WebElement.class);
+      WebElement element2 = mock(WebElement.class);
+      WebElementsCollection mockedCollection = mock(WebElementsCollection.class);
+      when(mockedCollection.getActualElements()).thenReturn(asList(element1, element2));
+      when(webdriver.executeScript(anyString(), eq(asList(element1, element2)), eq(Integer.MAX_VALUE)))
+          .thenReturn(singletonList(element2));
+
+      List<WebElement> actualElements = new FilteringCollection(mockedCollection, Condition.cssClass("x")).getActualElements();
+
+      assertEquals(singletonList(element2), actualElements);
+      verifyNoMoreInteractions(element1, element2);
+    }
+    finally {
+      Configuration.evaluateConditionsInBrowser = false;
+      WebDriverRunner.closeWebDriver();
+    }
+  }
+
+  @Test
+  public void filtersElementsViaWebdriver_ifConditionIsApproximateInBrowser() {
+    RemoteWebDriver webdriver = mock(RemoteWebDriver.class);
+    WebDriverRunner.setWebDriver(webdriver);
+    Configuration.evaluateConditionsInBrowser = true;
+    try {
+      WebElement element1 = mock(WebElement.class);
+      WebElement element2 = mock(WebElement.class);
+      when(element1.getText()).thenReturn("y");
+      when(element2.getText()).thenReturn("x");
+      WebElementsCollection mockedCollection = mock(WebElementsCollection.class);
+      when(mockedCollection.getActualElements()).thenReturn(asList(element1, element2));
+
+      List<WebElement> actualElements = new FilteringCollection(mockedCollection, Condition.text("x")).getActualElements();
+
+      assertEquals(singletonList(element2), actualElements);
+      verify(webdriver, never()).executeScript(anyString(), any());
+    }
+    finally {
+      Configuration.evaluateConditionsInBrowser = false;
+      WebDriverRunner.closeWebDriver();
+    }
+  }
+
   @Test
   public void testDescription() {
     WebElementsCollection mockedCollection = mock(WebElementsCollection.class);
@@ -0,0 +1,76 @@
+package com.codeborne.selenide.impl;
+
+import org.junit.Test;
+
+import java.awt.image.BufferedImage;
+
+import static java.awt.image.BufferedImage.TYPE_INT_ARGB;
+import static java.awt.image.BufferedImage.TYPE_INT_RGB;
+import static org.junit.Assert.*;
+
+public class ImageDiffTest {
+  @Test
+  public void identicalImagesMatch() {
+    ImageDiff diff = ImageDiff.compare(image(100, 80, 0xFF336699), image(100, 80, 0xFF336699), 0);
+
+    assertTrue(diff.matches());
+    assertEquals(0, diff.getDifferentPixels());
+    assertEquals(8000, diff.getTotalPixels());
+  }
+
+  @Test
+  public void imagesMatchIfNumberOfDifferentPixelsIsWithinTolerance() {
+    BufferedImage actual = image(100, 80, 0xFF336699);
+    actual.setRGB(5, 5, 0xFF000000);
+    actual.setRGB(50, 70, 0xFF000000);
+
+    ImageDiff diff = ImageDiff.compare(image(100, 80, 0xFF336699), actual, 2);
+
+    assertTrue(diff.matches());
+    assertEquals(2, diff.getDifferentPixels());
+    assertEquals(0xFFFF0000, diff.getDiffImage().getRGB(50, 70));
+  }
+
+  @Test
+  public void imagesDoNotMatchIfTooManyPixelsDiffer() {
+    ImageDiff diff = ImageDiff.compare(image(100, 300, 0xFF336699), image(100, 300, 0xFF000000), 10);
+
+    assertFalse(diff.matches());
+    assertTrue(diff.isSameSize());
+    assertTrue(diff.getDifferentPixels() > 10);
+  }
+
+  @Test
+  public void imagesOfDifferentSizesDoNotMatch() {
+    ImageDiff diff = ImageDiff.compare(image(100, 80, 0xFF336699), image(100, 81, 0xFF336699), 1000);
+
+    assertFalse(diff.matches());
+    assertFalse(diff.isSameSize());
+    assertNull(diff.getDiffImage());
+  }
+
+  @Test
+  public void comparesImagesOfDifferentTypes() {
+    BufferedImage rgb = new BufferedImage(10, 10, TYPE_INT_RGB);
+    BufferedImage argb = image(10, 10, 0xFF000000);
+
+    assertTrue(ImageDiff.compare(rgb, argb, 0).matches());
+  }
+
+  @Test
+  public void doesNotCopyArgbImages() {
+    BufferedImage argb = image(10, 10, 0xFF000000);
+    assertSame(argb, ImageDiff.toArgb(argb));
+    assertNotSame(argb, ImageDiff.toArgb(argb.getSubimage(1, 1, 5, 5)));
+  }
+
+  private BufferedImage image(int width, int height, int color) {
+    BufferedImage image = new BufferedImage(width, height, TYPE_INT_ARGB);
+    for (int x = 0; x < width; x++) {
+      for (int y = 0; y < height; y++) {
+        image.setRGB(x, y, color);
+      }
+    }
+    return image;
+  }
+}
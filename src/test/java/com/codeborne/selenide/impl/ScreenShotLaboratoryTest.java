@@ -1,13 +1,28 @@
 package com.codeborne.selenide.impl;
 
+import com.codeborne.selenide.Configuration;
+import com.codeborne.selenide.WebDriverRunner;
 import org.junit.Test;
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.Rectangle;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.remote.RemoteWebDriver;
 
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 
 import static java.io.File.separatorChar;
+import static java.util.Arrays.asList;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
 
 public class ScreenShotLaboratoryTest {
   ScreenShotLaboratory screenshots = new ScreenShotLaboratory() {
@@ -41,6 +56,21 @@ public class ScreenShotLaboratoryTest {
     assertEquals("12356789.2", screenshots.takeScreenShot());
   }
 
+  @Test
+  public void readsHistorySizeFromConfigurationForEveryScreenshot() {
+    int screenshotsHistorySize = Configuration.screenshotsHistorySize;
+    screenshots.allScreenshots = mock(ScreenshotsHistory.class);
+    try {
+      Configuration.screenshotsHistorySize = 3;
+      screenshots.takeScreenShot();
+
+      verify(screenshots.allScreenshots).add(new File("12356789.0"), 3);
+    }
+    finally {
+      Configuration.screenshotsHistorySize = screenshotsHistorySize;
+    }
+  }
+
   @Test
   public void screenshotsCanByGroupedByTests() {
     screenshots.startContext("ui/MyTest/test_some_method/");
@@ -89,4 +119,68 @@ public class ScreenShotLaboratoryTest {
     screenshots.takeScreenShot();
     assertEquals("12356789.2", screenshots.getLastScreenshot().toString());
   }
+
+  @Test
+  public void screenshotContextIsTrackedPerThread() throws InterruptedException {
+    List<List<File>> anotherTestScreenshots = new ArrayList<>();
+    screenshots.startContext("ui/MyTest/test_some_method/");
+    Thread anotherTest = new Thread(() -> {
+      screenshots.startContext("ui/YourTest/test_another_method/");
+      screenshots.takeScreenShot();
+      anotherTestScreenshots.add(screenshots.finishContext());
+    });
+    anotherTest.start();
+    anotherTest.join();
+
+    assertEquals(asList(asList(new File("ui/YourTest/test_another_method/12356789.0"))), anotherTestScreenshots);
+
+    assertEquals("ui/MyTest/test_some_method/12356789.1", screenshots.takeScreenShot());
+    assertEquals(asList(new File("ui/MyTest/test_some_method/12356789.1")), screenshots.finishContext());
+  }
+
+  @Test
+  public void takesScreenshotOfElementRegion() throws IOException {
+    WebElement element = mock(WebElement.class);
+    RemoteWebDriver webdriver = mockScreenshot(100, 50, element, asList(10L, 5L, 20.4, 10L));
+    WebDriverRunner.setWebDriver(webdriver);
+    try {
+      BufferedImage image = screenshots.takeScreenshotAsImage(element);
+
+      assertEquals(20, image.getWidth());
+      assertEquals(10, image.getHeight());
+      assertEquals(0xFFFF0000, image.getRGB(0, 0));
+      assertEquals(0xFF0000FF, image.getRGB(1, 1));
+      verify(element, never()).getLocation();
+      verify(element, never()).getSize();
+    }
+    finally {
+      WebDriverRunner.closeWebDriver();
+    }
+  }
+
+  @Test
+  public void elementScreenshotIsCutByScreenBorders() {
+    assertEquals(new java.awt.Rectangle(90, 40, 10, 10),
+        ScreenShotLaboratory.visibleRegion(new Rectangle(90, 40, 30, 30), 100, 50));
+    assertNull(ScreenShotLaboratory.visibleRegion(new Rectangle(100, 10, 30, 30), 100, 50));
+    assertNull(ScreenShotLaboratory.visibleRegion(new Rectangle(10, 50, 30, 30), 100, 50));
+  }
+
+  private RemoteWebDriver mockScreenshot(int width, int height, WebElement element, List<Object> rectangle)
+      throws IOException {
+    BufferedImage screen = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+    for (int x = 0; x < width; x++) {
+      for (int y = 0; y < height; y++) {
+        screen.setRGB(x, y, 0x0000FF);
+      }
+    }
+    screen.setRGB(10, 5, 0xFF0000);
+    ByteArrayOutputStream png = new ByteArrayOutputStream();
+    ImageIO.write(screen, "png", png);
+
+    RemoteWebDriver webdriver = mock(RemoteWebDriver.class);
+    when(webdriver.getScreenshotAs(OutputType.BYTES)).thenReturn(png.toByteArray());
+    when(webdriver.executeScript(anyString(), eq(element))).thenReturn(rectangle);
+    return webdriver;
+  }
 }
@@ -0,0 +1,33 @@
+package com.codeborne.selenide.impl;
+
+import org.junit.Test;
+
+import java.io.File;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class ScreenshotsHistoryTest {
+  ScreenshotsHistory history = new ScreenshotsHistory(2);
+
+  @Test
+  public void keepsAllScreenshotsInOrder_evenIfTheyDoNotFitIntoMemory() {
+    history.add(new File("1.png"));
+    history.add(new File("2.png"));
+    history.add(new File("folder/3.png"));
+    history.add(new File("4.png"));
+
+    assertEquals(4, history.size());
+    assertEquals(asList(new File("1.png"), new File("2.png"), new File("folder/3.png"), new File("4.png")),
+        history.getAll());
+    assertEquals(new File("4.png"), history.getLast());
+  }
+
+  @Test
+  public void isEmptyInitially() {
+    assertEquals(0, history.size());
+    assertEquals(0, history.getAll().size());
+    assertNull(history.getLast());
+  }
+}
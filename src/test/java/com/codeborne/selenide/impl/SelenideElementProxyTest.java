@@ -6,6 +6,7 @@ import com.codeborne.selenide.SelenideElement;
 import com.codeborne.selenide.WebDriverRunner;
 import com.codeborne.selenide.ex.ElementNotFound;
 import com.codeborne.selenide.ex.ElementShould;
+import com.codeborne.selenide.ex.ImageMismatch;
 import com.codeborne.selenide.logevents.LogEvent;
 import com.codeborne.selenide.logevents.LogEvent.EventStatus;
 import com.codeborne.selenide.logevents.LogEventListener;
@@ -20,6 +21,7 @@ import org.openqa.selenium.remote.RemoteWebDriver;
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.lang.reflect.Proxy;
 import java.util.logging.Logger;
 
 import static com.codeborne.selenide.Condition.*;
@@ -238,8 +240,41 @@ public class SelenideElementProxyTest {
     assertThat(shouldRetryAfterError(new AssertionError("bla")), is(true));
   }
 
+  @Test
+  public void shouldNotRetry_onImageMismatch() {
+    assertThat(shouldRetryAfterError(new ImageMismatch("Element should match baseline logo")), is(false));
+  }
+
   @Test
   public void shouldRetry_onAnyOtherException() {
     assertThat(shouldRetryAfterError(new Exception("bla")), is(true));
   }
+
+  @Test
+  public void selenideElementIsNotDynamicProxy() {
+    SelenideElement selenideElement = $("#firstName");
+    assertThat(selenideElement instanceof SelenideElementImpl, is(true));
+    assertThat(Proxy.isProxyClass(selenideElement.getClass()), is(false));
+  }
+
+  @Test
+  public void customInterfaceIsStillImplementedByDynamicProxy() {
+    MySelenideElement selenideElement = ElementFinder.wrap(MySelenideElement.class, null, By.cssSelector("#firstName"), 0);
+    assertThat(Proxy.isProxyClass(selenideElement.getClass()), is(true));
+  }
+
+  @Test
+  public void delegatesWebElementMethodsToFoundElement() {
+    when(webdriver.findElement(By.cssSelector("#firstName"))).thenReturn(element);
+    assertEquals("h1", $("#firstName").getTagName());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void failsIfFoundElementDoesNotImplementCalledInterface() {
+    when(webdriver.findElement(By.cssSelector("#firstName"))).thenReturn(element);
+    $("#firstName").findElementById("lastName");
+  }
+
+  interface MySelenideElement extends SelenideElement {
+  }
 }
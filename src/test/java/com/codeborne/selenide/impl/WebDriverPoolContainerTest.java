@@ -0,0 +1,140 @@
+package com.codeborne.selenide.impl;
+
+import com.codeborne.selenide.Configuration;
+import com.codeborne.selenide.webdriver.WebDriverFactory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.openqa.selenium.NoSuchSessionException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.codeborne.selenide.Configuration.FileDownloadMode.FOLDER;
+import static com.codeborne.selenide.Configuration.FileDownloadMode.HTTPGET;
+import static java.util.Collections.singleton;
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class WebDriverPoolContainerTest {
+  WebDriverPoolContainer container = new WebDriverPoolContainer(1);
+  long openBrowserTimeoutMs = Configuration.openBrowserTimeoutMs;
+
+  @Before
+  public void setUp() {
+    Configuration.fileDownload = HTTPGET;
+    Configuration.holdBrowserOpen = false;
+    container.factory = mock(WebDriverFactory.class);
+    when(container.factory.createWebDriver(any())).thenAnswer(invocation -> createBrowser());
+  }
+
+  @After
+  public void tearDown() {
+    Configuration.openBrowserTimeoutMs = openBrowserTimeoutMs;
+    container.closeWebDriver();
+    container.closePool();
+  }
+
+  private WebDriver createBrowser() {
+    WebDriver webdriver = mock(WebDriver.class, RETURNS_DEEP_STUBS);
+    when(webdriver.getWindowHandles()).thenReturn(singleton("window1"));
+    return webdriver;
+  }
+
+  @Test
+  public void launchesBrowsersInBackground() {
+    container = new WebDriverPoolContainer(3);
+    container.factory = mock(WebDriverFactory.class);
+    when(container.factory.createWebDriver(any())).thenAnswer(invocation -> createBrowser());
+
+    assertNotNull(container.getWebDriver());
+
+    verify(container.factory, timeout(1000).times(3)).createWebDriver(any());
+  }
+
+  @Test
+  public void closedBrowserIsCleanedAndReturnedToPool() {
+    WebDriver webdriver = container.getWebDriver();
+
+    container.closeWebDriver();
+
+    assertFalse(container.hasWebDriverStarted());
+    verify(webdriver, never()).quit();
+    verify(webdriver.manage()).deleteAllCookies();
+    verify(webdriver.navigate()).to("about:blank");
+    assertEquals(1, container.getIdleCount());
+    assertSame(webdriver, container.getWebDriver());
+    verify(container.factory, times(1)).createWebDriver(any());
+  }
+
+  @Test
+  public void pooledBrowserKeepsItsDownloadsFolder() throws IOException {
+    String downloadsFolder = Configuration.downloadsFolder;
+    Configuration.downloadsFolder = Files.createTempDirectory("downloads").toString();
+    Configuration.fileDownload = FOLDER;
+    when(container.factory.canDownloadToFolder()).thenReturn(true);
+    List<File> foldersSeenByFactory = new CopyOnWriteArrayList<>();
+    doAnswer(invocation -> {
+      foldersSeenByFactory.add(container.getDownloadsFolder());
+      return createBrowser();
+    }).when(container.factory).createWebDriver(any());
+    try {
+      container.getWebDriver();
+      File folder = container.getDownloadsFolder();
+      assertEquals(singletonList(folder), foldersSeenByFactory);
+      assertTrue(new File(folder, "report.pdf").createNewFile());
+
+      container.closeWebDriver();
+      assertNull(container.getDownloadsFolder());
+      assertEquals(0, folder.list().length);
+
+      container.getWebDriver();
+      assertEquals(folder, container.getDownloadsFolder());
+
+      container.closeWebDriver();
+      container.closePool();
+      assertFalse(folder.exists());
+    }
+    finally {
+      Configuration.downloadsFolder = downloadsFolder;
+    }
+  }
+
+  @Test
+  public void browserIsClosed_ifItCannotBeCleaned() {
+    WebDriver webdriver = container.getWebDriver();
+    when(webdriver.getWindowHandles()).thenThrow(new NoSuchSessionException("session is gone"));
+
+    container.closeWebDriver();
+
+    verify(webdriver).quit();
+    assertEquals(0, container.getIdleCount());
+    assertNotSame(webdriver, container.getWebDriver());
+  }
+
+  @Test
+  public void waitsUntilSomeBrowserIsReturnedToPool() throws Exception {
+    Configuration.openBrowserTimeoutMs = 50;
+    container.getWebDriver();
+
+    Future<?> anotherThread = Executors.newSingleThreadExecutor().submit(() -> container.getWebDriver());
+
+    try {
+      anotherThread.get();
+      fail("expected WebDriverException");
+    }
+    catch (java.util.concurrent.ExecutionException expected) {
+      assertTrue(expected.getCause() instanceof WebDriverException);
+      assertTrue(expected.getCause().getMessage().startsWith("No browser available in pool of 1 browsers in 50 ms"));
+    }
+  }
+}
@@ -16,19 +16,24 @@ import org.openqa.selenium.phantomjs.PhantomJSDriver;
 import org.openqa.selenium.remote.UnreachableBrowserException;
 
 import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.file.Files;
 import java.util.logging.Handler;
 import java.util.logging.Logger;
 import java.util.logging.StreamHandler;
 
+import static com.codeborne.selenide.Configuration.FileDownloadMode.FOLDER;
 import static com.codeborne.selenide.Configuration.FileDownloadMode.HTTPGET;
 import static com.codeborne.selenide.Configuration.FileDownloadMode.PROXY;
 import static com.codeborne.selenide.Selenide.close;
 import static java.lang.Thread.currentThread;
 import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.*;
 
 public class WebDriverThreadLocalContainerTest {
@@ -83,6 +88,70 @@ public class WebDriverThreadLocalContainerTest {
     assertThat(captor.getValue().getSslProxy(), is(notNullValue()));
   }
 
+  @Test
+  public void createsSeparateDownloadsFolderForEveryBrowser() throws IOException {
+    Configuration.fileDownload = FOLDER;
+    String downloadsFolder = Configuration.downloadsFolder;
+    Configuration.downloadsFolder = Files.createTempDirectory("downloads").toString();
+    doReturn(true).when(container.factory).canDownloadToFolder();
+    try {
+      File folder1 = container.createDownloadsFolder();
+      File folder2 = container.createDownloadsFolder();
+
+      assertTrue(folder1.isDirectory());
+      assertTrue(folder2.isDirectory());
+      assertNotEquals(folder1, folder2);
+
+      container.createDriver();
+      assertThat(container.getDownloadsFolder(), is(notNullValue()));
+    }
+    finally {
+      Configuration.downloadsFolder = downloadsFolder;
+      Configuration.fileDownload = HTTPGET;
+    }
+  }
+
+  @Test
+  public void deletesDownloadsFolderWhenBrowserIsClosed() throws IOException {
+    Configuration.fileDownload = FOLDER;
+    Configuration.holdBrowserOpen = false;
+    String downloadsFolder = Configuration.downloadsFolder;
+    Configuration.downloadsFolder = Files.createTempDirectory("downloads").toString();
+    doReturn(true).when(container.factory).canDownloadToFolder();
+    try {
+      container.getWebDriver();
+      File folder = container.getDownloadsFolder();
+      assertTrue(new File(folder, "report.pdf").createNewFile());
+
+      container.closeWebDriver();
+
+      assertThat(folder.exists(), is(false));
+      assertThat(container.getDownloadsFolder(), is(nullValue()));
+    }
+    finally {
+      Configuration.downloadsFolder = downloadsFolder;
+      Configuration.fileDownload = HTTPGET;
+    }
+  }
+
+  @Test
+  public void doesNotCreateDownloadsFolder_ifBrowserCannotDownloadToFolder() throws IOException {
+    Configuration.fileDownload = FOLDER;
+    String downloadsFolder = Configuration.downloadsFolder;
+    Configuration.downloadsFolder = Files.createTempDirectory("downloads").toString();
+    doReturn(false).when(container.factory).canDownloadToFolder();
+    try {
+      container.getWebDriver();
+
+      assertThat(container.getDownloadsFolder(), is(nullValue()));
+      assertThat(new File(Configuration.downloadsFolder).list().length, is(0));
+    }
+    finally {
+      Configuration.downloadsFolder = downloadsFolder;
+      Configuration.fileDownload = HTTPGET;
+    }
+  }
+
   @Test
   public void checksIfBrowserIsStillAlive() {
     Configuration.reopenBrowserOnFail = true;
@@ -156,4 +225,87 @@ public class WebDriverThreadLocalContainerTest {
     assertThat(capturedLog, containsString(String.format("INFO: Close proxy server: %s ->", currentThreadId)));
   }
 
+  @Test
+  public void closesBrowserInBackground_ifConfigured() {
+    Configuration.holdBrowserOpen = false;
+    Configuration.closeBrowserAsync = true;
+    try {
+      WebDriver webdriver = mock(WebDriver.class);
+      doAnswer(invocation -> {
+        Thread.sleep(500);
+        return null;
+      }).when(webdriver).quit();
+      container.setWebDriver(webdriver);
+
+      long start = System.currentTimeMillis();
+      container.closeWebDriver();
+
+      assertThat(System.currentTimeMillis() - start, is(lessThan(500L)));
+      assertThat(container.hasWebDriverStarted(), is(false));
+      verify(webdriver, timeout(2000)).quit();
+    }
+    finally {
+      Configuration.closeBrowserAsync = false;
+    }
+  }
+
+  @Test
+  public void closesWebDriverOfDeadThread_evenIfThreadIsNotGarbageCollected() throws InterruptedException {
+    Configuration.holdBrowserOpen = false;
+    Configuration.fileDownload = HTTPGET;
+    WebDriver webdriver = mock(WebDriver.class);
+    doReturn(webdriver).when(container.factory).createWebDriver(null);
+
+    Thread thread = new Thread(container::getWebDriver);
+    thread.start();
+    thread.join();
+
+    verify(webdriver, timeout(1000)).quit();
+    assertThat(container.THREAD_WEB_DRIVER.containsKey(thread.getId()), is(false));
+    assertThat(container.DEAD_THREAD_WATCHERS.containsKey(thread), is(false));
+  }
+
+  @Test
+  public void watchesEveryThreadOnlyOnce() {
+    Configuration.holdBrowserOpen = false;
+    Configuration.fileDownload = HTTPGET;
+    doReturn(mock(WebDriver.class)).when(container.factory).createWebDriver(null);
+
+    container.getWebDriver();
+    Thread watcher = container.DEAD_THREAD_WATCHERS.get(currentThread());
+    container.closeWebDriver();
+    container.getWebDriver();
+
+    assertThat(container.DEAD_THREAD_WATCHERS.get(currentThread()), is(sameInstance(watcher)));
+  }
+
+  @Test
+  public void doesNotCloseWebDriverOfAliveThread() {
+    Configuration.holdBrowserOpen = false;
+    Configuration.fileDownload = HTTPGET;
+    WebDriver webdriver = mock(WebDriver.class);
+    doReturn(webdriver).when(container.factory).createWebDriver(null);
+    container.getWebDriver();
+
+    verify(webdriver, after(200).never()).quit();
+    assertThat(container.hasWebDriverStarted(), is(true));
+  }
+
+  @Test
+  public void doesNotReuseWebDriverOfDeadThreadWithSameId() {
+    Configuration.holdBrowserOpen = false;
+    WebDriver oldWebdriver = mock(WebDriver.class);
+    Thread deadThreadWithSameId = new Thread() {
+      @Override
+      public long getId() {
+        return currentThread().getId();
+      }
+    };
+    container.ALL_WEB_DRIVERS_THREADS.put(currentThread().getId(),
+        new WebDriverThreadLocalContainer.ThreadReference(deadThreadWithSameId));
+    container.THREAD_WEB_DRIVER.put(currentThread().getId(), oldWebdriver);
+
+    assertThat(container.hasWebDriverStarted(), is(false));
+    verify(oldWebdriver, timeout(1000)).quit();
+  }
 }
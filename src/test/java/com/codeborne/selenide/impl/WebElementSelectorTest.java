@@ -0,0 +1,67 @@
+package com.codeborne.selenide.impl;
+
+import com.codeborne.selenide.Configuration;
+import com.codeborne.selenide.WebDriverRunner;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.remote.RemoteWebDriver;
+
+import java.util.List;
+
+import static com.codeborne.selenide.Configuration.SelectorMode.CSS;
+import static com.codeborne.selenide.Configuration.SelectorMode.Sizzle;
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class WebElementSelectorTest {
+  RemoteWebDriver webdriver = mock(RemoteWebDriver.class);
+  WebElement element = mock(WebElement.class);
+  WebElementSelector selector = new WebElementSelector();
+
+  @Before
+  public void setUp() {
+    Configuration.selectorMode = Sizzle;
+    WebDriverRunner.setWebDriver(webdriver);
+  }
+
+  @After
+  public void tearDown() {
+    Configuration.selectorMode = CSS;
+    WebDriverRunner.closeWebDriver();
+  }
+
+  @Test
+  public void injectsSizzleTogetherWithQueryIfDocumentDoesNotHaveIt() {
+    when(webdriver.executeScript(startsWith("return typeof Sizzle"), any())).thenReturn(null);
+    when(webdriver.executeScript(startsWith("var define, module;"), any())).thenReturn(singletonList(element));
+
+    List<WebElement> elements = selector.findElements(webdriver, By.cssSelector("a:contains('Login')"));
+
+    assertEquals(singletonList(element), elements);
+    verify(webdriver).executeScript(startsWith("var define, module;"), eq("a:contains('Login')"));
+  }
+
+  @Test
+  public void queriesSizzleInOneCallIfDocumentAlreadyHasIt() {
+    when(webdriver.executeScript(startsWith("return typeof Sizzle"), any())).thenReturn(singletonList(element));
+
+    assertSame(element, selector.findElement(webdriver, By.cssSelector("a:contains('Login')")));
+    assertSame(element, selector.findElement(webdriver, By.cssSelector("a:contains('Login')")));
+
+    verify(webdriver, times(2)).executeScript(anyString(), any());
+  }
+
+  @Test
+  public void searchesInsideOfGivenElement() {
+    WebElement parent = mock(WebElement.class);
+    when(webdriver.executeScript(startsWith("return typeof Sizzle"), any(), any())).thenReturn(singletonList(element));
+
+    assertEquals(singletonList(element), selector.findElements(parent, By.cssSelector("li:first")));
+    verify(webdriver).executeScript(anyString(), eq("li:first"), same(parent));
+  }
+}
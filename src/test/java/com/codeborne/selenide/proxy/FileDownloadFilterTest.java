@@ -1,17 +1,33 @@
 package com.codeborne.selenide.proxy;
 
+import com.codeborne.selenide.Configuration;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.DefaultHttpContent;
 import io.netty.handler.codec.http.DefaultHttpHeaders;
+import io.netty.handler.codec.http.DefaultHttpRequest;
+import io.netty.handler.codec.http.DefaultHttpResponse;
+import io.netty.handler.codec.http.DefaultLastHttpContent;
 import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.handler.codec.http.HttpRequest;
 import io.netty.handler.codec.http.HttpResponse;
 import io.netty.handler.codec.http.HttpResponseStatus;
 import net.lightbody.bmp.util.HttpMessageContents;
 import net.lightbody.bmp.util.HttpMessageInfo;
+import org.littleshoot.proxy.HttpFilters;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.util.zip.GZIPOutputStream;
 
+import static io.netty.handler.codec.http.HttpMethod.GET;
+import static io.netty.handler.codec.http.HttpResponseStatus.OK;
+import static io.netty.handler.codec.http.HttpVersion.HTTP_1_1;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.apache.commons.io.FileUtils.readFileToByteArray;
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.*;
@@ -137,6 +153,80 @@ public class FileDownloadFilterTest {
     assertThat(readFileToByteArray(file), is(new byte[]{1, 2, 3, 4, 5}));
   }
 
+  @Test
+  public void streamsDownloadedFileToDisk() throws IOException {
+    filter.activate();
+    HttpResponse response = new DefaultHttpResponse(HTTP_1_1, OK);
+    response.headers().add("content-disposition", "attachement; filename=streamed.csv");
+
+    FileDownloadFilter.Download download = filter.startDownload("http://site/export", response);
+    download.write(Unpooled.wrappedBuffer(new byte[]{1, 2, 3}));
+    download.write(Unpooled.wrappedBuffer(new byte[]{4, 5}));
+    assertThat(filter.getDownloadedFiles().size(), is(0));
+
+    download.finish();
+    assertThat(filter.getDownloadedFiles().size(), is(1));
+    File file = filter.getDownloadedFiles().get(0);
+    assertThat(file.getName(), is("streamed.csv"));
+    assertThat(readFileToByteArray(file), is(new byte[]{1, 2, 3, 4, 5}));
+  }
+
+  @Test
+  public void decodesGzippedDownloads() throws IOException {
+    filter.activate();
+    HttpResponse response = new DefaultHttpResponse(HTTP_1_1, OK);
+    response.headers().add("content-disposition", "attachement; filename=gzipped.txt");
+    response.headers().add("content-encoding", "gzip");
+    ByteArrayOutputStream gzipped = new ByteArrayOutputStream();
+    try (GZIPOutputStream out = new GZIPOutputStream(gzipped)) {
+      out.write("hello".getBytes(UTF_8));
+    }
+
+    FileDownloadFilter.Download download = filter.startDownload("http://site/export", response);
+    download.write(Unpooled.wrappedBuffer(gzipped.toByteArray()));
+    download.finish();
+
+    File file = filter.getDownloadedFiles().get(0);
+    assertThat(new String(readFileToByteArray(file), UTF_8), is("hello"));
+    assertFalse(new File(file.getPath() + ".raw").exists());
+  }
+
+  @Test
+  public void deletesUnfinishedDownload_ifBrowserClosesConnection() {
+    filter.activate();
+    EmbeddedChannel browser = new EmbeddedChannel(new ChannelInboundHandlerAdapter());
+    HttpFilters interceptor = filter.filterRequest(
+        new DefaultHttpRequest(HTTP_1_1, GET, "http://site/export"), browser.pipeline().firstContext());
+    HttpResponse response = new DefaultHttpResponse(HTTP_1_1, OK);
+    response.headers().add("content-disposition", "attachement; filename=cancelled.csv");
+
+    interceptor.serverToProxyResponse(response);
+    interceptor.serverToProxyResponse(new DefaultHttpContent(Unpooled.wrappedBuffer(new byte[]{1, 2, 3})));
+    File file = new File(Configuration.reportsFolder, "cancelled.csv");
+    assertTrue(file.exists());
+
+    browser.close();
+    interceptor.serverToProxyResponse(new DefaultLastHttpContent(Unpooled.wrappedBuffer(new byte[]{4, 5})));
+
+    assertFalse(file.exists());
+    assertThat(filter.getDownloadedFiles().size(), is(0));
+  }
+
+  @Test
+  public void doesNotStreamResponsesWithoutDispositionHeader() {
+    filter.activate();
+    HttpResponse response = new DefaultHttpResponse(HTTP_1_1, OK);
+    response.headers().add("content-type", "text/html");
+
+    assertNull(filter.startDownload("http://site/page", response));
+  }
+
+  @Test
+  public void doesNotInterceptRequestsIfNotActivated() {
+    assertNull(filter.filterRequest(mock(HttpRequest.class), null));
+    assertEquals(0, filter.getMaximumResponseBufferSizeInBytes());
+  }
+
   private HttpHeaders mockHeaders() {
     HttpHeaders headers = new DefaultHttpHeaders();
     when(response.headers()).thenReturn(headers);
@@ -0,0 +1,107 @@
+package com.codeborne.selenide.proxy;
+
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.DefaultHttpRequest;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpRequest;
+import org.junit.Test;
+import org.littleshoot.proxy.HttpFilters;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static io.netty.handler.codec.http.HttpMethod.CONNECT;
+import static io.netty.handler.codec.http.HttpMethod.GET;
+import static io.netty.handler.codec.http.HttpResponseStatus.OK;
+import static io.netty.handler.codec.http.HttpVersion.HTTP_1_1;
+import static java.util.Collections.singletonList;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.junit.Assert.*;
+
+public class NetworkActivityTest {
+  NetworkActivity activity = new NetworkActivity();
+
+  @Test
+  public void networkIsIdleIfThereAreNoRequestsDuringQuietPeriod() throws InterruptedException {
+    long start = System.currentTimeMillis();
+    assertTrue(activity.waitForIdle(50, 2000));
+    assertTrue(System.currentTimeMillis() - start < 1000);
+  }
+
+  @Test
+  public void waitsUntilRequestsInFlightAreFinished() throws InterruptedException {
+    NetworkActivity.Request request = activity.started("http://site/ajax");
+    assertEquals(1, activity.getInFlightCount());
+
+    ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+    try {
+      executor.schedule(() -> activity.finished(request), 200, MILLISECONDS);
+      long start = System.currentTimeMillis();
+
+      assertTrue(activity.waitForIdle(50, 5000));
+      assertTrue(System.currentTimeMillis() - start >= 200);
+      assertEquals(0, activity.getInFlightCount());
+    }
+    finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void doesNotTrackConnectRequests() {
+    assertNull(activity.filterRequest(new DefaultHttpRequest(HTTP_1_1, CONNECT, "site:443"), null));
+  }
+
+  @Test
+  public void requestIsFinished_ifBrowserClosesConnection() {
+    EmbeddedChannel browser = new EmbeddedChannel(new ChannelInboundHandlerAdapter());
+    HttpRequest request = new DefaultHttpRequest(HTTP_1_1, GET, "http://site/cancelled-ajax");
+    HttpFilters filters = activity.filterRequest(request, browser.pipeline().firstContext());
+
+    filters.clientToProxyRequest(request);
+    assertEquals(singletonList("http://site/cancelled-ajax"), activity.getInFlightUrls());
+
+    browser.close();
+    assertEquals(0, activity.getInFlightCount());
+  }
+
+  @Test
+  public void delayedResponseIsInFlightUntilDelayIsOver() throws InterruptedException {
+    RequestRules rules = new RequestRules().delay("site/slow-api", 300);
+    EmbeddedChannel browser = new EmbeddedChannel(new ChannelInboundHandlerAdapter());
+    HttpRequest request = new DefaultHttpRequest(HTTP_1_1, GET, "http://site/slow-api");
+    HttpFilters activityFilters = activity.filterRequest(request, browser.pipeline().firstContext());
+    HttpFilters rulesFilters = rules.filterRequest(request, browser.pipeline().firstContext());
+
+    activityFilters.clientToProxyRequest(request);
+    rulesFilters.clientToProxyRequest(request);
+    FullHttpResponse response = new DefaultFullHttpResponse(HTTP_1_1, OK);
+    browser.writeOutbound(activityFilters.proxyToClientResponse(response));
+
+    assertFalse(activity.waitForIdle(10, 100));
+    assertEquals(singletonList("http://site/slow-api"), activity.getInFlightUrls());
+
+    Thread.sleep(250);
+    browser.runPendingTasks();
+    assertSame(response, browser.readOutbound());
+    assertTrue(activity.waitForIdle(10, 1000));
+  }
+
+  @Test
+  public void failsIfRequestIsNotFinishedInTime() throws InterruptedException {
+    activity.started("http://site/slow-ajax");
+
+    assertFalse(activity.waitForIdle(50, 200));
+    assertEquals(singletonList("http://site/slow-ajax"), activity.getInFlightUrls());
+  }
+
+  @Test
+  public void ignoresRequestsRunningLongerThanTimeout() throws InterruptedException {
+    activity.started("http://site/long-polling");
+    Thread.sleep(150);
+
+    assertTrue(activity.waitForIdle(10, 100));
+  }
+}
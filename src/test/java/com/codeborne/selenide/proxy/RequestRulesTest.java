@@ -0,0 +1,127 @@
+package com.codeborne.selenide.proxy;
+
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.DefaultHttpRequest;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpRequest;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import static io.netty.handler.codec.http.HttpMethod.GET;
+import static io.netty.handler.codec.http.HttpResponseStatus.OK;
+import static io.netty.handler.codec.http.HttpVersion.HTTP_1_1;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.asList;
+import static org.junit.Assert.*;
+
+public class RequestRulesTest {
+  RequestRules rules = new RequestRules();
+
+  @Test
+  public void convertsUrlToKeyWithReversedHost() {
+    assertEquals("com.example.www/path?q=1", RequestRules.key("https://www.example.com/path?q=1"));
+    assertEquals("com.example.www/", RequestRules.key("http://www.example.com:80"));
+    assertEquals("localhost:8080/app", RequestRules.key("http://LOCALHOST:8080/app"));
+  }
+
+  @Test
+  public void convertsUrlPatternsToKeyPrefixes() {
+    assertEquals(asList("com.example/ads/"), RequestRules.prefixes("https://example.com/ads/*"));
+    assertEquals(asList("com.example.", "com.example/", "com.example:"), RequestRules.prefixes("*.example.com"));
+    assertEquals(asList(""), RequestRules.prefixes("*"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void wildcardIsNotAllowedInTheMiddle() {
+    rules.block("example.com/*/ads");
+  }
+
+  @Test
+  public void matchesHostWithSubdomains() {
+    rules.block("*.google-analytics.com");
+
+    assertNotNull(rules.match("https://www.google-analytics.com/analytics.js"));
+    assertNotNull(rules.match("https://google-analytics.com/collect?v=1"));
+    assertNull(rules.match("https://not-google-analytics.com/"));
+    assertNull(rules.match("https://example.com/google-analytics.com"));
+  }
+
+  @Test
+  public void matchesPathPrefix() {
+    rules.block("example.com/ads/");
+
+    assertNotNull(rules.match("http://example.com/ads/banner.png"));
+    assertNull(rules.match("http://example.com/about"));
+    assertNull(rules.match("http://www.example.com/ads/banner.png"));
+  }
+
+  @Test
+  public void appliesTheMostSpecificRule() {
+    rules.block("*.example.com")
+        .delay("api.example.com", 100)
+        .stub("api.example.com/user", 200, "application/json", "{\"name\": \"Bob\"}");
+
+    assertEquals(RequestRules.Action.BLOCK, rules.match("https://cdn.example.com/chat.js").action);
+    assertEquals(RequestRules.Action.DELAY, rules.match("https://api.example.com/orders").action);
+    assertEquals(RequestRules.Action.STUB, rules.match("https://api.example.com/user/42").action);
+    assertNull(rules.match("https://example.org/"));
+  }
+
+  @Test
+  public void blockedRequestGetsEmptyResponse() {
+    rules.block("example.com");
+
+    FullHttpResponse response = rules.match("http://example.com/tracker.js").response();
+    assertEquals(204, response.getStatus().code());
+    assertEquals(0, response.content().readableBytes());
+  }
+
+  @Test
+  public void stubbedRequestGetsContentOfFixture() throws IOException {
+    File fixture = File.createTempFile("user", ".json");
+    fixture.deleteOnExit();
+    Files.write(fixture.toPath(), "{\"name\": \"Bob\"}".getBytes(UTF_8));
+    rules.stub("api.example.com/user", 201, "application/json", fixture);
+
+    FullHttpResponse response = rules.match("https://api.example.com/user").response();
+    assertEquals(201, response.getStatus().code());
+    assertEquals("application/json", response.headers().get("Content-Type"));
+    assertEquals("15", response.headers().get("Content-Length"));
+    assertEquals("{\"name\": \"Bob\"}", response.content().toString(UTF_8));
+  }
+
+  @Test
+  public void delaysResponseWithoutBlockingThread() throws InterruptedException {
+    rules.delay("api.example.com", 200);
+    EmbeddedChannel browser = new EmbeddedChannel(new ChannelInboundHandlerAdapter());
+    HttpRequest request = new DefaultHttpRequest(HTTP_1_1, GET, "http://api.example.com/orders");
+
+    long start = System.currentTimeMillis();
+    assertNull(rules.filterRequest(request, browser.pipeline().firstContext()).clientToProxyRequest(request));
+    browser.writeOutbound(new DefaultFullHttpResponse(HTTP_1_1, OK));
+    assertTrue(System.currentTimeMillis() - start < 200);
+    assertNull(browser.readOutbound());
+
+    Thread.sleep(250);
+    browser.runPendingTasks();
+    FullHttpResponse response = (FullHttpResponse) browser.readOutbound();
+    assertEquals(200, response.getStatus().code());
+    assertNull(browser.pipeline().get(RequestRules.ResponseDelay.class));
+  }
+
+  @Test
+  public void canRemoveAllRules() {
+    rules.block("*");
+    assertEquals(1, rules.size());
+    assertNotNull(rules.match("http://any.site/"));
+
+    rules.clear();
+    assertEquals(0, rules.size());
+    assertNull(rules.match("http://any.site/"));
+  }
+}
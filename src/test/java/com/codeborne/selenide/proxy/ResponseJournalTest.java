@@ -0,0 +1,61 @@
+package com.codeborne.selenide.proxy;
+
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.http.DefaultHttpHeaders;
+import io.netty.handler.codec.http.HttpHeaders;
+import org.junit.Test;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.junit.Assert.*;
+
+public class ResponseJournalTest {
+  ResponseJournal journal = new ResponseJournal(2);
+  HttpHeaders headers = new DefaultHttpHeaders();
+
+  @Test
+  public void keepsOnlyLatestResponses() {
+    journal.add("http://site/1", 200, "OK", headers, "text/html");
+    journal.add("http://site/2", 200, "OK", headers, "text/html");
+    journal.add("http://site/3", 404, "Not found", headers, "text/html");
+
+    assertThat(journal.size(), is(3L));
+    assertThat(journal.toString(), is("Intercepted 3 responses. Last 2 of them:" +
+        "\n  http://site/2 -> 200 \"OK\" {} text/html  (0 bytes)\n" +
+        "\n  http://site/3 -> 404 \"Not found\" {} text/html  (0 bytes)\n"));
+  }
+
+  @Test
+  public void doesNotCaptureBodiesByDefault() {
+    journal.add("http://site/1", 200, "OK", headers, "text/html")
+        .addContent(Unpooled.copiedBuffer("<html>hello</html>", UTF_8));
+
+    assertThat(journal.toString(), is("Intercepted 1 responses." +
+        "\n  http://site/1 -> 200 \"OK\" {} text/html  (18 bytes)\n"));
+  }
+
+  @Test
+  public void capturesBeginningOfBodiesWithGivenContentTypes() {
+    journal.captureBodies(6, "text/", "application/json");
+    ResponseJournal.Response html = journal.add("http://site/1", 200, "OK", headers, "text/html; charset=UTF-8");
+    html.addContent(Unpooled.copiedBuffer("<html>", UTF_8));
+    html.addContent(Unpooled.copiedBuffer("hello</html>", UTF_8));
+    journal.add("http://site/logo.png", 200, "OK", headers, "image/png")
+        .addContent(Unpooled.copiedBuffer("binary", UTF_8));
+
+    String responses = journal.toString();
+    assertThat(responses, containsString("(18 bytes)\n  <html>...\n"));
+    assertThat(responses, not(containsString("binary")));
+  }
+
+  @Test
+  public void clearRemovesAllResponses() {
+    journal.add("http://site/1", 200, "OK", headers, "text/html");
+    journal.clear();
+
+    assertThat(journal.size(), is(0L));
+    assertThat(journal.toString(), is("Intercepted 0 responses."));
+  }
+}
@@ -1,14 +1,20 @@
 package com.codeborne.selenide.proxy;
 
+import com.codeborne.selenide.Configuration;
 import net.lightbody.bmp.BrowserMobProxyServer;
+import net.lightbody.bmp.filters.RequestFilter;
+import net.lightbody.bmp.filters.ResponseFilter;
 import org.junit.Test;
 import org.openqa.selenium.Proxy;
 
+import java.io.File;
 import java.net.InetSocketAddress;
 
 import static org.hamcrest.CoreMatchers.endsWith;
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThat;
 import static org.mockito.Mockito.*;
 
@@ -26,6 +32,10 @@ public class SelenideProxyServerTest {
       verify(bmp).setTrustAllServers(true);
       verify(bmp, never()).setChainedProxy(any(InetSocketAddress.class));
       verify(bmp).start();
+      verify(bmp).addLastHttpFilterFactory(proxyServer.responseFilter("download"));
+      verify(bmp).addLastHttpFilterFactory(proxyServer.getTrafficSummary());
+      verify(bmp, never()).addResponseFilter(any(ResponseFilter.class));
+      verify(bmp, never()).addRequestFilter(any(RequestFilter.class));
       assertThat(proxyServer.createSeleniumProxy().getHttpProxy(), endsWith(":8888"));
     }
     finally {
@@ -37,6 +47,34 @@ public class SelenideProxyServerTest {
     assertThat(filter.getDownloadedFiles().size(), is(0));
   }
 
+  @Test
+  public void resetForgetsStateOfPreviousUser() {
+    String blockedUrls = Configuration.blockedUrls;
+    Configuration.blockedUrls = "*.google-analytics.com";
+    SelenideProxyServer proxyServer = new SelenideProxyServer(null);
+    proxyServer.proxy = mock(BrowserMobProxyServer.class);
+    try {
+      proxyServer.start();
+      proxyServer.getRequestRules().block("example.com");
+      FileDownloadFilter filter = proxyServer.responseFilter("download");
+      filter.activate();
+      filter.getDownloadedFiles().add(new File("report.pdf"));
+      proxyServer.getNetworkActivity().started("http://example.com/long-polling");
+
+      proxyServer.reset();
+
+      assertEquals(1, proxyServer.getRequestRules().size());
+      assertNotNull(proxyServer.getRequestRules().match("https://www.google-analytics.com/collect"));
+      assertNull(filter.filterRequest(null, null));
+      assertThat(filter.getDownloadedFiles().size(), is(0));
+      assertEquals(0, proxyServer.getNetworkActivity().getInFlightCount());
+    }
+    finally {
+      Configuration.blockedUrls = blockedUrls;
+      proxyServer.shutdown();
+    }
+  }
+
   @Test
   public void extractsProxyAddress() {
     Proxy proxy = new Proxy();
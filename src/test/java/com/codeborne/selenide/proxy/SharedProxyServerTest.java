@@ -0,0 +1,126 @@
+package com.codeborne.selenide.proxy;
+
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.http.HttpObject;
+import io.netty.handler.codec.http.HttpRequest;
+import net.lightbody.bmp.filters.ResponseFilter;
+import net.lightbody.bmp.filters.ResponseFilterAdapter;
+import org.junit.Test;
+import org.littleshoot.proxy.HttpFilters;
+import org.littleshoot.proxy.HttpFiltersAdapter;
+import org.littleshoot.proxy.HttpFiltersSource;
+import org.littleshoot.proxy.HttpFiltersSourceAdapter;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class SharedProxyServerTest {
+  SharedProxyServer server = new SharedProxyServer(null);
+  HttpRequest request = mock(HttpRequest.class);
+
+  @Test
+  public void appliesFiltersOfSessionByPort() {
+    HttpFilters session1Filter = new HttpFiltersAdapter(request);
+    HttpFilters session2Filter = new HttpFiltersAdapter(request);
+    server.sessions.put(1111, server.new Session(1111, null, singletonList(source(session1Filter))));
+    server.sessions.put(2222, server.new Session(2222, null, singletonList(source(session2Filter))));
+
+    assertSame(session1Filter, server.filterRequest(request, contextForPort(1111)));
+    assertSame(session2Filter, server.filterRequest(request, contextForPort(2222)));
+    assertNull(server.filterRequest(request, contextForPort(3333)));
+  }
+
+  @Test
+  public void appliesAllFiltersOfSessionInOrder() {
+    List<String> calls = new ArrayList<>();
+    server.sessions.put(1111, server.new Session(1111, null, asList(
+        source(new RecordingFilter(request, "first", calls)),
+        new HttpFiltersSourceAdapter(),
+        source(new RecordingFilter(request, "second", calls)))));
+
+    HttpFilters filters = server.filterRequest(request, contextForPort(1111));
+    HttpObject response = mock(HttpObject.class);
+
+    assertSame(response, filters.serverToProxyResponse(response));
+    assertEquals(asList("first", "second"), calls);
+  }
+
+  @Test
+  public void closingSessionRemovesItsFilters() {
+    server.sessions.put(1111, server.new Session(1111, null, emptyList()));
+    assertEquals(1, server.getSessionsCount());
+
+    server.sessions.get(1111).close();
+
+    assertEquals(0, server.getSessionsCount());
+  }
+
+  @Test
+  public void supportsOnlyStreamingFilters() {
+    try {
+      server.openSession(singletonList(new ResponseFilterAdapter.FilterSource(mock(ResponseFilter.class))));
+      fail("expected IllegalArgumentException");
+    }
+    catch (IllegalArgumentException expected) {
+      assertTrue(expected.getMessage().startsWith("Shared proxy server supports only streaming filters"));
+    }
+  }
+
+  @Test
+  public void everySessionGetsItsOwnPortOfTheSameServer() {
+    SharedProxyServer.Session session1 = server.openSession(emptyList());
+    SharedProxyServer.Session session2 = server.openSession(emptyList());
+    try {
+      assertNotEquals(session1.getPort(), session2.getPort());
+      assertNotEquals(server.proxy.getPort(), session1.getPort());
+      assertEquals(2, server.getSessionsCount());
+    }
+    finally {
+      session1.close();
+      session2.close();
+      server.proxy.abort();
+    }
+  }
+
+  private ChannelHandlerContext contextForPort(int port) {
+    ChannelHandlerContext ctx = mock(ChannelHandlerContext.class);
+    Channel channel = mock(Channel.class);
+    when(ctx.channel()).thenReturn(channel);
+    when(channel.localAddress()).thenReturn(new InetSocketAddress("127.0.0.1", port));
+    return ctx;
+  }
+
+  private HttpFiltersSource source(HttpFilters filters) {
+    return new HttpFiltersSourceAdapter() {
+      @Override
+      public HttpFilters filterRequest(HttpRequest originalRequest, ChannelHandlerContext ctx) {
+        return filters;
+      }
+    };
+  }
+
+  private static class RecordingFilter extends HttpFiltersAdapter {
+    private final String name;
+    private final List<String> calls;
+
+    private RecordingFilter(HttpRequest originalRequest, String name, List<String> calls) {
+      super(originalRequest);
+      this.name = name;
+      this.calls = calls;
+    }
+
+    @Override
+    public HttpObject serverToProxyResponse(HttpObject httpObject) {
+      calls.add(name);
+      return httpObject;
+    }
+  }
+}
@@ -0,0 +1,188 @@
+package com.codeborne.selenide.proxy;
+
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.DefaultHttpContent;
+import io.netty.handler.codec.http.DefaultHttpRequest;
+import io.netty.handler.codec.http.DefaultHttpResponse;
+import io.netty.handler.codec.http.DefaultLastHttpContent;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpRequest;
+import io.netty.handler.codec.http.HttpResponse;
+import org.junit.After;
+import org.junit.Test;
+import org.littleshoot.proxy.HttpFilters;
+
+import static io.netty.handler.codec.http.HttpMethod.GET;
+import static io.netty.handler.codec.http.HttpMethod.POST;
+import static io.netty.handler.codec.http.HttpResponseStatus.NOT_FOUND;
+import static io.netty.handler.codec.http.HttpResponseStatus.OK;
+import static io.netty.handler.codec.http.HttpVersion.HTTP_1_1;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.*;
+
+public class StaticResourcesCacheTest {
+  StaticResourcesCache cache = new StaticResourcesCache() {
+    @Override
+    long maxSize() {
+      return 10;
+    }
+  };
+
+  @After
+  public void tearDown() {
+    cache.clear();
+  }
+
+  @Test
+  public void cachesOnlySimpleGetRequests() {
+    assertTrue(StaticResourcesCache.isCacheable(new DefaultHttpRequest(HTTP_1_1, GET, "/app.js")));
+    assertFalse(StaticResourcesCache.isCacheable(new DefaultHttpRequest(HTTP_1_1, POST, "/app.js")));
+
+    HttpRequest range = new DefaultHttpRequest(HTTP_1_1, GET, "/video.mp4");
+    range.headers().add("Range", "bytes=0-100");
+    assertFalse(StaticResourcesCache.isCacheable(range));
+
+    HttpRequest withCookie = new DefaultHttpRequest(HTTP_1_1, GET, "/app.js");
+    withCookie.headers().add("Cookie", "session=1");
+    assertTrue(StaticResourcesCache.isCacheable(withCookie));
+  }
+
+  @Test
+  public void cachesResponsesToRequestsWithCookies_onlyIfTheyArePublic() {
+    assertFalse(StaticResourcesCache.isPublic(response()));
+    assertFalse(StaticResourcesCache.isPublic(response("Cache-Control", "max-age=60")));
+    assertTrue(StaticResourcesCache.isPublic(response("Cache-Control", "public, max-age=60")));
+    assertTrue(StaticResourcesCache.isPublic(response("Cache-Control", "max-age=60, s-maxage=600")));
+
+    load("http://site/private.js", "session=1", response("Cache-Control", "max-age=60"));
+    load("http://site/public.js", "session=1", response("Cache-Control", "public, max-age=60"));
+    load("http://site/anonymous.js", null, response("Cache-Control", "max-age=60"));
+
+    assertNull(cache.cachedResponse("http://site/private.js"));
+    assertNotNull(cache.cachedResponse("http://site/public.js"));
+    assertNotNull(cache.cachedResponse("http://site/anonymous.js"));
+  }
+
+  @Test
+  public void deletesUnfinishedEntry_ifBrowserClosesConnection() {
+    EmbeddedChannel browser = new EmbeddedChannel(new ChannelInboundHandlerAdapter());
+    HttpFilters filter = cache.filterRequest(
+        new DefaultHttpRequest(HTTP_1_1, GET, "http://site/app.js"), browser.pipeline().firstContext());
+    assertNull(filter.clientToProxyRequest(new DefaultHttpRequest(HTTP_1_1, GET, "http://site/app.js")));
+    filter.serverToProxyResponse(response());
+    filter.serverToProxyResponse(new DefaultHttpContent(Unpooled.copiedBuffer("12", UTF_8)));
+
+    browser.close();
+    filter.serverToProxyResponse(new DefaultLastHttpContent(Unpooled.copiedBuffer("34", UTF_8)));
+
+    assertNull(cache.cachedResponse("http://site/app.js"));
+    assertEquals(0, cache.getSizeInBytes());
+  }
+
+  @Test
+  public void respectsMaxAgeAndExpiresHeaders() {
+    long now = 1500000000000L;
+    assertEquals(Long.MAX_VALUE, StaticResourcesCache.expiresAt(response(), now));
+    assertEquals(now + 60000, StaticResourcesCache.expiresAt(response("Cache-Control", "public, max-age=60"), now));
+    assertEquals(now + 50000, StaticResourcesCache.expiresAt(
+        response("Cache-Control", "max-age=60", "Age", "10"), now));
+    assertEquals(now + 3600000, StaticResourcesCache.expiresAt(
+        response("Cache-Control", "max-age=60, s-maxage=3600", "Expires", "Thu, 01 Jan 1970 00:00:00 GMT"), now));
+    assertEquals(now + 120000, StaticResourcesCache.expiresAt(response(
+        "Date", "Fri, 14 Jul 2017 10:00:00 GMT", "Expires", "Fri, 14 Jul 2017 10:02:00 GMT"), now));
+    assertEquals(now, StaticResourcesCache.expiresAt(response("Expires", "0"), now));
+
+    assertFalse(StaticResourcesCache.isCacheable("http://site/app.js", response("Cache-Control", "max-age=0")));
+    assertFalse(StaticResourcesCache.isCacheable("http://site/app.js", response("Expires", "0")));
+  }
+
+  @Test
+  public void doesNotServeExpiredResponses() throws InterruptedException {
+    StaticResourcesCache.EntryWriter writer = cache.startCaching("http://site/app.js",
+        response("Cache-Control", "max-age=1", "Age", "0"));
+    writer.write(Unpooled.copiedBuffer("1234", UTF_8));
+    writer.commit();
+    assertNotNull(cache.cachedResponse("http://site/app.js"));
+
+    Thread.sleep(1100);
+
+    assertNull(cache.cachedResponse("http://site/app.js"));
+    assertEquals(0, cache.getSize());
+    assertEquals(0, cache.getSizeInBytes());
+  }
+
+  @Test
+  public void cachesOnlyStaticResources() {
+    assertTrue(StaticResourcesCache.isCacheable("http://site/app.js?v=12", response()));
+    assertTrue(StaticResourcesCache.isCacheable("http://site/fonts/1", response("Content-Type", "font/woff2")));
+    assertTrue(StaticResourcesCache.isCacheable("http://site/style", response("Content-Type", "text/css; charset=UTF-8")));
+    assertFalse(StaticResourcesCache.isCacheable("http://site/page", response("Content-Type", "text/html")));
+    assertFalse(StaticResourcesCache.isCacheable("http://site/app.js", response("Cache-Control", "no-cache")));
+    assertFalse(StaticResourcesCache.isCacheable("http://site/app.js", response("Set-Cookie", "session=1")));
+    assertFalse(StaticResourcesCache.isCacheable("http://site/app.js", response("Vary", "Cookie")));
+    assertTrue(StaticResourcesCache.isCacheable("http://site/app.js", response("Vary", "Accept-Encoding")));
+    assertFalse(StaticResourcesCache.isCacheable("http://site/app.js", new DefaultHttpResponse(HTTP_1_1, NOT_FOUND)));
+  }
+
+  @Test
+  public void servesCachedResponses() {
+    assertNull(cache.cachedResponse("http://site/app.js"));
+
+    StaticResourcesCache.EntryWriter writer = cache.startCaching("http://site/app.js",
+        response("Content-Type", "text/javascript", "Transfer-Encoding", "chunked"));
+    writer.write(Unpooled.copiedBuffer("var ", UTF_8));
+    writer.write(Unpooled.copiedBuffer("a;", UTF_8));
+    writer.commit();
+
+    FullHttpResponse cached = cache.cachedResponse("http://site/app.js");
+    assertEquals("var a;", cached.content().toString(UTF_8));
+    assertEquals("text/javascript", cached.headers().get("Content-Type"));
+    assertEquals("6", cached.headers().get("Content-Length"));
+    assertNull(cached.headers().get("Transfer-Encoding"));
+    assertEquals(1, cache.getHits());
+    assertEquals(1, cache.getMisses());
+    assertEquals(0.5, cache.getHitRatio(), 0.001);
+  }
+
+  @Test
+  public void evictsLeastRecentlyUsedResources() {
+    store("http://site/1.js", "1234");
+    store("http://site/2.js", "1234");
+    cache.cachedResponse("http://site/1.js");
+    store("http://site/3.js", "1234");
+
+    assertEquals(2, cache.getSize());
+    assertEquals(8, cache.getSizeInBytes());
+    assertNotNull(cache.cachedResponse("http://site/1.js"));
+    assertNull(cache.cachedResponse("http://site/2.js"));
+    assertNotNull(cache.cachedResponse("http://site/3.js"));
+  }
+
+  private void load(String url, String cookie, HttpResponse response) {
+    HttpRequest request = new DefaultHttpRequest(HTTP_1_1, GET, url);
+    if (cookie != null) {
+      request.headers().add("Cookie", cookie);
+    }
+    EmbeddedChannel browser = new EmbeddedChannel(new ChannelInboundHandlerAdapter());
+    HttpFilters filter = cache.filterRequest(request, browser.pipeline().firstContext());
+    assertNull(filter.clientToProxyRequest(request));
+    filter.serverToProxyResponse(response);
+    filter.serverToProxyResponse(new DefaultLastHttpContent(Unpooled.copiedBuffer("1", UTF_8)));
+  }
+
+  private void store(String url, String content) {
+    StaticResourcesCache.EntryWriter writer = cache.startCaching(url, response());
+    writer.write(Unpooled.copiedBuffer(content, UTF_8));
+    writer.commit();
+  }
+
+  private HttpResponse response(String... headers) {
+    HttpResponse response = new DefaultHttpResponse(HTTP_1_1, OK);
+    for (int i = 0; i < headers.length; i += 2) {
+      response.headers().add(headers[i], headers[i + 1]);
+    }
+    return response;
+  }
+}
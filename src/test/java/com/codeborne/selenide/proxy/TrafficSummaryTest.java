@@ -0,0 +1,38 @@
+package com.codeborne.selenide.proxy;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class TrafficSummaryTest {
+  TrafficSummary summary = new TrafficSummary(2);
+
+  @Test
+  public void keepsOnlySlowestUrls() {
+    summary.completed("http://site/fast", 10);
+    summary.completed("http://site/slowest", 300);
+    summary.completed("http://site/medium", 50);
+    summary.completed("http://site/slow", 200);
+
+    List<TrafficSummary.UrlTiming> slowest = summary.getSlowestUrls();
+    assertThat(summary.getRequestsCount(), is(4L));
+    assertThat(slowest.size(), is(2));
+    assertThat(slowest.get(0).url, is("http://site/slowest"));
+    assertThat(slowest.get(1).url, is("http://site/slow"));
+    assertThat(summary.toString(), is("Requests: 4, sent: 0 bytes, received: 0 bytes" +
+        "\n  300 ms http://site/slowest" +
+        "\n  200 ms http://site/slow"));
+  }
+
+  @Test
+  public void canBeResetBeforeEveryTest() {
+    summary.completed("http://site/page", 10);
+    summary.reset();
+
+    assertThat(summary.getRequestsCount(), is(0L));
+    assertThat(summary.getSlowestUrls().size(), is(0));
+  }
+}